@@ -2,6 +2,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.4.3"
     id("io.spring.dependency-management") version "1.1.7"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.acenexus.tata"
@@ -69,9 +70,10 @@ dependencies {
     // OpenAPI / Swagger
     implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.7.0")
 
-    // Distributed Tracing - Micrometer OTel Bridge + OTLP Exporter
+    // Distributed Tracing / Metrics - Micrometer OTel Bridge + OTLP Exporter
     implementation("io.micrometer:micrometer-tracing-bridge-otel")
     implementation("io.opentelemetry:opentelemetry-exporter-otlp")
+    implementation("io.micrometer:micrometer-registry-otlp")
 
     // Test
     testImplementation("org.springframework.boot:spring-boot-starter-test")
@@ -87,6 +89,13 @@ tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+// JMH 效能基準測試：./gradlew jmh（原始碼位於 src/jmh/java）
+jmh {
+    warmupIterations = 2
+    iterations = 3
+    fork = 1
+}
+
 // 禁用標準 jar 任務
 tasks.jar {
     enabled = false
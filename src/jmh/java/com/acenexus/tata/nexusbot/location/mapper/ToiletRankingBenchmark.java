@@ -0,0 +1,109 @@
+package com.acenexus.tata.nexusbot.location.mapper;
+
+import com.acenexus.tata.nexusbot.location.OsmElement;
+import com.acenexus.tata.nexusbot.location.ToiletLocation;
+import com.acenexus.tata.nexusbot.location.strategy.ToiletNamingStrategy;
+import com.acenexus.tata.nexusbot.location.strategy.ToiletRatingCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 最近廁所排序基準測試
+ * 模擬市中心 Overpass 回應（5000 筆 node / way 混合、常見標籤），比較 Top-K 選取與完整轉換後排序。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ToiletRankingBenchmark {
+
+    private static final double USER_LAT = 25.0478;
+    private static final double USER_LON = 121.5170;
+    private static final int LIMIT = 10;
+    private static final ZoneId ZONE = ZoneId.of("Asia/Taipei");
+
+    private static final String[][] KINDS = {
+            {"amenity", "toilets"},
+            {"amenity", "restaurant"},
+            {"amenity", "cafe"},
+            {"shop", "convenience"},
+            {"amenity", "fuel"},
+            {"building", "toilets"}
+    };
+
+    @Param({"5000"})
+    public int elementCount;
+
+    @Param({"600", "2000"})
+    public int radius;
+
+    private final List<OsmElement> elements = new ArrayList<>();
+    private ToiletLocationMapper mapper;
+
+    @Setup
+    public void setUp() {
+        mapper = new ToiletLocationMapper(new ToiletNamingStrategy(), new ToiletRatingCalculator());
+        Random random = new Random(42);
+
+        for (int i = 0; i < elementCount; i++) {
+            String[] kind = KINDS[random.nextInt(KINDS.length)];
+            Map<String, String> tags = new HashMap<>();
+            tags.put(kind[0], kind[1]);
+            if (!"toilets".equals(kind[1])) {
+                tags.put("toilets", "yes");
+            }
+            if (random.nextBoolean()) {
+                tags.put("name", "Place " + i);
+            }
+            if (random.nextInt(4) == 0) {
+                tags.put("opening_hours", "Mo-Fr 08:00-20:00");
+            }
+            if (random.nextInt(3) == 0) {
+                tags.put("addr:city", "臺北市");
+                tags.put("addr:street", "忠孝西路");
+                tags.put("addr:housenumber", String.valueOf(i));
+            }
+            if (random.nextInt(5) == 0) {
+                tags.put("wheelchair", "yes");
+            }
+
+            OsmElement element = new OsmElement();
+            element.setId((long) i);
+            element.setType(random.nextInt(3) == 0 ? "way" : "node");
+            element.setLat(USER_LAT - 0.02 + random.nextDouble() * 0.04);
+            element.setLon(USER_LON - 0.02 + random.nextDouble() * 0.04);
+            element.setTags(tags);
+            elements.add(element);
+        }
+    }
+
+    @Benchmark
+    public List<ToiletLocation> topKSelection() {
+        return mapper.rankNearest(elements, USER_LAT, USER_LON, radius, LIMIT, ZONE);
+    }
+
+    /**
+     * 舊版作法：全部轉換為 ToiletLocation 後依距離排序再截取，作為比較基準
+     */
+    @Benchmark
+    public List<ToiletLocation> materializeAllBaseline() {
+        List<ToiletLocation> toilets = mapper.mapToToiletLocations(elements, USER_LAT, USER_LON, ZONE);
+        toilets.removeIf(toilet -> toilet.getDistance() > radius);
+        toilets.sort(Comparator.comparingDouble(ToiletLocation::getDistance));
+        return toilets.size() > LIMIT ? new ArrayList<>(toilets.subList(0, LIMIT)) : toilets;
+    }
+}
@@ -0,0 +1,96 @@
+package com.acenexus.tata.nexusbot.reminder.recurrence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 下一次觸發時間計算基準測試
+ * 以所有可用時區 × 多種重複規則組成數千筆提醒，並模擬不同長度的停機時間。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RecurrenceRuleBenchmark {
+
+    private static final String[] RULES = {
+            "DAILY",
+            "WEEKLY",
+            "WEEKDAYS",
+            "MONTHLY",
+            "RRULE:FREQ=DAILY;INTERVAL=3",
+            "RRULE:FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE,FR",
+            "RRULE:FREQ=MONTHLY;BYMONTHDAY=31",
+            "RRULE:FREQ=HOURLY;INTERVAL=4",
+            "RRULE:FREQ=MINUTELY;INTERVAL=30"
+    };
+
+    /**
+     * 上一次觸發距今的停機天數
+     */
+    @Param({"0", "30", "365"})
+    public int downtimeDays;
+
+    private final List<RecurrenceRule> rules = new ArrayList<>();
+    private final List<ZonedDateTime> previousTimes = new ArrayList<>();
+    private Instant now;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        now = Instant.parse("2025-06-15T03:00:00Z");
+        LocalDateTime base = LocalDateTime.of(2025, 6, 15, 8, 30).minusDays(downtimeDays);
+
+        for (String zoneId : ZoneId.getAvailableZoneIds()) {
+            ZoneId zone = ZoneId.of(zoneId);
+            for (String rule : RULES) {
+                rules.add(RecurrenceRules.parse(rule));
+                previousTimes.add(base.plusMinutes(random.nextInt(24 * 60)).atZone(zone));
+            }
+        }
+    }
+
+    @Benchmark
+    public void closedFormNext(Blackhole blackhole) {
+        for (int i = 0; i < rules.size(); i++) {
+            blackhole.consume(rules.get(i).next(previousTimes.get(i), now));
+        }
+    }
+
+    /**
+     * 舊版逐次 plus 迴圈作法（僅適用每日規則），作為比較基準
+     */
+    @Benchmark
+    public void iterativeDailyBaseline(Blackhole blackhole) {
+        for (ZonedDateTime previous : previousTimes) {
+            ZonedDateTime next = previous.plus(1, ChronoUnit.DAYS);
+            while (next.toInstant().isBefore(now)) {
+                next = next.plus(1, ChronoUnit.DAYS);
+            }
+            blackhole.consume(next);
+        }
+    }
+
+    @Benchmark
+    public void parseCached(Blackhole blackhole) {
+        for (String rule : RULES) {
+            blackhole.consume(RecurrenceRules.parse(rule));
+        }
+    }
+}
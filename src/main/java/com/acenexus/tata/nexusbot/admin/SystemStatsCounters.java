@@ -0,0 +1,253 @@
+package com.acenexus.tata.nexusbot.admin;
+
+import com.acenexus.tata.nexusbot.entity.ChatMessage;
+import com.acenexus.tata.nexusbot.util.HyperLogLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 系統統計計數器
+ * - 寫入訊息時只累加記憶體計數與當日活躍聊天室的 HyperLogLog，定期批次寫回 system_stats（多實例以資料庫累加共享）
+ * - HyperLogLog 以暫存器最大值合併，寫回時與資料庫中其他實例的結果合併，重複寫回不會重複計算
+ * - 計數為累計用量，清除對話記錄不會減少
+ * - /stats 只讀取記憶體中的數值，成本與訊息總數無關
+ */
+@Service
+@RequiredArgsConstructor
+public class SystemStatsCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(SystemStatsCounters.class);
+
+    public static final String MESSAGES_TOTAL = "messages.total";
+    public static final String MESSAGES_USER = "messages.user";
+    public static final String MESSAGES_AI = "messages.ai";
+
+    private static final String ACTIVE_ROOMS_PREFIX = "active_rooms:";
+
+    /**
+     * 保留的每日活躍聊天室天數（含今日）
+     */
+    public static final int ACTIVE_ROOM_DAYS = 7;
+
+    private static final int SKETCH_PRECISION = 12;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 尚未寫回資料庫的增量
+     */
+    private final Map<String, AtomicLong> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 每日活躍聊天室（本實例累計，寫回時併入其他實例的結果）
+     */
+    private final Map<LocalDate, HyperLogLog> daySketches = new ConcurrentHashMap<>();
+
+    /**
+     * 最近一次從資料庫讀取的累計數值
+     */
+    private volatile Map<String, Long> persisted = Map.of();
+
+    @PostConstruct
+    public void init() {
+        try {
+            persisted = loadCounters();
+            loadSketches();
+        } catch (Exception e) {
+            logger.warn("Failed to load system stats: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 記錄一筆已儲存的訊息
+     */
+    public void recordMessage(ChatMessage message) {
+        add(MESSAGES_TOTAL, 1);
+        if (message.getMessageType() == ChatMessage.MessageType.AI) {
+            add(MESSAGES_AI, 1);
+        } else {
+            add(MESSAGES_USER, 1);
+        }
+
+        HyperLogLog sketch = daySketches.computeIfAbsent(LocalDate.now(), day -> new HyperLogLog(SKETCH_PRECISION));
+        synchronized (sketch) {
+            sketch.add(message.getRoomId());
+        }
+    }
+
+    /**
+     * 取得累計數值（含尚未寫回的部分）
+     */
+    public long get(String key) {
+        AtomicLong delta = pending.get(key);
+        return persisted.getOrDefault(key, 0L) + (delta != null ? delta.get() : 0);
+    }
+
+    /**
+     * 估計最近幾天（含今日）的不重複活躍聊天室數
+     *
+     * @param days 天數，1 表示只計今日，最多 {@link #ACTIVE_ROOM_DAYS}
+     */
+    public long activeRooms(int days) {
+        LocalDate today = LocalDate.now();
+        HyperLogLog union = new HyperLogLog(SKETCH_PRECISION);
+        for (int i = 0; i < Math.min(days, ACTIVE_ROOM_DAYS); i++) {
+            HyperLogLog sketch = daySketches.get(today.minusDays(i));
+            if (sketch != null) {
+                synchronized (sketch) {
+                    union.merge(sketch);
+                }
+            }
+        }
+        return union.estimate();
+    }
+
+    /**
+     * 將記憶體中的增量與活躍聊天室寫回資料庫，並重新讀取所有實例累計的數值
+     */
+    @Scheduled(fixedDelayString = "${admin.stats-flush-interval-ms:30000}")
+    public void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Long> deltas = new HashMap<>();
+        pending.forEach((key, value) -> {
+            long delta = value.getAndSet(0);
+            if (delta != 0) {
+                deltas.put(key, delta);
+            }
+        });
+
+        try {
+            for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+                increment(entry.getKey(), entry.getValue(), now);
+                entry.setValue(0L);
+            }
+            flushSketches(now);
+            persisted = loadCounters();
+        } catch (Exception e) {
+            // 尚未寫回的增量放回，下次重試
+            deltas.forEach((key, delta) -> {
+                if (delta != 0) {
+                    add(key, delta);
+                }
+            });
+            logger.error("Failed to flush system stats: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void add(String key, long delta) {
+        pending.computeIfAbsent(key, k -> new AtomicLong()).addAndGet(delta);
+    }
+
+    private void increment(String key, long delta, LocalDateTime now) {
+        String update = "UPDATE system_stats SET stat_value = stat_value + ?, updated_at = ? WHERE stat_key = ?";
+        if (jdbcTemplate.update(update, delta, now, key) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO system_stats (stat_key, stat_value, updated_at) VALUES (?, ?, ?)", key, delta, now);
+        } catch (DuplicateKeyException e) {
+            // 其他實例剛建立此統計項目
+            jdbcTemplate.update(update, delta, now, key);
+        }
+    }
+
+    /**
+     * 將每日活躍聊天室與資料庫中的結果合併後寫回，並移除超出保留天數的資料
+     */
+    private void flushSketches(LocalDateTime now) {
+        LocalDate oldest = LocalDate.now().minusDays(ACTIVE_ROOM_DAYS - 1);
+        daySketches.keySet().removeIf(day -> day.isBefore(oldest));
+        jdbcTemplate.update("DELETE FROM system_stats WHERE stat_key LIKE ? AND stat_key < ?",
+                ACTIVE_ROOMS_PREFIX + "%", ACTIVE_ROOMS_PREFIX + oldest);
+
+        for (Map.Entry<LocalDate, HyperLogLog> entry : daySketches.entrySet()) {
+            String key = ACTIVE_ROOMS_PREFIX + entry.getKey();
+            List<byte[]> stored = jdbcTemplate.queryForList("SELECT sketch FROM system_stats WHERE stat_key = ?", byte[].class, key);
+
+            HyperLogLog sketch = entry.getValue();
+            byte[] merged;
+            synchronized (sketch) {
+                if (!stored.isEmpty() && stored.get(0) != null) {
+                    sketch.merge(HyperLogLog.fromBytes(stored.get(0)));
+                }
+                merged = sketch.toBytes();
+            }
+
+            if (!stored.isEmpty()) {
+                jdbcTemplate.update("UPDATE system_stats SET sketch = ?, updated_at = ? WHERE stat_key = ?", merged, now, key);
+                continue;
+            }
+            try {
+                jdbcTemplate.update("INSERT INTO system_stats (stat_key, stat_value, sketch, updated_at) VALUES (?, 0, ?, ?)", key, merged, now);
+            } catch (DuplicateKeyException e) {
+                // 其他實例剛建立當日資料，下次寫回時合併
+                logger.debug("Active rooms sketch {} created concurrently, merging on next flush", key);
+            }
+        }
+    }
+
+    private Map<String, Long> loadCounters() {
+        Map<String, Long> counters = new HashMap<>();
+        jdbcTemplate.query("SELECT stat_key, stat_value FROM system_stats WHERE stat_key NOT LIKE ?",
+                rs -> {
+                    counters.put(rs.getString("stat_key"), rs.getLong("stat_value"));
+                }, ACTIVE_ROOMS_PREFIX + "%");
+        return Map.copyOf(counters);
+    }
+
+    /**
+     * 載入保留期間內的每日活躍聊天室；首次啟用（資料表中沒有任何一天）時由 chat_messages 回填一次
+     */
+    private void loadSketches() {
+        LocalDate today = LocalDate.now();
+        LocalDate oldest = today.minusDays(ACTIVE_ROOM_DAYS - 1);
+        jdbcTemplate.query("SELECT stat_key, sketch FROM system_stats WHERE stat_key >= ? AND stat_key LIKE ?",
+                rs -> {
+                    byte[] bytes = rs.getBytes("sketch");
+                    if (bytes != null) {
+                        LocalDate day = LocalDate.parse(rs.getString("stat_key").substring(ACTIVE_ROOMS_PREFIX.length()));
+                        daySketches.merge(day, HyperLogLog.fromBytes(bytes), (current, loaded) -> {
+                            current.merge(loaded);
+                            return current;
+                        });
+                    }
+                }, ACTIVE_ROOMS_PREFIX + oldest, ACTIVE_ROOMS_PREFIX + "%");
+        if (!daySketches.isEmpty()) {
+            return;
+        }
+
+        for (int i = 0; i < ACTIVE_ROOM_DAYS; i++) {
+            LocalDate day = today.minusDays(i);
+            List<String> rooms = jdbcTemplate.queryForList(
+                    "SELECT DISTINCT room_id FROM chat_messages WHERE created_at >= ? AND created_at < ?",
+                    String.class, day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+            if (rooms.isEmpty()) {
+                continue;
+            }
+            HyperLogLog sketch = new HyperLogLog(SKETCH_PRECISION);
+            rooms.forEach(sketch::add);
+            daySketches.put(day, sketch);
+        }
+        logger.info("Backfilled active room sketches for {} days from chat_messages", daySketches.size());
+    }
+}
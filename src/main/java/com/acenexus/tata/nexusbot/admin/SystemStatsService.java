@@ -1,6 +1,6 @@
 package com.acenexus.tata.nexusbot.admin;
 
-import com.acenexus.tata.nexusbot.repository.ChatMessageRepository;
+import com.acenexus.tata.nexusbot.ai.AIUsageMetrics;
 import com.acenexus.tata.nexusbot.repository.ChatRoomRepository;
 import com.acenexus.tata.nexusbot.repository.EmailRepository;
 import com.acenexus.tata.nexusbot.repository.ReminderRepository;
@@ -10,16 +10,14 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class SystemStatsService {
 
     private final ChatRoomRepository chatRoomRepository;
-    private final ChatMessageRepository chatMessageRepository;
+    private final SystemStatsCounters systemStatsCounters;
+    private final AIUsageMetrics aiUsageMetrics;
     private final ReminderRepository reminderRepository;
     private final EmailRepository emailRepository;
     private final MessageTemplateProvider messageTemplateProvider;
@@ -34,21 +32,21 @@ public class SystemStatsService {
             long aiEnabledRooms = chatRoomRepository.countAiEnabledRooms();
             long adminRooms = chatRoomRepository.countAdminRooms();
 
-            // 消息統計
-            long totalMessages = chatMessageRepository.countTotalMessages();
-            long aiMessages = chatMessageRepository.countAiMessages();
-            long userMessages = chatMessageRepository.countUserMessages();
+            // 消息統計（累計用量，由寫入時維護的計數器提供）
+            long totalMessages = systemStatsCounters.get(SystemStatsCounters.MESSAGES_TOTAL);
+            long aiMessages = systemStatsCounters.get(SystemStatsCounters.MESSAGES_AI);
+            long userMessages = systemStatsCounters.get(SystemStatsCounters.MESSAGES_USER);
 
-            // 活躍度統計
-            LocalDateTime todayStart = LocalDate.now().atStartOfDay();
-            LocalDateTime weekStart = LocalDateTime.now().minusDays(7);
-            long todayActiveRooms = chatMessageRepository.countActiveRoomsSince(todayStart);
-            long weekActiveRooms = chatMessageRepository.countActiveRoomsSince(weekStart);
+            // 活躍度統計（HyperLogLog 估計值）
+            long todayActiveRooms = systemStatsCounters.activeRooms(1);
+            long weekActiveRooms = systemStatsCounters.activeRooms(SystemStatsCounters.ACTIVE_ROOM_DAYS);
 
-            // AI 性能與成本統計
-            Double avgProcessingTime = chatMessageRepository.getAverageProcessingTime();
-            String avgTimeStr = avgProcessingTime != null ? String.format("%.1f ms", avgProcessingTime) : "無數據";
-            long totalTokensUsed = chatMessageRepository.sumTotalTokensUsed();
+            // AI 性能與成本統計（ai_usage_daily 每日彙總）
+            AIUsageMetrics.Totals aiUsage = aiUsageMetrics.totals();
+            String avgTimeStr = aiUsage.calls() > 0
+                    ? String.format("%.1f ms", (double) aiUsage.latencyTotalMs() / aiUsage.calls())
+                    : "無數據";
+            long totalTokensUsed = aiUsage.tokens();
 
             // 提醒統計
             long activeReminders = reminderRepository.countActiveReminders();
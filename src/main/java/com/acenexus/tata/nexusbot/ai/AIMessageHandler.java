@@ -2,6 +2,8 @@ package com.acenexus.tata.nexusbot.ai;
 
 import com.acenexus.tata.nexusbot.entity.ChatRoom;
 
+import java.time.Instant;
+
 /**
  * AI 消息處理接口
  */
@@ -14,7 +16,10 @@ public interface AIMessageHandler {
      * @param roomType    聊天室類型
      * @param userId      用戶 ID
      * @param messageText 消息內容
-     * @param replyToken  回覆 Token
+     * @param replyToken    回覆 Token
+     * @param receivedAt    收到事件的時間
+     * @param replyDeadline Reply Token 期限，AI 回應晚於此時間時改用 Push 發送
      */
-    void handleAIMessage(String roomId, ChatRoom.RoomType roomType, String userId, String messageText, String replyToken);
+    void handleAIMessage(String roomId, ChatRoom.RoomType roomType, String userId, String messageText, String replyToken,
+                         Instant receivedAt, Instant replyDeadline);
 }
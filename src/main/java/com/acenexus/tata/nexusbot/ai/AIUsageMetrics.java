@@ -0,0 +1,227 @@
+package com.acenexus.tata.nexusbot.ai;
+
+import com.acenexus.tata.nexusbot.constants.AiProvider;
+import com.acenexus.tata.nexusbot.util.LatencyHistogram;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AI 呼叫用量與延遲統計
+ * - 指標：ai.requests（provider、model、outcome，含 p50 / p95 / p99）、ai.tokens（provider、model）
+ * - 同時在記憶體累計每日每模型的呼叫數、Token 與延遲直方圖，定期寫回 ai_usage_daily
+ * - 直方圖與資料庫中的結果相加合併後重新計算 p50 / p95 / p99，多實例共用同一筆資料
+ * - 成本與延遲報表只查詢 ai_usage_daily，不再掃描 chat_messages
+ */
+@Component
+@RequiredArgsConstructor
+public class AIUsageMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(AIUsageMetrics.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 尚未寫回資料庫的每日用量
+     */
+    private final Map<DailyKey, DailyUsage> pending = new ConcurrentHashMap<>();
+
+    private record DailyKey(LocalDate day, AiProvider provider, String model) {
+    }
+
+    /**
+     * 累計用量（呼叫數、Token、延遲總和）
+     */
+    public record Totals(long calls, long tokens, long latencyTotalMs) {
+    }
+
+    /**
+     * 記錄一次 AI API 呼叫
+     *
+     * @param success   是否取得有效回應
+     * @param latencyMs 呼叫耗時（毫秒）
+     * @param tokens    回應回報的 Token 數
+     */
+    public void record(AiProvider provider, String model, boolean success, long latencyMs, int tokens) {
+        Timer.builder("ai.requests")
+                .description("AI chat completion requests")
+                .tag("provider", provider.name())
+                .tag("model", model)
+                .tag("outcome", success ? "success" : "error")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(latencyMs, TimeUnit.MILLISECONDS);
+        if (tokens > 0) {
+            Counter.builder("ai.tokens")
+                    .description("Tokens consumed by AI chat completions")
+                    .tag("provider", provider.name())
+                    .tag("model", model)
+                    .register(meterRegistry)
+                    .increment(tokens);
+        }
+
+        DailyUsage usage = pending.computeIfAbsent(new DailyKey(LocalDate.now(), provider, model), key -> new DailyUsage());
+        synchronized (usage) {
+            usage.add(success, latencyMs, Math.max(0, tokens));
+        }
+    }
+
+    /**
+     * 所有模型的累計用量（含尚未寫回的部分）
+     */
+    public Totals totals() {
+        long[] stored = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(calls), 0), COALESCE(SUM(tokens), 0), COALESCE(SUM(latency_total_ms), 0) FROM ai_usage_daily",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)});
+        long calls = stored[0];
+        long tokens = stored[1];
+        long latencyTotalMs = stored[2];
+        for (DailyUsage usage : pending.values()) {
+            synchronized (usage) {
+                calls += usage.calls;
+                tokens += usage.tokens;
+                latencyTotalMs += usage.latencyTotalMs;
+            }
+        }
+        return new Totals(calls, tokens, latencyTotalMs);
+    }
+
+    /**
+     * 將每日用量寫回 ai_usage_daily
+     */
+    @Scheduled(fixedDelayString = "${ai.usage.flush-interval-ms:60000}")
+    public void flush() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        for (Map.Entry<DailyKey, DailyUsage> entry : pending.entrySet()) {
+            DailyUsage usage = entry.getValue();
+            DailyUsage snapshot;
+            synchronized (usage) {
+                snapshot = usage.drain();
+            }
+            if (snapshot.calls == 0) {
+                // 前一天以前的項目不會再有新資料
+                if (entry.getKey().day().isBefore(yesterday)) {
+                    pending.remove(entry.getKey(), usage);
+                }
+                continue;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(entry.getKey(), snapshot));
+            } catch (Exception e) {
+                // 寫回失敗的用量放回，下次重試
+                synchronized (usage) {
+                    usage.merge(snapshot);
+                }
+                logger.error("Failed to flush AI usage for {} on {}: {}", entry.getKey().model(), entry.getKey().day(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void write(DailyKey key, DailyUsage delta) {
+        LocalDateTime now = LocalDateTime.now();
+        List<byte[]> stored = jdbcTemplate.queryForList(
+                "SELECT latency_histogram FROM ai_usage_daily WHERE usage_date = ? AND model = ? FOR UPDATE",
+                byte[].class, key.day(), key.model());
+
+        // 另建直方圖合併，寫回失敗時 delta 仍只包含本次增量
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.merge(delta.histogram);
+        if (!stored.isEmpty() && stored.get(0) != null) {
+            histogram.merge(LatencyHistogram.fromBytes(stored.get(0)));
+        }
+        Integer p50 = percentile(histogram, 0.5);
+        Integer p95 = percentile(histogram, 0.95);
+        Integer p99 = percentile(histogram, 0.99);
+
+        if (stored.isEmpty()) {
+            jdbcTemplate.update("""
+                            INSERT INTO ai_usage_daily (usage_date, model, provider, calls, errors, tokens, latency_total_ms,
+                                                        latency_p50_ms, latency_p95_ms, latency_p99_ms, latency_histogram, updated_at)
+                            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                            """,
+                    key.day(), key.model(), key.provider().name(), delta.calls, delta.errors, delta.tokens, delta.latencyTotalMs,
+                    p50, p95, p99, histogram.toBytes(), now);
+            return;
+        }
+        jdbcTemplate.update("""
+                        UPDATE ai_usage_daily
+                        SET calls = calls + ?, errors = errors + ?, tokens = tokens + ?, latency_total_ms = latency_total_ms + ?,
+                            latency_p50_ms = ?, latency_p95_ms = ?, latency_p99_ms = ?, latency_histogram = ?, updated_at = ?
+                        WHERE usage_date = ? AND model = ?
+                        """,
+                delta.calls, delta.errors, delta.tokens, delta.latencyTotalMs,
+                p50, p95, p99, histogram.toBytes(), now, key.day(), key.model());
+    }
+
+    private static Integer percentile(LatencyHistogram histogram, double percentile) {
+        long value = histogram.percentile(percentile);
+        return value < 0 ? null : (int) Math.min(value, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 單一模型單日尚未寫回的用量，由呼叫端以物件本身同步
+     */
+    private static final class DailyUsage {
+        private long calls;
+        private long errors;
+        private long tokens;
+        private long latencyTotalMs;
+        private LatencyHistogram histogram = new LatencyHistogram();
+
+        void add(boolean success, long latencyMs, int tokens) {
+            calls++;
+            if (!success) {
+                errors++;
+            }
+            this.tokens += tokens;
+            latencyTotalMs += latencyMs;
+            histogram.record(latencyMs);
+        }
+
+        void merge(DailyUsage other) {
+            calls += other.calls;
+            errors += other.errors;
+            tokens += other.tokens;
+            latencyTotalMs += other.latencyTotalMs;
+            histogram.merge(other.histogram);
+        }
+
+        /**
+         * 取出目前累計的用量並歸零
+         */
+        DailyUsage drain() {
+            DailyUsage snapshot = new DailyUsage();
+            snapshot.merge(this);
+            calls = 0;
+            errors = 0;
+            tokens = 0;
+            latencyTotalMs = 0;
+            histogram = new LatencyHistogram();
+            return snapshot;
+        }
+    }
+}
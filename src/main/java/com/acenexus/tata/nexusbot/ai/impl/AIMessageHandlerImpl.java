@@ -1,18 +1,23 @@
 package com.acenexus.tata.nexusbot.ai.impl;
 
+import com.acenexus.tata.nexusbot.admin.SystemStatsCounters;
 import com.acenexus.tata.nexusbot.ai.AIMessageHandler;
 import com.acenexus.tata.nexusbot.ai.AIService;
+import com.acenexus.tata.nexusbot.chatroom.ChatMessageWriter;
 import com.acenexus.tata.nexusbot.chatroom.ChatRoomManager;
 import com.acenexus.tata.nexusbot.entity.ChatMessage;
 import com.acenexus.tata.nexusbot.entity.ChatRoom;
-import com.acenexus.tata.nexusbot.repository.ChatMessageRepository;
 import com.acenexus.tata.nexusbot.service.MessageService;
 import com.acenexus.tata.nexusbot.template.MessageTemplateProvider;
 import com.acenexus.tata.nexusbot.util.MdcTaskDecorator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.concurrent.CompletableFuture;
 
 @Slf4j
@@ -23,53 +28,82 @@ public class AIMessageHandlerImpl implements AIMessageHandler {
     private final MessageService messageService;
     private final AIService aiService;
     private final ChatRoomManager chatRoomManager;
-    private final ChatMessageRepository chatMessageRepository;
+    private final ChatMessageWriter chatMessageWriter;
+    private final SystemStatsCounters systemStatsCounters;
     private final MessageTemplateProvider messageTemplateProvider;
+    private final MeterRegistry meterRegistry;
 
     @Override
-    public void handleAIMessage(String roomId, ChatRoom.RoomType roomType, String userId, String messageText, String replyToken) {
-        // 儲存用戶消息
+    public void handleAIMessage(String roomId, ChatRoom.RoomType roomType, String userId, String messageText, String replyToken,
+                                Instant receivedAt, Instant replyDeadline) {
+        // 儲存用戶消息（背景批次寫入，不在 webhook 執行緒等待資料庫）
         ChatMessage userMessage = ChatMessage.createUserMessage(roomId, roomType, userId, messageText);
-        chatMessageRepository.save(userMessage);
+        chatMessageWriter.write(userMessage);
+        systemStatsCounters.recordMessage(userMessage);
+
+        // 一對一聊天顯示載入動畫，群組不支援
+        if (roomType == ChatRoom.RoomType.USER) {
+            messageService.showLoadingAnimation(userId);
+        }
 
         // 非同步處理 AI 對話（使用 MdcTaskDecorator 自動傳遞 traceId）
+        ReplyTarget target = new ReplyTarget(replyToken, receivedAt, replyDeadline);
         CompletableFuture.runAsync(
-                MdcTaskDecorator.wrap(() -> processAIConversation(roomId, roomType, messageText, replyToken))
+                MdcTaskDecorator.wrap(() -> processAIConversation(roomId, roomType, messageText, target))
         );
     }
 
     /**
      * 處理 AI 對話
      */
-    private void processAIConversation(String roomId, ChatRoom.RoomType roomType, String messageText, String replyToken) {
+    private void processAIConversation(String roomId, ChatRoom.RoomType roomType, String messageText, ReplyTarget target) {
         try {
             String selectedModel = chatRoomManager.getAiModel(roomId, roomType);
             AIService.ChatResponse chatResponse = aiService.chatWithContext(roomId, messageText, selectedModel);
 
             String finalResponse = (chatResponse.success() && chatResponse.content() != null && !chatResponse.content().trim().isEmpty()) ? chatResponse.content() : messageTemplateProvider.defaultTextResponse(messageText);
 
-            messageService.sendReply(replyToken, finalResponse);
+            respond(roomId, finalResponse, target);
 
             // 儲存 AI 回應
-            ChatMessage aiMessage = ChatMessage.createAIMessage(roomId, roomType, finalResponse, chatResponse.model(), chatResponse.tokensUsed(), chatResponse.processingTime().intValue());
-            chatMessageRepository.save(aiMessage);
+            ChatMessage aiMessage = ChatMessage.createAIMessage(roomId, roomType, finalResponse, chatResponse.model());
+            chatMessageWriter.write(aiMessage);
+            systemStatsCounters.recordMessage(aiMessage);
 
             log.info("AI response sent to room {}, tokens: {}, time: {}ms", roomId, chatResponse.tokensUsed(), chatResponse.processingTime());
 
         } catch (Exception e) {
             log.error("AI processing error for room {}: {}", roomId, e.getMessage());
-            handleAIError(roomId, roomType, messageText, replyToken);
+            handleAIError(roomId, roomType, messageText, target);
         }
     }
 
     /**
      * 處理 AI 錯誤
      */
-    private void handleAIError(String roomId, ChatRoom.RoomType roomType, String messageText, String replyToken) {
+    private void handleAIError(String roomId, ChatRoom.RoomType roomType, String messageText, ReplyTarget target) {
         String fallbackResponse = messageTemplateProvider.defaultTextResponse(messageText);
-        messageService.sendReply(replyToken, fallbackResponse);
+        respond(roomId, fallbackResponse, target);
+
+        ChatMessage aiMessage = ChatMessage.createAIMessage(roomId, roomType, fallbackResponse, "fallback");
+        chatMessageWriter.write(aiMessage);
+        systemStatsCounters.recordMessage(aiMessage);
+    }
+
+    /**
+     * 發送回應：Reply Token 仍有效時回覆，否則改用 Push
+     * 記錄從收到訊息到送出回應的延遲，依發送方式分類（ai.reply.latency）
+     */
+    private void respond(String roomId, String text, ReplyTarget target) {
+        MessageService.Delivery delivery = messageService.sendReplyOrPush(target.replyToken(), target.replyDeadline(), roomId, text);
+        Timer.builder("ai.reply.latency")
+                .description("Time from receiving a message to sending the AI response")
+                .tag("delivery", delivery.name().toLowerCase())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.between(target.receivedAt(), Instant.now()));
+    }
 
-        ChatMessage aiMessage = ChatMessage.createAIMessage(roomId, roomType, fallbackResponse, "fallback", 0, 0);
-        chatMessageRepository.save(aiMessage);
+    private record ReplyTarget(String replyToken, Instant receivedAt, Instant replyDeadline) {
     }
 }
@@ -1,12 +1,13 @@
 package com.acenexus.tata.nexusbot.ai.impl;
 
 import com.acenexus.tata.nexusbot.ai.AIService;
+import com.acenexus.tata.nexusbot.ai.AIUsageMetrics;
+import com.acenexus.tata.nexusbot.chatroom.ChatMessageWriter;
 import com.acenexus.tata.nexusbot.config.properties.GeminiProxyProperties;
 import com.acenexus.tata.nexusbot.config.properties.GroqProperties;
 import com.acenexus.tata.nexusbot.constants.AiModel;
 import com.acenexus.tata.nexusbot.constants.AiProvider;
 import com.acenexus.tata.nexusbot.entity.ChatMessage;
-import com.acenexus.tata.nexusbot.repository.ChatMessageRepository;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -31,7 +32,8 @@ public class AIServiceImpl implements AIService {
 
     private final GroqProperties groqProperties;
     private final GeminiProxyProperties geminiProxyProperties;
-    private final ChatMessageRepository chatMessageRepository;
+    private final ChatMessageWriter chatMessageWriter;
+    private final AIUsageMetrics aiUsageMetrics;
 
     @Value("${ai.conversation.history-limit:15}")
     private int historyLimit;
@@ -73,8 +75,8 @@ public class AIServiceImpl implements AIService {
         long startTime = System.currentTimeMillis();
 
         try {
-            // 獲取最近的對話歷史
-            List<ChatMessage> recentHistory = chatMessageRepository.findRecentMessagesDesc(roomId, historyLimit);
+            // 獲取最近的對話歷史（包含尚未寫入資料庫的訊息）
+            List<ChatMessage> recentHistory = chatMessageWriter.recentMessages(roomId, historyLimit);
 
             // 建立包含歷史對話的訊息列表
             List<Map<String, String>> messages = buildMessagesWithHistory(recentHistory, message);
@@ -99,10 +101,13 @@ public class AIServiceImpl implements AIService {
             long processingTime = System.currentTimeMillis() - startTime;
             logger.debug("AI response - provider: {}, model: {}", targetProvider, selectedModel);
 
-            return parseAiResponse(response, processingTime, selectedModel);
+            ChatResponse chatResponse = parseAiResponse(response, processingTime, selectedModel);
+            aiUsageMetrics.record(targetProvider, selectedModel, chatResponse.success(), processingTime, chatResponse.tokensUsed());
+            return chatResponse;
 
         } catch (Exception e) {
             long processingTime = System.currentTimeMillis() - startTime;
+            aiUsageMetrics.record(targetProvider, selectedModel, false, processingTime, 0);
             logger.error("AI call failed - Provider: {}, Model: {}, Time: {}ms, Error: {}", targetProvider, selectedModel, processingTime, e.getMessage(), e);
             return new ChatResponse(null, selectedModel, 0, processingTime, false);
         }
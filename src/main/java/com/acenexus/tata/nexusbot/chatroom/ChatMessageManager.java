@@ -1,15 +1,20 @@
 package com.acenexus.tata.nexusbot.chatroom;
 
-import com.acenexus.tata.nexusbot.repository.ChatMessageRepository;
+import com.acenexus.tata.nexusbot.repository.ChatRoomRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+
 /**
  * 聊天訊息管理器
  * 職責：管理聊天室的歷史訊息
+ * 清除對話記錄只更新聊天室的清除時間點，讀取歷史時以此過濾；舊訊息由 ChatHistoryPurgeScheduler 分批刪除
+ * 清除前先寫入 ChatMessageWriter 佇列中（含寫入中）的訊息，使其落在清除時間點之前而被過濾；
+ * 清除後移除清除時間點以前的待寫入訊息，讀取歷史時不會再合併回來
  */
 @Component
 @RequiredArgsConstructor
@@ -17,7 +22,8 @@ public class ChatMessageManager {
 
     private static final Logger logger = LoggerFactory.getLogger(ChatMessageManager.class);
 
-    private final ChatMessageRepository chatMessageRepository;
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatMessageWriter chatMessageWriter;
 
     /**
      * 清除聊天室的歷史對話記錄
@@ -27,7 +33,13 @@ public class ChatMessageManager {
     @Transactional
     public void clearChatHistory(String roomId) {
         try {
-            chatMessageRepository.softDeleteByRoomId(roomId);
+            chatMessageWriter.flush();
+            LocalDateTime clearedAt = LocalDateTime.now();
+            if (chatRoomRepository.markHistoryCleared(roomId, clearedAt) == 0) {
+                logger.info("No chat room to clear history for: {}", roomId);
+                return;
+            }
+            chatMessageWriter.discardPendingBefore(roomId, clearedAt);
             logger.info("Cleared chat history for room: {}", roomId);
         } catch (Exception e) {
             logger.error("Failed to clear chat history for room: {}, error: {}", roomId, e.getMessage(), e);
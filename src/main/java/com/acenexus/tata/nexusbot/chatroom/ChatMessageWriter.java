@@ -0,0 +1,333 @@
+package com.acenexus.tata.nexusbot.chatroom;
+
+import com.acenexus.tata.nexusbot.config.properties.ChatMessageWriterProperties;
+import com.acenexus.tata.nexusbot.entity.ChatMessage;
+import com.acenexus.tata.nexusbot.repository.ChatMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 聊天訊息背景批次寫入器（write-behind）
+ * ChatMessage 使用 IDENTITY 主鍵，Hibernate 無法批次 INSERT，每則訊息都會在回覆路徑上同步等待一次資料庫寫入。
+ * 此寫入器讓呼叫端只需將訊息放入有界佇列：
+ * - 背景執行緒等到累積 batchSize 筆或超過 flushIntervalMs 後，以單一多列 INSERT 寫入
+ * - 由佇列取出與寫入資料庫在同一把鎖內完成，{@link #flush()} 也取得此鎖，因此會等待背景執行緒進行中的批次寫完
+ * - 尚未寫入的訊息依聊天室保留在記憶體中，{@link #recentMessages} 合併資料庫與待寫入訊息，讀取不會漏掉剛送出的訊息；
+ *   讀寫可見性以聊天室分段鎖保護，寫入只阻擋同批聊天室的讀取
+ * - 佇列滿或已關閉時由呼叫端同步寫入，形成背壓而不丟棄訊息
+ * - 關閉時寫完佇列中剩餘的訊息
+ * - 逐筆重試仍失敗的訊息無法寫入，記錄後計入 chat.message.dropped
+ * - 指標：chat.message.queue.size、chat.message.backpressure、chat.message.written、chat.message.dropped、chat.message.flush
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatMessageWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessageWriter.class);
+
+    private static final String INSERT_SQL = """
+            INSERT INTO chat_messages (room_id, room_type, user_id, message_type, content, ai_model,
+                                       created_at, updated_at)
+            VALUES\s""";
+
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int VISIBILITY_STRIPES = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatMessageWriterProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 依聊天室保存已排入佇列、尚未寫入資料庫的訊息（依排入順序）
+     */
+    private final Map<String, Deque<ChatMessage>> pendingByRoom = new ConcurrentHashMap<>();
+
+    /**
+     * 依聊天室分段：寫入資料庫與移出待寫入訊息為同一步驟，讀取歷史時不會看到同一則訊息兩次或漏掉
+     */
+    private final ReadWriteLock[] visibility = new ReadWriteLock[VISIBILITY_STRIPES];
+
+    /**
+     * 由佇列取出批次到寫入完成期間持有，flush() 取得後即表示先前排入的訊息都已寫入
+     */
+    private final ReentrantLock batchLock = new ReentrantLock();
+
+    /**
+     * 每次排入佇列釋放一個許可，用來喚醒等待中的背景執行緒
+     */
+    private final Semaphore available = new Semaphore(0);
+
+    private BlockingQueue<ChatMessage> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private Counter backpressure;
+    private Counter written;
+    private Counter dropped;
+    private Timer flushTimer;
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < VISIBILITY_STRIPES; i++) {
+            visibility[i] = new ReentrantReadWriteLock();
+        }
+        queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        Gauge.builder("chat.message.queue.size", queue, BlockingQueue::size)
+                .description("Chat messages waiting to be written")
+                .register(meterRegistry);
+        backpressure = Counter.builder("chat.message.backpressure")
+                .description("Chat messages written synchronously because the queue was full or closed")
+                .register(meterRegistry);
+        written = Counter.builder("chat.message.written")
+                .description("Chat messages written to the database")
+                .register(meterRegistry);
+        dropped = Counter.builder("chat.message.dropped")
+                .description("Chat messages that could not be written even when retried individually")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("chat.message.flush")
+                .description("Chat message multi-row insert latency")
+                .register(meterRegistry);
+
+        running = true;
+        flusher = new Thread(this::runFlusher, "chat-message-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // 不中斷背景執行緒，避免打斷進行中的批次寫入；等待逾時後即會結束
+        running = false;
+        available.release();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        // 背景執行緒結束後，將剩餘訊息寫完
+        flush();
+    }
+
+    /**
+     * 非同步寫入一則訊息，佇列滿或已關閉時同步寫入
+     */
+    public void write(ChatMessage message) {
+        LocalDateTime now = LocalDateTime.now();
+        if (message.getCreatedAt() == null) {
+            message.setCreatedAt(now);
+        }
+        message.setUpdatedAt(message.getCreatedAt());
+
+        pendingByRoom.compute(message.getRoomId(), (roomId, pending) -> {
+            Deque<ChatMessage> deque = pending != null ? pending : new ConcurrentLinkedDeque<>();
+            deque.add(message);
+            return deque;
+        });
+
+        if (running && queue.offer(message)) {
+            available.release();
+        } else {
+            backpressure.increment();
+            logger.warn("Chat message queue full or closed ({}), writing synchronously", properties.getQueueCapacity());
+            insert(List.of(message));
+        }
+    }
+
+    /**
+     * 聊天室清除對話記錄後，移除清除時間點以前的待寫入訊息，讀取歷史時不再合併
+     * 訊息仍會寫入資料庫，由查詢條件過濾並由 ChatHistoryPurgeScheduler 刪除
+     *
+     * @param roomId    聊天室 ID
+     * @param clearedAt 清除時間點
+     */
+    public void discardPendingBefore(String roomId, LocalDateTime clearedAt) {
+        ReadWriteLock lock = visibilityOf(roomId);
+        lock.writeLock().lock();
+        try {
+            pendingByRoom.computeIfPresent(roomId, (id, pending) -> {
+                pending.removeIf(message -> !message.getCreatedAt().isAfter(clearedAt));
+                return pending.isEmpty() ? null : pending;
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查詢聊天室最近的 N 則訊息（按時間降序），包含尚未寫入資料庫的訊息
+     * 只取聊天室對話記錄清除時間之後的訊息；清除時由 {@link ChatMessageManager} 呼叫 {@link #discardPendingBefore}
+     * 移除清除前的待寫入訊息
+     *
+     * @param roomId 聊天室 ID
+     * @param limit  限制筆數
+     * @return 最近的訊息記錄列表（按時間降序）
+     */
+    public List<ChatMessage> recentMessages(String roomId, int limit) {
+        ReadWriteLock lock = visibilityOf(roomId);
+        lock.readLock().lock();
+        try {
+            List<ChatMessage> stored = chatMessageRepository.findRecentMessagesDesc(roomId, limit);
+            Deque<ChatMessage> pending = pendingByRoom.get(roomId);
+            if (pending == null || pending.isEmpty()) {
+                return stored;
+            }
+
+            List<ChatMessage> merged = new ArrayList<>(pending);
+            Collections.reverse(merged);
+            merged.addAll(stored);
+            // 穩定排序：時間相同時待寫入（較新）的訊息在前
+            merged.sort(Comparator.comparing(ChatMessage::getCreatedAt).reversed());
+            return new ArrayList<>(merged.subList(0, Math.min(limit, merged.size())));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 立即同步寫入佇列中所有訊息，並等待背景執行緒進行中的批次寫完
+     * 回傳時，呼叫前已排入的訊息都已寫入資料庫
+     */
+    public void flush() {
+        batchLock.lock();
+        try {
+            List<ChatMessage> batch = new ArrayList<>(properties.getBatchSize());
+            while (queue.drainTo(batch, properties.getBatchSize()) > 0) {
+                insert(batch);
+                batch = new ArrayList<>(properties.getBatchSize());
+            }
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        while (running) {
+            try {
+                awaitBatch();
+                writeBatch();
+            } catch (InterruptedException e) {
+                // 關閉中，剩餘訊息由 shutdown 同步寫入
+                return;
+            } catch (Exception e) {
+                logger.error("Chat message writer failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 等待佇列累積到 batchSize 筆或超過 flushIntervalMs；只等待不取出，取出由 {@link #writeBatch()} 在鎖內進行
+     */
+    private void awaitBatch() throws InterruptedException {
+        // 先清空許可再檢查佇列長度，之後排入的訊息都會再釋放許可，不會漏掉喚醒
+        available.drainPermits();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getFlushIntervalMs());
+        while (running && queue.size() < properties.getBatchSize()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            available.tryAcquire(remaining, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void writeBatch() {
+        batchLock.lock();
+        try {
+            List<ChatMessage> batch = new ArrayList<>(properties.getBatchSize());
+            if (queue.drainTo(batch, properties.getBatchSize()) > 0) {
+                insert(batch);
+            }
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    private void insert(List<ChatMessage> batch) {
+        List<ReadWriteLock> locks = visibilityOf(batch);
+        locks.forEach(lock -> lock.writeLock().lock());
+        try {
+            flushTimer.record(() -> jdbcTemplate.update(
+                    INSERT_SQL + String.join(", ", Collections.nCopies(batch.size(), ROW_PLACEHOLDERS)),
+                    ps -> {
+                        int i = 1;
+                        for (ChatMessage message : batch) {
+                            ps.setString(i++, message.getRoomId());
+                            ps.setString(i++, message.getRoomType().name());
+                            ps.setString(i++, message.getUserId());
+                            ps.setString(i++, message.getMessageType().name());
+                            ps.setString(i++, message.getContent());
+                            ps.setString(i++, message.getAiModel());
+                            ps.setTimestamp(i++, Timestamp.valueOf(message.getCreatedAt()));
+                            ps.setTimestamp(i++, Timestamp.valueOf(message.getUpdatedAt()));
+                        }
+                    }));
+            written.increment(batch.size());
+            batch.forEach(this::removePending);
+        } catch (Exception e) {
+            if (batch.size() > 1) {
+                // 整批未寫入，逐筆重試，避免單筆錯誤導致整批遺失
+                logger.warn("Failed to write {} chat messages, retrying individually: {}", batch.size(), e.getMessage());
+                batch.forEach(message -> insert(List.of(message)));
+                return;
+            }
+            ChatMessage message = batch.get(0);
+            removePending(message);
+            dropped.increment();
+            logger.error("Dropped chat message roomId={} userId={} type={} createdAt={} length={}: {}",
+                    message.getRoomId(), message.getUserId(), message.getMessageType(), message.getCreatedAt(),
+                    message.getContent() != null ? message.getContent().length() : 0, e.getMessage(), e);
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).writeLock().unlock();
+            }
+        }
+    }
+
+    private ReadWriteLock visibilityOf(String roomId) {
+        return visibility[Math.floorMod(roomId.hashCode(), VISIBILITY_STRIPES)];
+    }
+
+    /**
+     * 批次涉及的聊天室分段鎖，依分段序號排列，多個寫入端依相同順序取得以避免死結
+     */
+    private List<ReadWriteLock> visibilityOf(List<ChatMessage> batch) {
+        return batch.stream()
+                .mapToInt(message -> Math.floorMod(message.getRoomId().hashCode(), VISIBILITY_STRIPES))
+                .distinct()
+                .sorted()
+                .mapToObj(stripe -> visibility[stripe])
+                .toList();
+    }
+
+    private void removePending(ChatMessage message) {
+        pendingByRoom.computeIfPresent(message.getRoomId(), (roomId, pending) -> {
+            pending.removeIf(candidate -> candidate == message);
+            return pending.isEmpty() ? null : pending;
+        });
+    }
+}
@@ -0,0 +1,108 @@
+package com.acenexus.tata.nexusbot.chatroom.retention;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 聊天訊息封存
+ * 將符合條件的訊息以 id 分頁讀出，逐筆寫成 gzip 壓縮的 NDJSON（每行一筆 JSON）。
+ * 先寫入暫存檔，完成後才改名為正式檔名，呼叫端確認回傳後才能刪除資料。
+ */
+@Component
+@RequiredArgsConstructor
+class ChatMessageArchiver {
+
+    private static final int PAGE_SIZE = 5_000;
+
+    private static final String COLUMNS = "id, room_id, room_type, user_id, message_type, content, ai_model, created_at, updated_at, deleted_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 匯出訊息
+     *
+     * @param source    資料來源（例如 chat_messages 或 chat_messages PARTITION (p202501)）
+     * @param condition 篩選條件
+     * @param args      篩選條件的參數
+     * @param target    封存檔路徑
+     * @return 匯出筆數
+     */
+    long export(String source, String condition, Object[] args, Path target) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        String sql = "SELECT " + COLUMNS + " FROM " + source + " WHERE " + condition + " AND id > ? ORDER BY id LIMIT " + PAGE_SIZE;
+
+        long exported = 0;
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp));
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            long lastId = 0;
+            while (true) {
+                Object[] pageArgs = Arrays.copyOf(args, args.length + 1);
+                pageArgs[args.length] = lastId;
+                long[] page = {0, lastId};
+                jdbcTemplate.query(sql, rs -> {
+                    write(generator, rs);
+                    page[0]++;
+                    page[1] = rs.getLong("id");
+                }, pageArgs);
+
+                exported += page[0];
+                lastId = page[1];
+                if (page[0] < PAGE_SIZE) {
+                    break;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return exported;
+    }
+
+    private static void write(JsonGenerator generator, ResultSet rs) throws SQLException {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("id", rs.getLong("id"));
+            generator.writeStringField("room_id", rs.getString("room_id"));
+            generator.writeStringField("room_type", rs.getString("room_type"));
+            generator.writeStringField("user_id", rs.getString("user_id"));
+            generator.writeStringField("message_type", rs.getString("message_type"));
+            generator.writeStringField("content", rs.getString("content"));
+            generator.writeStringField("ai_model", rs.getString("ai_model"));
+            writeTimestamp(generator, "created_at", rs.getTimestamp("created_at"));
+            writeTimestamp(generator, "updated_at", rs.getTimestamp("updated_at"));
+            writeTimestamp(generator, "deleted_at", rs.getTimestamp("deleted_at"));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeTimestamp(JsonGenerator generator, String field, Timestamp value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeStringField(field, value.toLocalDateTime().toString());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.acenexus.tata.nexusbot.chatroom.retention;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * chat_messages 索引稽核（/actuator/chatindexes）
+ * 比較每個索引被查詢使用的次數與資料表寫入次數（每次寫入都要維護所有次要索引），
+ * 並以基數估算選擇性，列出從未被使用或選擇性過低的索引供人工評估是否移除。
+ * 讀寫次數來自 MySQL performance_schema，自資料庫啟動後累計；只回報不修改任何索引。
+ */
+@Component
+@Endpoint(id = "chatindexes")
+@RequiredArgsConstructor
+public class ChatMessageIndexAudit {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessageIndexAudit.class);
+
+    /**
+     * 基數 / 資料筆數低於此值視為選擇性過低
+     */
+    private static final double LOW_SELECTIVITY = 0.01;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record IndexUsage(String name, String columns, long cardinality, double selectivity,
+                             Long reads, Double readsPerWrite, String verdict) {
+    }
+
+    public record Report(boolean supported, long tableRows, Long tableWrites, Long observedSeconds, List<IndexUsage> indexes) {
+    }
+
+    private record IoStats(Map<String, Long> readsByIndex, long writes, long uptimeSeconds) {
+    }
+
+    @ReadOperation
+    public Report audit() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"MySQL".equalsIgnoreCase(product)) {
+            return new Report(false, 0, null, null, List.of());
+        }
+
+        Long rows = jdbcTemplate.queryForObject(
+                "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'chat_messages'",
+                Long.class);
+        long tableRows = rows != null ? rows : 0;
+        IoStats io = loadIoStats();
+
+        List<IndexUsage> indexes = jdbcTemplate.query(
+                "SELECT INDEX_NAME, GROUP_CONCAT(COLUMN_NAME ORDER BY SEQ_IN_INDEX) AS columns, MAX(CARDINALITY) AS cardinality " +
+                        "FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'chat_messages' " +
+                        "GROUP BY INDEX_NAME ORDER BY INDEX_NAME",
+                (rs, rowNum) -> {
+                    String name = rs.getString("INDEX_NAME");
+                    long cardinality = rs.getLong("cardinality");
+                    double selectivity = tableRows > 0 ? Math.min(1.0, (double) cardinality / tableRows) : 0;
+                    Long reads = io != null ? io.readsByIndex().getOrDefault(name, 0L) : null;
+                    Double readsPerWrite = io != null && io.writes() > 0 ? (double) reads / io.writes() : null;
+                    return new IndexUsage(name, rs.getString("columns"), cardinality, selectivity,
+                            reads, readsPerWrite, verdict(name, reads, selectivity, tableRows));
+                });
+
+        return new Report(true, tableRows, io != null ? io.writes() : null, io != null ? io.uptimeSeconds() : null, indexes);
+    }
+
+    private IoStats loadIoStats() {
+        try {
+            Map<String, Long> reads = new HashMap<>();
+            long[] writes = {0};
+            // INDEX_NAME 為 NULL 的列是未使用索引的存取（含 INSERT），寫入次數以整張表合計
+            jdbcTemplate.query(
+                    "SELECT INDEX_NAME, COUNT_READ, COUNT_WRITE FROM performance_schema.table_io_waits_summary_by_index_usage " +
+                            "WHERE OBJECT_SCHEMA = DATABASE() AND OBJECT_NAME = 'chat_messages'",
+                    rs -> {
+                        String name = rs.getString("INDEX_NAME");
+                        if (name != null) {
+                            reads.put(name, rs.getLong("COUNT_READ"));
+                        }
+                        writes[0] += rs.getLong("COUNT_WRITE");
+                    });
+            Long uptime = jdbcTemplate.queryForObject(
+                    "SELECT VARIABLE_VALUE FROM performance_schema.global_status WHERE VARIABLE_NAME = 'Uptime'", Long.class);
+            return new IoStats(reads, writes[0], uptime != null ? uptime : 0);
+        } catch (DataAccessException e) {
+            logger.warn("Index usage statistics unavailable (performance_schema disabled?): {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String verdict(String name, Long reads, double selectivity, long tableRows) {
+        if ("PRIMARY".equals(name)) {
+            return "PRIMARY";
+        }
+        if (reads != null && reads == 0) {
+            return "UNUSED";
+        }
+        if (tableRows > 0 && selectivity < LOW_SELECTIVITY) {
+            return "LOW_SELECTIVITY";
+        }
+        return reads == null ? "UNKNOWN" : "OK";
+    }
+}
@@ -0,0 +1,197 @@
+package com.acenexus.tata.nexusbot.chatroom.retention;
+
+import com.acenexus.tata.nexusbot.config.properties.ChatRetentionProperties;
+import com.acenexus.tata.nexusbot.lock.DistributedLock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 聊天訊息保存期限
+ * - MySQL 分區表（V10 vendor migration）：預先建立未來月份分區；整個月份超過保存期限的分區先匯出封存檔再 DROP PARTITION
+ * - 未分區（H2 或尚未套用分區的 MySQL）：依月份匯出後逐批依 ID 刪除
+ * - 封存檔寫入完成後才刪除資料；同月份已有封存檔時另存新檔，不覆蓋先前的封存
+ */
+@Service
+@RequiredArgsConstructor
+public class ChatMessageRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessageRetentionService.class);
+
+    private static final String LOCK_KEY = "chat_retention";
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final Pattern MONTH_PARTITION = Pattern.compile("p\\d{6}");
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChatMessageArchiver archiver;
+    private final ChatRetentionProperties properties;
+    private final DistributedLock distributedLock;
+    private final MeterRegistry meterRegistry;
+
+    private Counter archived;
+
+    @PostConstruct
+    public void init() {
+        archived = Counter.builder("chat.retention.archived")
+                .description("Expired chat messages exported to archive files and removed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 執行一次保存期限處理（多實例時只有取得鎖的實例執行）
+     */
+    public void run() {
+        if (!distributedLock.tryLock(LOCK_KEY)) {
+            logger.debug("Chat retention is already running on another instance");
+            return;
+        }
+
+        try {
+            List<String> partitions = isMySql() ? listPartitions() : List.of();
+            if (partitions.contains(FUTURE_PARTITION)) {
+                premakePartitions(partitions);
+                archivePartitions(listPartitions());
+            } else {
+                archiveRows();
+            }
+        } catch (IOException e) {
+            logger.error("Failed to write chat message archive: {}", e.getMessage(), e);
+        } finally {
+            distributedLock.releaseLock(LOCK_KEY);
+        }
+    }
+
+    /**
+     * 由 p_future 切出月份分區直到本月 + premake-months
+     * 首次執行時由最早訊息的月份開始切分，之後只補上缺少的未來月份
+     * 分區上界在 Java 端換算為 UTC epoch 秒（與 JVM 時區一致，見 TimezoneConfig），不受 MySQL session time_zone 影響
+     */
+    private void premakePartitions(List<String> partitions) {
+        YearMonth last = partitions.stream()
+                .filter(name -> MONTH_PARTITION.matcher(name).matches())
+                .map(ChatMessageRetentionService::monthOf)
+                .max(YearMonth::compareTo)
+                .orElse(null);
+        YearMonth from = last != null ? last.plusMonths(1) : oldestMonth();
+        YearMonth until = YearMonth.now().plusMonths(properties.getPremakeMonths());
+        if (from.isAfter(until)) {
+            return;
+        }
+
+        List<String> definitions = new ArrayList<>();
+        for (YearMonth month = from; !month.isAfter(until); month = month.plusMonths(1)) {
+            definitions.add("PARTITION " + PARTITION_MONTH.format(month.atDay(1))
+                    + " VALUES LESS THAN (" + month.plusMonths(1).atDay(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC) + ")");
+        }
+        definitions.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN MAXVALUE");
+
+        jdbcTemplate.execute("ALTER TABLE chat_messages REORGANIZE PARTITION " + FUTURE_PARTITION
+                + " INTO (" + String.join(", ", definitions) + ")");
+        logger.info("Created chat_messages partitions {} ~ {}", from, until);
+    }
+
+    private void archivePartitions(List<String> partitions) throws IOException {
+        YearMonth expiredBefore = expiredBefore();
+        for (String partition : partitions) {
+            if (!MONTH_PARTITION.matcher(partition).matches()) {
+                continue;
+            }
+            YearMonth month = monthOf(partition);
+            if (!month.isBefore(expiredBefore)) {
+                break;
+            }
+
+            long rows = archiver.export("chat_messages PARTITION (" + partition + ")", "1 = 1", new Object[0], archiveFile(month));
+            jdbcTemplate.execute("ALTER TABLE chat_messages DROP PARTITION " + partition);
+            archived.increment(rows);
+            logger.info("Archived and dropped partition {} ({} messages)", partition, rows);
+        }
+    }
+
+    private void archiveRows() throws IOException {
+        YearMonth expiredBefore = expiredBefore();
+        for (YearMonth month = oldestMonth(); month.isBefore(expiredBefore); month = month.plusMonths(1)) {
+            LocalDateTime start = month.atDay(1).atStartOfDay();
+            LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+            Object[] range = {start, end};
+
+            Integer count = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM chat_messages WHERE created_at >= ? AND created_at < ?", Integer.class, range);
+            if (count == null || count == 0) {
+                continue;
+            }
+
+            long rows = archiver.export("chat_messages", "created_at >= ? AND created_at < ?", range, archiveFile(month));
+            while (true) {
+                List<Long> ids = jdbcTemplate.queryForList(
+                        "SELECT id FROM chat_messages WHERE created_at >= ? AND created_at < ? ORDER BY id LIMIT ?",
+                        Long.class, start, end, properties.getDeleteBatchSize());
+                if (ids.isEmpty()) {
+                    break;
+                }
+                String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+                jdbcTemplate.update("DELETE FROM chat_messages WHERE id IN (" + placeholders + ")", ids.toArray());
+            }
+            archived.increment(rows);
+            logger.info("Archived and deleted chat messages of {} ({} messages)", month, rows);
+        }
+    }
+
+    /**
+     * 早於此月份的整個月份皆已超過保存期限
+     */
+    private YearMonth expiredBefore() {
+        return YearMonth.from(LocalDateTime.now().minusDays(properties.getRetentionDays()));
+    }
+
+    private YearMonth oldestMonth() {
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM chat_messages", Timestamp.class);
+        return oldest != null ? YearMonth.from(oldest.toLocalDateTime()) : YearMonth.now();
+    }
+
+    private Path archiveFile(YearMonth month) {
+        Path dir = Path.of(properties.getArchiveDir());
+        Path file = dir.resolve("chat_messages-" + month + ".ndjson.gz");
+        for (int i = 1; Files.exists(file); i++) {
+            file = dir.resolve("chat_messages-" + month + "." + i + ".ndjson.gz");
+        }
+        return file;
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'chat_messages' AND PARTITION_NAME IS NOT NULL " +
+                        "ORDER BY PARTITION_ORDINAL_POSITION",
+                String.class);
+    }
+
+    private boolean isMySql() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "MySQL".equalsIgnoreCase(product);
+    }
+
+    private static YearMonth monthOf(String partition) {
+        return YearMonth.of(Integer.parseInt(partition.substring(1, 5)), Integer.parseInt(partition.substring(5, 7)));
+    }
+}
@@ -1,11 +1,20 @@
 package com.acenexus.tata.nexusbot.config;
 
 import com.acenexus.tata.nexusbot.config.properties.AdminProperties;
+import com.acenexus.tata.nexusbot.config.properties.ChatHistoryProperties;
+import com.acenexus.tata.nexusbot.config.properties.ChatMessageWriterProperties;
+import com.acenexus.tata.nexusbot.config.properties.ChatRetentionProperties;
 import com.acenexus.tata.nexusbot.config.properties.EmailProperties;
 import com.acenexus.tata.nexusbot.config.properties.GeminiProxyProperties;
 import com.acenexus.tata.nexusbot.config.properties.GroqProperties;
+import com.acenexus.tata.nexusbot.config.properties.LineApiProperties;
 import com.acenexus.tata.nexusbot.config.properties.LineBotProperties;
+import com.acenexus.tata.nexusbot.config.properties.NotificationOutboxProperties;
+import com.acenexus.tata.nexusbot.config.properties.OsmCacheProperties;
+import com.acenexus.tata.nexusbot.config.properties.OsmMirrorProperties;
+import com.acenexus.tata.nexusbot.config.properties.OsmIndexProperties;
 import com.acenexus.tata.nexusbot.config.properties.OsmProperties;
+import com.acenexus.tata.nexusbot.config.properties.ReminderLogProperties;
 import com.acenexus.tata.nexusbot.config.properties.TimezoneProperties;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
@@ -21,21 +30,33 @@ import org.springframework.util.StringUtils;
         GeminiProxyProperties.class,
         AdminProperties.class,
         OsmProperties.class,
+        OsmIndexProperties.class,
+        OsmCacheProperties.class,
+        OsmMirrorProperties.class,
         EmailProperties.class,
-        TimezoneProperties.class
+        TimezoneProperties.class,
+        NotificationOutboxProperties.class,
+        LineApiProperties.class,
+        ReminderLogProperties.class,
+        ChatHistoryProperties.class,
+        ChatRetentionProperties.class,
+        ChatMessageWriterProperties.class
 })
 public class ConfigValidator {
     private static final Logger logger = LoggerFactory.getLogger(ConfigValidator.class);
     private final LineBotProperties lineBotProperties;
     private final GroqProperties groqProperties;
     private final GeminiProxyProperties geminiProxyProperties;
+    private final ChatRetentionProperties chatRetentionProperties;
 
     public ConfigValidator(LineBotProperties lineBotProperties,
                            GroqProperties groqProperties,
-                           GeminiProxyProperties geminiProxyProperties) {
+                           GeminiProxyProperties geminiProxyProperties,
+                           ChatRetentionProperties chatRetentionProperties) {
         this.lineBotProperties = lineBotProperties;
         this.groqProperties = groqProperties;
         this.geminiProxyProperties = geminiProxyProperties;
+        this.chatRetentionProperties = chatRetentionProperties;
     }
 
     @PostConstruct
@@ -44,6 +65,7 @@ public class ConfigValidator {
 
         validateLineBotConfig();
         validateAiConfig();
+        validateChatRetentionConfig();
 
         logger.info("Configuration validation completed");
     }
@@ -67,4 +89,15 @@ public class ConfigValidator {
         logger.info("AI provider GROQ enabled, url: {}", groqProperties.getUrl());
         logger.info("AI provider GEMINI_PROXY enabled, url: {}", geminiProxyProperties.getUrl());
     }
+
+    private void validateChatRetentionConfig() {
+        if (!chatRetentionProperties.isEnabled()) {
+            return;
+        }
+        // 封存檔寫入後才刪除資料，目錄不可落在容器內會隨重建消失的路徑
+        if (!StringUtils.hasText(chatRetentionProperties.getArchiveDir())) {
+            throw new IllegalStateException("Chat retention is enabled but chat.retention.archive-dir (CHAT_ARCHIVE_DIR) is not configured");
+        }
+        logger.info("Chat retention enabled, archive dir: {}", chatRetentionProperties.getArchiveDir());
+    }
 }
\ No newline at end of file
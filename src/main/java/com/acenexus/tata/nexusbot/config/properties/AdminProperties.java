@@ -12,4 +12,9 @@ public class AdminProperties {
      * 用於生成動態密碼的基礎字串
      */
     private String passwordSeed;
+
+    /**
+     * 系統統計計數寫回資料庫的間隔（毫秒）
+     */
+    private long statsFlushIntervalMs = 30_000;
 }
\ No newline at end of file
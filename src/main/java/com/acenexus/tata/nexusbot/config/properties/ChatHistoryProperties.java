@@ -0,0 +1,27 @@
+package com.acenexus.tata.nexusbot.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 聊天訊息（chat_messages）背景清理設定
+ */
+@Data
+@ConfigurationProperties(prefix = "chat.history")
+public class ChatHistoryProperties {
+
+    /**
+     * 清理排程間隔（毫秒）
+     */
+    private long purgeIntervalMs = 300_000;
+
+    /**
+     * 單次刪除的最大筆數，每批為獨立的短交易，避免長時間鎖定大量資料列
+     */
+    private int purgeBatchSize = 500;
+
+    /**
+     * 每次排程最多執行的批次數，未清完的部分留待下次排程
+     */
+    private int purgeMaxBatchesPerRun = 20;
+}
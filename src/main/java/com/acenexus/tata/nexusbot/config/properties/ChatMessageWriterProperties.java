@@ -0,0 +1,27 @@
+package com.acenexus.tata.nexusbot.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 聊天訊息（chat_messages）背景批次寫入設定
+ */
+@Data
+@ConfigurationProperties(prefix = "chat.writer")
+public class ChatMessageWriterProperties {
+
+    /**
+     * 待寫入佇列容量，佇列滿時改由呼叫端同步寫入（背壓）
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * 單次寫入的最大筆數（一個多列 INSERT）
+     */
+    private int batchSize = 100;
+
+    /**
+     * 批次未滿時最長等待時間（毫秒），逾時即寫入
+     */
+    private long flushIntervalMs = 200;
+}
@@ -0,0 +1,43 @@
+package com.acenexus.tata.nexusbot.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 聊天訊息（chat_messages）保存期限與封存設定
+ */
+@Data
+@ConfigurationProperties(prefix = "chat.retention")
+public class ChatRetentionProperties {
+
+    /**
+     * 是否啟用過期訊息封存與刪除
+     */
+    private boolean enabled = false;
+
+    /**
+     * 訊息保存天數，整個月份都超過保存期限後才封存並刪除該月份
+     */
+    private int retentionDays = 365;
+
+    /**
+     * 封存檔目錄（每月一個 chat_messages-YYYY-MM.ndjson.gz），啟用時必須設定
+     * 容器部署時應掛載持久化 volume，多實例部署時應指向共用儲存
+     */
+    private String archiveDir;
+
+    /**
+     * MySQL 分區表預先建立的未來月份數
+     */
+    private int premakeMonths = 2;
+
+    /**
+     * 未分區時逐批刪除過期訊息的每批筆數
+     */
+    private int deleteBatchSize = 1_000;
+
+    /**
+     * 執行間隔（毫秒）
+     */
+    private long intervalMs = 3_600_000;
+}
@@ -60,4 +60,28 @@ public class EmailProperties {
      * 預設: false
      */
     private Boolean debug = false;
+
+    /**
+     * 保留的已認證 SMTP 連線數上限（同時寄送數）
+     * 預設: 2
+     */
+    private int poolSize = 2;
+
+    /**
+     * SMTP 連線閒置多久後關閉重建（毫秒）
+     * 預設: 60000
+     */
+    private long poolIdleTimeoutMs = 60_000;
+
+    /**
+     * 確認連結 Token 的 HMAC 簽章金鑰
+     * 未設定時由 LINE channel secret 衍生，建議使用環境變數獨立設定
+     */
+    private String confirmationSecret;
+
+    /**
+     * 確認連結有效天數
+     * 預設: 30
+     */
+    private int confirmationTtlDays = 30;
 }
@@ -0,0 +1,87 @@
+package com.acenexus.tata.nexusbot.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * LINE Messaging API 發送閘道設定（逾時、重試、限流、同時請求數與 Push 額度）
+ */
+@Data
+@ConfigurationProperties(prefix = "line.api")
+public class LineApiProperties {
+
+    /**
+     * Messaging API 位址
+     */
+    private String baseUrl = "https://api.line.me";
+
+    /**
+     * 單次請求逾時（毫秒）
+     */
+    private long timeoutMs = 10_000;
+
+    /**
+     * Push / Multicast 失敗（逾時、連線錯誤、429、5xx）時的最大重試次數，重試時帶相同的 X-Line-Retry-Key
+     */
+    private int maxRetries = 2;
+
+    /**
+     * 首次重試延遲（毫秒），之後以指數退避並加入隨機抖動
+     */
+    private long retryBackoffMs = 500;
+
+    /**
+     * 同時進行中的請求上限，避免 LINE API 變慢時請求無限堆積
+     */
+    private int maxInFlight = 64;
+
+    /**
+     * Push API 每秒請求上限（LINE 官方上限為 2,000）
+     */
+    private int pushPerSecond = 2_000;
+
+    /**
+     * Multicast API 每秒請求上限（LINE 官方上限為 200）
+     */
+    private int multicastPerSecond = 200;
+
+    /**
+     * Reply API 每秒請求上限（LINE 官方上限為 2,000）
+     */
+    private int replyPerSecond = 2_000;
+
+    /**
+     * 載入動畫 API 每秒請求上限（LINE 官方上限為 100）
+     */
+    private int loadingPerSecond = 100;
+
+    /**
+     * AI 回應等待期間顯示載入動畫的秒數（5 ~ 60，須為 5 的倍數），0 表示不顯示
+     */
+    private int loadingAnimationSeconds = 20;
+
+    /**
+     * Reply Token 過期時是否改用 Push 發送（受每月 Push 額度限制）
+     */
+    private boolean replyFallbackPushEnabled = true;
+
+    /**
+     * 等待限流許可的最長時間（毫秒），逾時視為發送失敗交由上層重試
+     */
+    private long acquireTimeoutMs = 5_000;
+
+    /**
+     * 每月 Push 訊息額度，0 表示以 LINE 查詢到的方案額度為準（查無上限時不限制）
+     */
+    private long monthlyPushQuota = 0;
+
+    /**
+     * 額度使用率達此比例時進入降級模式（例如 BOTH 管道只寄 Email）
+     */
+    private double quotaLowWatermark = 0.9;
+
+    /**
+     * 本地額度計數寫回資料庫的間隔（毫秒）
+     */
+    private long quotaFlushIntervalMs = 10_000;
+}
@@ -0,0 +1,63 @@
+package com.acenexus.tata.nexusbot.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 提醒通知 Outbox 投遞設定
+ */
+@Data
+@ConfigurationProperties(prefix = "notification.outbox")
+public class NotificationOutboxProperties {
+
+    /**
+     * 每次輪詢認領的最大筆數
+     */
+    private int batchSize = 50;
+
+    /**
+     * 認領後的租約時間（毫秒），逾期未完成的通知會被其他實例重新認領
+     */
+    private long leaseMs = 120_000;
+
+    /**
+     * 最大投遞次數，超過後標記為 FAILED
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * 首次重試延遲（毫秒），之後以 2 倍指數退避
+     */
+    private long initialBackoffMs = 5_000;
+
+    /**
+     * 重試延遲上限（毫秒）
+     */
+    private long maxBackoffMs = 600_000;
+
+    /**
+     * LINE 通知聚合視窗（毫秒）
+     * LINE 通知的可投遞時間對齊到視窗邊界，同一視窗內同一聊天室到期的提醒會被同一批認領並合併為一次 Push
+     */
+    private long lineAggregationWindowMs = 3_000;
+
+    /**
+     * LINE 管道同時投遞數
+     */
+    private int lineConcurrency = 4;
+
+    /**
+     * Email 管道同時投遞數（同時開啟的 SMTP 連線數另受 email.pool-size 限制）
+     */
+    private int emailConcurrency = 2;
+
+    /**
+     * AI 內容美化同時呼叫數（專用執行緒池，不佔用共用的 ForkJoinPool）
+     */
+    private int aiConcurrency = 2;
+
+    /**
+     * 已投遞通知保留天數
+     */
+    private int retentionDays = 7;
+}
@@ -0,0 +1,37 @@
+package com.acenexus.tata.nexusbot.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Overpass 查詢結果快取設定（以 Geohash 網格 + 半徑級距為鍵）
+ */
+@Data
+@ConfigurationProperties(prefix = "osm.cache")
+public class OsmCacheProperties {
+
+    /**
+     * 是否啟用快取
+     */
+    private boolean enabled = true;
+
+    /**
+     * Geohash 精度，6 約為 1.2 公里 × 0.6 公里的網格
+     */
+    private int geohashPrecision = 6;
+
+    /**
+     * 快取存活時間（秒），廁所資料變動很少，預設 6 小時
+     */
+    private long ttlSeconds = 21_600;
+
+    /**
+     * 快取網格數上限
+     */
+    private int maxEntries = 10_000;
+
+    /**
+     * 搜尋半徑級距（公尺），搜尋半徑向上取整到最接近的級距，超過最大級距時不快取
+     */
+    private int[] radiusBuckets = {300, 600, 1200, 2000};
+}
@@ -0,0 +1,38 @@
+package com.acenexus.tata.nexusbot.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 離線廁所空間索引設定
+ * 由預先匯出的 OSM 資料檔建立記憶體索引，涵蓋範圍內的查詢不再呼叫 Overpass API
+ */
+@Data
+@ConfigurationProperties(prefix = "osm.offline-index")
+public class OsmIndexProperties {
+
+    /**
+     * 是否啟用離線索引
+     */
+    private boolean enabled = false;
+
+    /**
+     * OSM 資料檔路徑（Overpass JSON 格式，例如以 {@code [out:json]; area[...]; (...); out center tags;} 匯出的檔案）
+     */
+    private String file;
+
+    /**
+     * 索引涵蓋範圍 "minLat,minLon,maxLat,maxLon"，未設定時以資料中所有點的外框為準
+     */
+    private String bounds;
+
+    /**
+     * 網格大小（度），約 0.01 度 ≈ 1.1 公里
+     */
+    private double cellSizeDegrees = 0.01;
+
+    /**
+     * 檢查資料檔是否更新的間隔（毫秒），檔案有變動時於背景重建索引
+     */
+    private long refreshCheckIntervalMs = 300_000;
+}
@@ -0,0 +1,50 @@
+package com.acenexus.tata.nexusbot.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Overpass 鏡像站池設定（斷路器與對沖請求）
+ */
+@Data
+@ConfigurationProperties(prefix = "osm.mirrors")
+public class OsmMirrorProperties {
+
+    /**
+     * 鏡像站 URL，未設定時只使用 osm.overpass-base-url
+     */
+    private List<String> urls = new ArrayList<>();
+
+    /**
+     * 連續失敗幾次後開啟斷路器（HTTP 429 會立即開啟）
+     */
+    private int failureThreshold = 3;
+
+    /**
+     * 斷路器開啟時間（毫秒），期滿後允許試探請求
+     */
+    private long openDurationMs = 60_000;
+
+    /**
+     * 是否啟用對沖請求：主要鏡像站超過其 p90 延遲仍未回應時，同時送往第二個鏡像站
+     */
+    private boolean hedgeEnabled = true;
+
+    /**
+     * 延遲樣本不足時使用的對沖等待時間（毫秒）
+     */
+    private long initialHedgeDelayMs = 3_000;
+
+    /**
+     * 對沖等待時間下限（毫秒），避免快速鏡像站觸發過多重複請求
+     */
+    private long minHedgeDelayMs = 500;
+
+    /**
+     * 每個鏡像站保留的延遲樣本數
+     */
+    private int latencySamples = 64;
+}
@@ -21,6 +21,14 @@ public class OsmProperties {
     @NotBlank(message = "OSM user agent cannot be empty")
     private String userAgent;
 
+    // 單次 Overpass 回應最多解析的元素數，超過時中斷下載（避免極端密集區域佔滿記憶體）
+    @Positive(message = "OSM max elements must be positive")
+    private int maxElements = 5000;
+
+    // 最近廁所搜尋半徑（公尺），每個網格以此半徑查詢一次後在本地依距離篩選
+    @Positive(message = "OSM nearest search radius must be positive")
+    private int nearestSearchRadius = 1200;
+
     // UI 顯示配置
     @Positive(message = "OSM carousel max items must be positive")
     private int carouselMaxItems;
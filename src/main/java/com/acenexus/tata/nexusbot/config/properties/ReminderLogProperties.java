@@ -0,0 +1,27 @@
+package com.acenexus.tata.nexusbot.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 提醒發送日誌（reminder_logs）背景批次寫入設定
+ */
+@Data
+@ConfigurationProperties(prefix = "reminder.log")
+public class ReminderLogProperties {
+
+    /**
+     * 待寫入佇列容量，佇列滿時改由呼叫端同步寫入（背壓）
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * 單次批次寫入的最大筆數
+     */
+    private int batchSize = 200;
+
+    /**
+     * 批次未滿時最長等待時間（毫秒），逾時即寫入
+     */
+    private long flushIntervalMs = 500;
+}
@@ -49,6 +49,8 @@ public final class Actions {
     public static final String REPEAT_ONCE = "action=repeat_once";
     public static final String REPEAT_DAILY = "action=repeat_daily";
     public static final String REPEAT_WEEKLY = "action=repeat_weekly";
+    public static final String REPEAT_WEEKDAYS = "action=repeat_weekdays";
+    public static final String REPEAT_MONTHLY = "action=repeat_monthly";
 
     // 通知管道選擇
     public static final String CHANNEL_LINE = "action=channel_line";
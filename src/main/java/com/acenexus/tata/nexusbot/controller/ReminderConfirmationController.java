@@ -52,9 +52,9 @@ public class ReminderConfirmationController {
                     - 使用者可在 LINE Bot 中查看「今日提醒記錄」確認狀態
 
                     **處理流程**:
-                    1. 驗證確認 Token 是否有效
-                    2. 檢查是否已確認過
-                    3. 更新資料庫 `confirmed_at` 欄位
+                    1. 在記憶體中驗證 Token 簽章與到期時間（無效連結不查詢資料庫）
+                    2. 以日誌主鍵更新 `confirmed_at` 欄位
+                    3. 未更新時檢查是否已確認過
                     4. 返回 HTML 確認結果頁面
 
                     **返回頁面**:
@@ -89,8 +89,8 @@ public class ReminderConfirmationController {
     @GetMapping("/confirm/{token}")
     public String confirmReminder(
             @Parameter(
-                    description = "Email 確認 Token (UUID 格式)",
-                    example = "a1b2c3d4-e5f6-7890-abcd-ef1234567890",
+                    description = "Email 確認 Token（含日誌 ID 與到期時間的 HMAC 簽章 Token，Base64URL 格式）",
+                    example = "AAAAAAAAAHsAAAAAaQ2hgFq3Xq1d0dY1m6bWq3r1x0M",
                     required = true
             )
             @PathVariable String token,
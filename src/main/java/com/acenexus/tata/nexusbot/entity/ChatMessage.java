@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 
 /**
  * 聊天訊息實體
- * 記錄用戶與 AI 的完整對話流程，支援多輪對話追蹤和成本統計
+ * 記錄用戶與 AI 的完整對話流程，支援多輪對話追蹤
+ * AI 呼叫的延遲與 Token 用量由 {@link com.acenexus.tata.nexusbot.ai.AIUsageMetrics} 統計，不存於訊息記錄
  */
 @Entity
 @Table(name = "chat_messages")
@@ -71,22 +72,6 @@ public class ChatMessage {
     @Column(name = "content", nullable = false, columnDefinition = "TEXT")
     private String content;
 
-    /**
-     * AI 處理使用的 tokens 數量
-     * 用於統計 API 使用成本
-     */
-    @Column(name = "tokens_used")
-    @Builder.Default
-    private Integer tokensUsed = 0;
-
-    /**
-     * AI 處理時間 (毫秒)
-     * 用於效能監控
-     */
-    @Column(name = "processing_time_ms")
-    @Builder.Default
-    private Integer processingTimeMs = 0;
-
     /**
      * 使用的 AI 模型名稱，對應 {@link com.acenexus.tata.nexusbot.constants.AiModel#id}
      */
@@ -138,16 +123,13 @@ public class ChatMessage {
      * 建立 AI 回應訊息記錄
      */
     public static ChatMessage createAIMessage(String roomId, ChatRoom.RoomType roomType,
-                                              String content, String aiModel,
-                                              Integer tokensUsed, Integer processingTimeMs) {
+                                              String content, String aiModel) {
         return ChatMessage.builder()
                 .roomId(roomId)
                 .roomType(roomType)
                 .messageType(MessageType.AI)
                 .content(content)
                 .aiModel(aiModel)
-                .tokensUsed(tokensUsed)
-                .processingTimeMs(processingTimeMs)
                 .build();
     }
 
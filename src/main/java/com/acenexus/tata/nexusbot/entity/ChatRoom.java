@@ -100,6 +100,13 @@ public class ChatRoom {
     @Builder.Default
     private String timezone = TimezoneProperties.FALLBACK_DEFAULT;
 
+    /**
+     * 對話記錄清除時間
+     * 讀取 AI 對話歷史時只取此時間之後的訊息，null 表示未曾清除
+     */
+    @Column(name = "history_cleared_at")
+    private LocalDateTime historyClearedAt;
+
     /**
      * 建立時間
      */
@@ -0,0 +1,134 @@
+package com.acenexus.tata.nexusbot.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 提醒通知 Outbox
+ * 每筆代表一次提醒觸發在單一管道（LINE 或單一 Email 收件者）的待投遞通知，
+ * 內容為觸發當下的快照，提醒之後被修改或刪除也不影響已排入的通知。
+ */
+@Entity
+@Table(name = "notification_outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 冪等鍵，同一次觸發在同一管道與收件者只會有一筆
+     */
+    @Column(name = "idempotency_key", nullable = false, unique = true, length = 64)
+    private String idempotencyKey;
+
+    @Column(name = "reminder_id", nullable = false)
+    private Long reminderId;
+
+    @Column(name = "room_id", nullable = false, length = 100)
+    private String roomId;
+
+    /**
+     * 投遞管道：LINE, EMAIL
+     */
+    @Column(name = "channel", nullable = false, length = 20)
+    private String channel;
+
+    /**
+     * Email 收件者（LINE 為 null）
+     */
+    @Column(name = "recipient")
+    private String recipient;
+
+    @Column(name = "content", nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    @Column(name = "repeat_type", length = 100)
+    private String repeatType;
+
+    @Column(name = "timezone", length = 50)
+    private String timezone;
+
+    /**
+     * 本次觸發時間點（epoch millis）
+     */
+    @Column(name = "fired_at_instant", nullable = false)
+    private Long firedAtInstant;
+
+    /**
+     * 狀態：PENDING, PROCESSING, SENT, FAILED
+     */
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private String status = "PENDING";
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    /**
+     * 合併 Push 的投遞批次 ID，第一次合併投遞前寫入；同批通知之後一律一起重試並沿用同一個 Retry Key
+     */
+    @Column(name = "delivery_batch_id", length = 36)
+    private String deliveryBatchId;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        if (nextAttemptAt == null) {
+            nextAttemptAt = now;
+        }
+    }
+
+    /**
+     * 以快照內容還原觸發當下的提醒（不受 JPA 管理，僅供通知範本使用）
+     */
+    public Reminder toReminderSnapshot() {
+        return Reminder.builder()
+                .id(reminderId)
+                .roomId(roomId)
+                .content(content)
+                .repeatType(repeatType)
+                .timezone(timezone)
+                .reminderTimeInstant(firedAtInstant)
+                .notificationChannel(channel)
+                .createdBy(roomId)
+                .build();
+    }
+}
@@ -59,9 +59,18 @@ public class Reminder {
     private Long reminderTimeInstant;
 
     /**
-     * 重複類型：ONCE, DAILY, WEEKLY
+     * 提醒最初設定的本地日期時間（提醒時區）
+     * 重複規則以此計算每次的日期與時刻，不受月底縮短或夏令時間順延影響
+     * 注意：舊資料可能為 NULL，下一次觸發時補上
      */
-    @Column(name = "repeat_type", length = 20)
+    @Column(name = "anchor_local_time")
+    private LocalDateTime anchorLocalTime;
+
+    /**
+     * 重複規則：ONCE, DAILY, WEEKLY, WEEKDAYS, MONTHLY 或 RRULE 子集
+     * 例如：RRULE:FREQ=HOURLY;INTERVAL=4，解析見 RecurrenceRules
+     */
+    @Column(name = "repeat_type", length = 100)
     @Builder.Default
     private String repeatType = "ONCE";
 
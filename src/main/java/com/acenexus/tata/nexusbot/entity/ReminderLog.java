@@ -44,9 +44,6 @@ public class ReminderLog {
     @Column(name = "delivery_method", length = 20)
     private String deliveryMethod;
 
-    @Column(name = "confirmation_token", length = 100, unique = true)
-    private String confirmationToken;
-
     @Column(name = "confirmed_at")
     private LocalDateTime confirmedAt;
 
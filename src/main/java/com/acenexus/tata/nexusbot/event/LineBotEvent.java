@@ -6,6 +6,8 @@ import lombok.Getter;
 import lombok.NonNull;
 import lombok.ToString;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.Map;
 
@@ -20,6 +22,12 @@ import java.util.Map;
 @Builder
 @ToString
 public class LineBotEvent {
+    /**
+     * Reply Token 可安全使用的時間
+     * LINE 官方未保證確切有效期（實測約一分鐘），保留緩衝避免送出時剛好過期
+     */
+    public static final Duration REPLY_TOKEN_TTL = Duration.ofSeconds(50);
+
     /**
      * 聊天室 ID
      * 一對一聊天：等於 userId
@@ -77,6 +85,38 @@ public class LineBotEvent {
      */
     private final JsonNode rawEvent;
 
+    /**
+     * 本機收到 Webhook 事件的時間
+     */
+    @NonNull
+    @Builder.Default
+    private final Instant receivedAt = Instant.now();
+
+    /**
+     * 事件發生時間，用於計算 Reply Token 期限與回應延遲
+     * 以 LINE 事件的 timestamp 為準，重送（redelivery）的事件不會被當成剛收到；
+     * 沒有 timestamp 或其晚於本機收到時間（時鐘誤差）時使用本機收到時間
+     *
+     * @return 事件發生時間
+     */
+    public Instant getReceivedAt() {
+        JsonNode timestamp = rawEvent != null ? rawEvent.path("timestamp") : null;
+        if (timestamp != null && timestamp.canConvertToLong() && timestamp.asLong() > 0) {
+            Instant occurredAt = Instant.ofEpochMilli(timestamp.asLong());
+            return occurredAt.isBefore(receivedAt) ? occurredAt : receivedAt;
+        }
+        return receivedAt;
+    }
+
+    /**
+     * Reply Token 期限，超過後應改用 Push 發送
+     *
+     * @return 事件發生時間加上 {@link #REPLY_TOKEN_TTL}
+     */
+    public Instant getReplyDeadline() {
+        return getReceivedAt().plus(REPLY_TOKEN_TTL);
+    }
+
     /**
      * 從 payload 取得字串值
      *
@@ -0,0 +1,105 @@
+package com.acenexus.tata.nexusbot.event;
+
+import com.linecorp.bot.model.message.Message;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 單一事件的回覆訊息累積器
+ * 一個 Reply Token 最多可回覆 5 則訊息且只能使用一次。Dispatcher 在分發事件前開啟累積，
+ * Handler / Facade 在處理過程中可額外加入訊息（例如「操作成功」＋「更新後的列表」），
+ * 分發結束時與 Handler 回傳的訊息合併成一次 Reply 送出，不必另外花費 Push 額度。
+ * 累積狀態綁定在處理事件的執行緒上，非同步流程（AI 對話、廁所搜尋）不適用，仍由 MessageService 直接發送。
+ * 無法加入的訊息記錄於 log 與 line.reply.dropped 指標（reason=accumulator_full / no_reply）。
+ */
+@Component
+@RequiredArgsConstructor
+public class ReplyAccumulator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplyAccumulator.class);
+
+    /**
+     * LINE 單次 Reply 的訊息數上限
+     */
+    public static final int MAX_MESSAGES = 5;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ThreadLocal<List<Message>> pending = new ThreadLocal<>();
+
+    /**
+     * 開始累積目前事件的回覆訊息（清除先前殘留的內容）
+     */
+    public void begin() {
+        pending.set(new ArrayList<>(MAX_MESSAGES));
+    }
+
+    /**
+     * 加入一則回覆訊息
+     *
+     * @param message 回覆訊息，null 時忽略
+     * @return {@code true} 表示已加入；{@code false} 表示不在事件分發中或已達 5 則上限
+     */
+    public boolean add(Message message) {
+        if (message == null) {
+            return false;
+        }
+        List<Message> messages = pending.get();
+        if (messages == null) {
+            logger.warn("No reply in progress on this thread, message ignored: {}", message.getClass().getSimpleName());
+            countDropped("no_reply");
+            return false;
+        }
+        if (messages.size() >= MAX_MESSAGES) {
+            logger.warn("Reply already holds {} messages, dropping {}", MAX_MESSAGES, message.getClass().getSimpleName());
+            countDropped("accumulator_full");
+            return false;
+        }
+        messages.add(message);
+        return true;
+    }
+
+    private void countDropped(String reason) {
+        Counter.builder("line.reply.dropped")
+                .description("Reply messages dropped because they exceed the per-reply limit")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 尚可加入的訊息數
+     */
+    public int remaining() {
+        List<Message> messages = pending.get();
+        return messages == null ? 0 : MAX_MESSAGES - messages.size();
+    }
+
+    /**
+     * 捨棄目前累積的訊息（Handler 失敗時使用），累積狀態仍保持開啟
+     */
+    public void discard() {
+        List<Message> messages = pending.get();
+        if (messages != null) {
+            messages.clear();
+        }
+    }
+
+    /**
+     * 結束累積並取出所有訊息
+     *
+     * @return 依加入順序排列的訊息，未開啟累積時為空列表
+     */
+    public List<Message> drain() {
+        List<Message> messages = pending.get();
+        pending.remove();
+        return messages == null ? List.of() : messages;
+    }
+}
@@ -3,6 +3,9 @@ package com.acenexus.tata.nexusbot.event.converter;
 import com.acenexus.tata.nexusbot.event.LineBotEvent;
 import com.acenexus.tata.nexusbot.exception.UnsupportedEventException;
 import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -12,21 +15,25 @@ import java.util.List;
 /**
  * 事件轉換器註冊中心
  * 使用責任鏈模式（Chain of Responsibility）依序嘗試所有 Converter
+ * - 指標：line.event.convert（converter、outcome=success / error）、line.event.unhandled（reason=no_converter）
  */
 @Component
 public class EventConverterRegistry {
     private static final Logger logger = LoggerFactory.getLogger(EventConverterRegistry.class);
 
     private final List<EventConverter> converters;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Constructor
      * Spring 自動注入所有 EventConverter 實作
      *
-     * @param converters 所有已註冊的事件轉換器
+     * @param converters    所有已註冊的事件轉換器
+     * @param meterRegistry 指標註冊中心
      */
-    public EventConverterRegistry(List<EventConverter> converters) {
+    public EventConverterRegistry(List<EventConverter> converters, MeterRegistry meterRegistry) {
         this.converters = converters;
+        this.meterRegistry = meterRegistry;
         logger.info("Registered {} event converters", converters.size());
     }
 
@@ -43,13 +50,38 @@ public class EventConverterRegistry {
 
         for (EventConverter converter : converters) {
             if (converter.canConvert(event)) {
-                logger.debug("Converting event type '{}' using {}", eventType, converter.getClass().getSimpleName());
-                return converter.convert(event);
+                String converterName = converter.getClass().getSimpleName();
+                logger.debug("Converting event type '{}' using {}", eventType, converterName);
+                return timedConvert(converter, converterName, event);
             }
         }
 
+        Counter.builder("line.event.unhandled")
+                .description("LINE events that no converter or handler accepted")
+                .tag("reason", "no_converter")
+                .tag("event_type", eventType)
+                .register(meterRegistry)
+                .increment();
+
         String errorMsg = String.format("No converter found for event type: %s", eventType);
         logger.error(errorMsg);
         throw new UnsupportedEventException(errorMsg);
     }
+
+    private LineBotEvent timedConvert(EventConverter converter, String converterName, JsonNode event) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            LineBotEvent converted = converter.convert(event);
+            outcome = "success";
+            return converted;
+        } finally {
+            sample.stop(Timer.builder("line.event.convert")
+                    .description("LINE webhook event conversion")
+                    .tag("converter", converterName)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
 }
@@ -38,7 +38,8 @@ public class AIMessageEventHandler implements LineBotEventHandler {
         String text = event.getPayloadString("text");
         ChatRoom.RoomType roomType = ChatRoom.RoomType.valueOf(event.getRoomType().name());
         log.info("AI processing message from room: {}", event.getRoomId());
-        aiMessageHandler.handleAIMessage(event.getRoomId(), roomType, event.getUserId(), text, event.getReplyToken());
+        aiMessageHandler.handleAIMessage(event.getRoomId(), roomType, event.getUserId(), text, event.getReplyToken(),
+                event.getReceivedAt(), event.getReplyDeadline());
         return null; // AI 處理器內部會發送訊息
     }
 
@@ -1,39 +1,67 @@
 package com.acenexus.tata.nexusbot.event.handler;
 
 import com.acenexus.tata.nexusbot.event.LineBotEvent;
+import com.acenexus.tata.nexusbot.event.ReplyAccumulator;
 import com.acenexus.tata.nexusbot.service.MessageService;
 import com.linecorp.bot.model.message.Message;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * LINE Bot 事件分發器
  * 使用責任鏈模式（Chain of Responsibility）將事件分發給合適的 Handler 處理
+ * - 指標：line.event.handler.match（handler，canHandle 耗時）、line.event.handler.handle（handler、outcome=success / error）、
+ * line.event.handler.errors（handler、phase、exception）、line.event.unhandled（reason=no_handler）
  */
 @Component
 public class LineBotEventDispatcher {
     private static final Logger logger = LoggerFactory.getLogger(LineBotEventDispatcher.class);
 
-    private final List<LineBotEventHandler> handlers;
+    private final List<InstrumentedHandler> handlers;
     private final MessageService messageService;
+    private final ReplyAccumulator replyAccumulator;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Handler 與其名稱、canHandle 計時器（每個事件都會詢問多個 Handler，預先註冊避免重複查找）
+     */
+    private record InstrumentedHandler(LineBotEventHandler handler, String name, Timer canHandleTimer) {
+    }
 
     /**
      * Constructor
      * Spring 自動注入所有 LineBotEventHandler 並按優先級排序
      *
-     * @param handlers       所有已註冊的事件處理器
-     * @param messageService 訊息發送服務
+     * @param handlers         所有已註冊的事件處理器
+     * @param messageService   訊息發送服務
+     * @param replyAccumulator 回覆訊息累積器
+     * @param meterRegistry    指標註冊中心
      */
-    public LineBotEventDispatcher(List<LineBotEventHandler> handlers, MessageService messageService) {
+    public LineBotEventDispatcher(List<LineBotEventHandler> handlers, MessageService messageService, ReplyAccumulator replyAccumulator,
+                                  MeterRegistry meterRegistry) {
+        this.messageService = messageService;
+        this.replyAccumulator = replyAccumulator;
+        this.meterRegistry = meterRegistry;
         // 按優先級排序（數字越小優先級越高）
         this.handlers = handlers.stream()
                 .sorted(Comparator.comparingInt(LineBotEventHandler::getPriority))
+                .map(handler -> {
+                    String name = handler.getClass().getSimpleName();
+                    Timer canHandleTimer = Timer.builder("line.event.handler.match")
+                            .description("LineBotEventHandler.canHandle evaluation")
+                            .tag("handler", name)
+                            .register(meterRegistry);
+                    return new InstrumentedHandler(handler, name, canHandleTimer);
+                })
                 .toList();
-        this.messageService = messageService;
 
         logger.info("Registered {} event handlers (sorted by priority)", handlers.size());
         handlers.forEach(handler ->
@@ -46,41 +74,87 @@ public class LineBotEventDispatcher {
     /**
      * 分發事件給合適的 Handler 處理
      * 使用責任鏈模式尋找並執行第一個可處理的 Handler
+     * 處理期間累積的訊息與 Handler 回傳的訊息在結束時合併為一次 Reply
      *
      * @param event 統一的 LINE Bot 事件
      */
     public void dispatch(LineBotEvent event) {
         logger.debug("Dispatching event: type={}, roomId={}, roomType={}, userId={}, replyToken={}", event.getEventType(), event.getRoomId(), event.getRoomType(), event.getUserId(), event.getReplyToken().substring(0, Math.min(8, event.getReplyToken().length())) + "...");
 
+        replyAccumulator.begin();
         try {
             // 依序詢問每個 Handler
-            for (LineBotEventHandler handler : handlers) {
+            for (InstrumentedHandler entry : handlers) {
+                LineBotEventHandler handler = entry.handler();
+                String phase = "can_handle";
                 try {
-                    if (handler.canHandle(event)) {
-                        logger.debug("Handler {} can handle event", handler.getClass().getSimpleName());
+                    long start = System.nanoTime();
+                    boolean accepted = handler.canHandle(event);
+                    entry.canHandleTimer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
-                        // 執行處理並取得回覆訊息
-                        Message message = handler.handle(event);
+                    if (accepted) {
+                        logger.debug("Handler {} can handle event", entry.name());
 
-                        // 發送訊息（如果有）
-                        if (message != null) {
-                            messageService.sendMessage(event.getReplyToken(), message);
-                        }
+                        // 執行處理並取得回覆訊息，排在處理期間累積的訊息之後
+                        phase = "handle";
+                        Message message = timedHandle(entry, event);
+                        replyAccumulator.add(message);
 
                         // 已處理完成，不再詢問其他 Handler
                         return;
                     }
                 } catch (Exception e) {
-                    logger.error("Error in handler {}: {}", handler.getClass().getSimpleName(), e.getMessage(), e);
-                    // 繼續嘗試下一個 Handler
+                    logger.error("Error in handler {}: {}", entry.name(), e.getMessage(), e);
+                    countHandlerError(entry, phase, e);
+                    // 捨棄失敗 Handler 已累積的訊息，繼續嘗試下一個 Handler
+                    replyAccumulator.discard();
                 }
             }
 
             // 沒有任何 Handler 可以處理
             logger.warn("No handler found for event: type={}, roomId={}, roomType={}, userId={}", event.getEventType(), event.getRoomId(), event.getRoomType(), event.getUserId());
+            Counter.builder("line.event.unhandled")
+                    .description("LINE events that no converter or handler accepted")
+                    .tag("reason", "no_handler")
+                    .tag("event_type", String.valueOf(event.getEventType()))
+                    .register(meterRegistry)
+                    .increment();
 
         } catch (Exception e) {
             logger.error("Fatal error dispatching event: {}", e.getMessage(), e);
+        } finally {
+            // 一次送出所有回覆訊息（如果有）
+            List<Message> messages = replyAccumulator.drain();
+            if (!messages.isEmpty()) {
+                messageService.sendMessages(event.getReplyToken(), messages);
+            }
         }
     }
+
+    private Message timedHandle(InstrumentedHandler entry, LineBotEvent event) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            Message message = entry.handler().handle(event);
+            outcome = "success";
+            return message;
+        } finally {
+            sample.stop(Timer.builder("line.event.handler.handle")
+                    .description("LineBotEventHandler.handle execution")
+                    .tag("handler", entry.name())
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private void countHandlerError(InstrumentedHandler entry, String phase, Exception e) {
+        Counter.builder("line.event.handler.errors")
+                .description("Exceptions thrown by LineBotEventHandler")
+                .tag("handler", entry.name())
+                .tag("phase", phase)
+                .tag("exception", e.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
 }
@@ -24,7 +24,9 @@ import static com.acenexus.tata.nexusbot.constants.Actions.REMINDER_COMPLETED;
 import static com.acenexus.tata.nexusbot.constants.Actions.REMINDER_CONFIRM_TIMEZONE;
 import static com.acenexus.tata.nexusbot.constants.Actions.REMINDER_MENU;
 import static com.acenexus.tata.nexusbot.constants.Actions.REPEAT_DAILY;
+import static com.acenexus.tata.nexusbot.constants.Actions.REPEAT_MONTHLY;
 import static com.acenexus.tata.nexusbot.constants.Actions.REPEAT_ONCE;
+import static com.acenexus.tata.nexusbot.constants.Actions.REPEAT_WEEKDAYS;
 import static com.acenexus.tata.nexusbot.constants.Actions.REPEAT_WEEKLY;
 import static com.acenexus.tata.nexusbot.constants.Actions.TODAY_REMINDERS;
 
@@ -46,7 +48,7 @@ public class ReminderPostbackEventHandler implements LineBotEventHandler {
 
         // 靜態動作
         if (event.hasAction(REMINDER_MENU, ADD_REMINDER, LIST_REMINDERS, TODAY_REMINDERS,
-                REPEAT_ONCE, REPEAT_DAILY, REPEAT_WEEKLY,
+                REPEAT_ONCE, REPEAT_DAILY, REPEAT_WEEKLY, REPEAT_WEEKDAYS, REPEAT_MONTHLY,
                 CHANNEL_LINE, CHANNEL_EMAIL, CHANNEL_BOTH,
                 CANCEL_REMINDER_INPUT, CHANGE_TIME,
                 REMINDER_CHANGE_TIMEZONE, REMINDER_CONFIRM_TIMEZONE, REMINDER_CANCEL_TIMEZONE)) {
@@ -81,6 +83,8 @@ public class ReminderPostbackEventHandler implements LineBotEventHandler {
             case REPEAT_ONCE -> reminderFacade.setRepeatTypeOnce(roomId);
             case REPEAT_DAILY -> reminderFacade.setRepeatTypeDaily(roomId);
             case REPEAT_WEEKLY -> reminderFacade.setRepeatTypeWeekly(roomId);
+            case REPEAT_WEEKDAYS -> reminderFacade.setRepeatTypeWeekdays(roomId);
+            case REPEAT_MONTHLY -> reminderFacade.setRepeatTypeMonthly(roomId);
             case CHANNEL_LINE -> reminderFacade.setNotificationChannelLine(roomId);
             case CHANNEL_EMAIL -> reminderFacade.setNotificationChannelEmail(roomId);
             case CHANNEL_BOTH -> reminderFacade.setNotificationChannelBoth(roomId);
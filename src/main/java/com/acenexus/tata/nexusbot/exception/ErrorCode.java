@@ -47,6 +47,7 @@ public enum ErrorCode {
     LINE_API_ERROR("LINE_001", "LINE 服務暫時無法使用"),
     LINE_MESSAGE_SEND_FAILED("LINE_002", "訊息發送失敗"),
     LINE_INVALID_TOKEN("LINE_003", "LINE 驗證失敗"),
+    LINE_RATE_LIMITED("LINE_004", "LINE 訊息發送過於頻繁，請稍後再試"),
 
     // ========== Email 服務錯誤 ==========
     EMAIL_SEND_FAILED("EMAIL_001", "Email 發送失敗"),
@@ -30,6 +30,10 @@ public interface ReminderFacade {
 
     Message setRepeatTypeWeekly(String roomId);
 
+    Message setRepeatTypeWeekdays(String roomId);
+
+    Message setRepeatTypeMonthly(String roomId);
+
     // 處理通知管道選擇
     Message setNotificationChannelLine(String roomId);
 
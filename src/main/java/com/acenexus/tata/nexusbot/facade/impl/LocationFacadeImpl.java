@@ -1,18 +1,22 @@
 package com.acenexus.tata.nexusbot.facade.impl;
 
+import com.acenexus.tata.nexusbot.chatroom.ChatRoomAccessor;
 import com.acenexus.tata.nexusbot.chatroom.ChatRoomManager;
+import com.acenexus.tata.nexusbot.config.properties.TimezoneProperties;
 import com.acenexus.tata.nexusbot.entity.ChatRoom;
 import com.acenexus.tata.nexusbot.facade.LocationFacade;
 import com.acenexus.tata.nexusbot.location.LocationService;
 import com.acenexus.tata.nexusbot.service.MessageService;
 import com.acenexus.tata.nexusbot.template.MessageTemplateProvider;
 import com.acenexus.tata.nexusbot.util.MdcTaskDecorator;
+import com.acenexus.tata.nexusbot.util.TimezoneValidator;
 import com.linecorp.bot.model.message.Message;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.time.ZoneId;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -25,6 +29,7 @@ public class LocationFacadeImpl implements LocationFacade {
     private static final Logger logger = LoggerFactory.getLogger(LocationFacadeImpl.class);
 
     private final ChatRoomManager chatRoomManager;
+    private final ChatRoomAccessor chatRoomAccessor;
     private final LocationService locationService;
     private final MessageService messageService;
     private final MessageTemplateProvider messageTemplateProvider;
@@ -48,9 +53,12 @@ public class LocationFacadeImpl implements LocationFacade {
             chatRoomManager.updateWaitingForToiletSearch(roomId, false);
             logger.info("Processing toilet search for room {} with location: lat={}, lon={}", roomId, latitude, longitude);
 
+            // 營業狀態依聊天室時區判斷
+            ZoneId zone = resolveZone(roomId);
+
             // 非同步搜尋廁所（使用 MdcTaskDecorator 自動傳遞 traceId）
             CompletableFuture.runAsync(
-                    MdcTaskDecorator.wrap(() -> searchToilets(latitude, longitude, replyToken))
+                    MdcTaskDecorator.wrap(() -> searchToilets(latitude, longitude, zone, replyToken))
             );
 
             return null; // 非同步處理,不需要立即回傳訊息
@@ -61,9 +69,15 @@ public class LocationFacadeImpl implements LocationFacade {
         }
     }
 
-    private void searchToilets(double latitude, double longitude, String replyToken) {
+    private ZoneId resolveZone(String roomId) {
+        // 使用 USER 類型，因為只需要讀取時區
+        String timezone = chatRoomAccessor.getOrCreateChatRoom(roomId, ChatRoom.RoomType.USER).getTimezone();
+        return ZoneId.of(TimezoneValidator.isValidTimezone(timezone) ? timezone : TimezoneProperties.FALLBACK_DEFAULT);
+    }
+
+    private void searchToilets(double latitude, double longitude, ZoneId zone, String replyToken) {
         try {
-            locationService.findNearbyToilets(latitude, longitude, 1000)
+            locationService.findNearestToilets(latitude, longitude, zone)
                     .thenAccept(toilets -> {
                         Message response = messageTemplateProvider.nearbyToiletsResponse(toilets, latitude, longitude);
                         messageService.sendMessage(replyToken, response);
@@ -6,10 +6,12 @@ import com.acenexus.tata.nexusbot.entity.ChatRoom;
 import com.acenexus.tata.nexusbot.entity.Reminder;
 import com.acenexus.tata.nexusbot.entity.ReminderLog;
 import com.acenexus.tata.nexusbot.entity.ReminderState;
+import com.acenexus.tata.nexusbot.event.ReplyAccumulator;
 import com.acenexus.tata.nexusbot.facade.ReminderFacade;
 import com.acenexus.tata.nexusbot.reminder.ReminderLogService;
 import com.acenexus.tata.nexusbot.reminder.ReminderService;
 import com.acenexus.tata.nexusbot.reminder.ReminderStateManager;
+import com.acenexus.tata.nexusbot.reminder.recurrence.RecurrenceRules;
 import com.acenexus.tata.nexusbot.template.MessageTemplateProvider;
 import com.acenexus.tata.nexusbot.timezone.TimezoneInputStateService;
 import com.acenexus.tata.nexusbot.util.AnalyzerUtil;
@@ -51,6 +53,7 @@ public class ReminderFacadeImpl implements ReminderFacade {
     private final EmailInputStateService emailInputStateService;
     private final TimezoneInputStateService timezoneInputStateService;
     private final AnalyzerUtil analyzerUtil;
+    private final ReplyAccumulator replyAccumulator;
 
     @Override
     public Message showMenu() {
@@ -89,7 +92,9 @@ public class ReminderFacadeImpl implements ReminderFacade {
             boolean success = reminderService.deleteReminder(reminderId, roomId);
             if (success) {
                 logger.info("Deleted reminder {} for room: {}", reminderId, roomId);
-                return messageTemplateProvider.success("提醒已刪除");
+                // 同一次回覆附上更新後的提醒列表
+                Message confirmation = messageTemplateProvider.success("提醒已刪除");
+                return replyAccumulator.add(confirmation) ? listActive(roomId) : confirmation;
             } else {
                 logger.warn("Failed to delete reminder {} for room: {}", reminderId, roomId);
                 return messageTemplateProvider.error("刪除失敗");
@@ -227,11 +232,7 @@ public class ReminderFacadeImpl implements ReminderFacade {
         // 清除狀態
         reminderStateManager.clearState(roomId);
 
-        String repeatTypeText = switch (repeatType) {
-            case "DAILY" -> "每日重複";
-            case "WEEKLY" -> "每週重複";
-            default -> "僅一次";
-        };
+        String repeatTypeText = RecurrenceRules.describe(repeatType);
 
         String timezoneDisplay = TimezoneValidator.getDisplayName(timezone);
         logger.info("Reminder created for room {}: {} at {} ({})", roomId, content, reminderTime, timezone);
@@ -247,11 +248,12 @@ public class ReminderFacadeImpl implements ReminderFacade {
         }
 
         try {
+            Map<Long, ReminderLog> latestLogs = reminderLogService.findLatestByReminderIds(reminders.stream().map(Reminder::getId).toList());
+
             for (Reminder reminder : reminders) {
-                Optional<ReminderLog> latestLog = reminderLogService.findLatestByReminderId(reminder.getId());
+                ReminderLog log = latestLogs.get(reminder.getId());
 
-                if (latestLog.isPresent()) {
-                    ReminderLog log = latestLog.get();
+                if (log != null) {
                     String channel = reminder.getNotificationChannel() != null ? reminder.getNotificationChannel() : "LINE";
 
                     if ("EMAIL".equalsIgnoreCase(channel) || "BOTH".equalsIgnoreCase(channel)) {
@@ -305,6 +307,22 @@ public class ReminderFacadeImpl implements ReminderFacade {
         return messageTemplateProvider.reminderNotificationChannelMenu();
     }
 
+    @Override
+    public Message setRepeatTypeWeekdays(String roomId) {
+        reminderStateManager.storeRepeatType(roomId, RecurrenceRules.WEEKDAYS);
+        reminderStateManager.transitionToNotificationChannel(roomId);
+        logger.debug("Set repeat type to WEEKDAYS for room: {}", roomId);
+        return messageTemplateProvider.reminderNotificationChannelMenu();
+    }
+
+    @Override
+    public Message setRepeatTypeMonthly(String roomId) {
+        reminderStateManager.storeRepeatType(roomId, RecurrenceRules.MONTHLY);
+        reminderStateManager.transitionToNotificationChannel(roomId);
+        logger.debug("Set repeat type to MONTHLY for room: {}", roomId);
+        return messageTemplateProvider.reminderNotificationChannelMenu();
+    }
+
     // ==================== 通知管道選擇 ====================
 
     @Override
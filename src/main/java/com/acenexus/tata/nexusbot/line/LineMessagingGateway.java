@@ -0,0 +1,357 @@
+package com.acenexus.tata.nexusbot.line;
+
+import com.acenexus.tata.nexusbot.config.properties.LineApiProperties;
+import com.acenexus.tata.nexusbot.config.properties.LineBotProperties;
+import com.acenexus.tata.nexusbot.exception.ErrorCode;
+import com.acenexus.tata.nexusbot.exception.NexusException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.linecorp.bot.model.Multicast;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.ReplyMessage;
+import com.linecorp.bot.model.objectmapper.ModelObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * LINE 訊息發送閘道
+ * 所有 Push / Multicast / Reply（以及載入動畫）呼叫統一經過此處，直接呼叫 Messaging API（同 Rich Menu 圖片上傳，LINE SDK 不支援的功能以 WebClient 實作）：
+ * - 非同步 API 回傳 CompletableFuture，失敗時以 {@link NexusException} 完成；同步 API 等待結果後直接拋出
+ * - 每次請求套用逾時；Push / Multicast 以同一個 X-Line-Retry-Key 重試（逾時、連線錯誤、429、5xx），
+ *   LINE 回應 409 表示先前的嘗試已被接受，視為成功
+ * - 提醒通知由 outbox 的冪等鍵衍生 Retry Key（{@link #retryKey}），outbox 重試或租約到期重新認領時沿用同一個 Key，
+ *   先前已送達的 Push 不會重複發送
+ * - 依端點套用令牌桶限流，並限制同時進行中的請求數，等待逾時拋出 {@link ErrorCode#LINE_RATE_LIMITED}；
+ *   許可在回傳的非同步流程中取得，呼叫端執行緒（如 webhook）不會等待：先取得 in-flight 許可（需等待時在專用的有界 Scheduler 上等待），
+ *   取得後才扣除令牌，令牌不足時以 Mono.delay 延遲而非休眠
+ * - Push / Multicast 成功後累計 Push 額度（Push 記 1 則；群組 Push 實際依成員數計費，由 LinePushQuotaService 定期以 LINE 回報的用量校正）
+ * - 指標：line.api.requests（延遲直方圖，依端點與結果標記）、line.api.errors（依端點與狀態）、
+ *   line.api.retries、line.api.throttled、line.api.in_flight
+ */
+@Component
+@RequiredArgsConstructor
+public class LineMessagingGateway {
+
+    private static final Logger logger = LoggerFactory.getLogger(LineMessagingGateway.class);
+    private static final String RETRY_KEY_HEADER = "X-Line-Retry-Key";
+
+    /**
+     * LINE Messaging API 發送端點
+     */
+    public enum Endpoint {
+        PUSH("push", "/v2/bot/message/push"),
+        MULTICAST("multicast", "/v2/bot/message/multicast"),
+        REPLY("reply", "/v2/bot/message/reply"),
+        LOADING("loading", "/v2/bot/chat/loading/start");
+
+        private final String tag;
+        private final String path;
+
+        Endpoint(String tag, String path) {
+            this.tag = tag;
+            this.path = path;
+        }
+    }
+
+    private final LineBotProperties lineBotProperties;
+    private final LineApiProperties lineApiProperties;
+    private final LinePushQuotaService linePushQuotaService;
+    private final MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper = ModelObjectMapper.createNewObjectMapper();
+    private final Map<Endpoint, TokenBucket> buckets = new EnumMap<>(Endpoint.class);
+
+    private WebClient webClient;
+    private Semaphore inFlight;
+    private Scheduler permitScheduler;
+
+    @PostConstruct
+    public void init() {
+        webClient = WebClient.builder()
+                .baseUrl(lineApiProperties.getBaseUrl())
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + lineBotProperties.getChannelToken())
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .build();
+
+        buckets.put(Endpoint.PUSH, new TokenBucket(lineApiProperties.getPushPerSecond()));
+        buckets.put(Endpoint.MULTICAST, new TokenBucket(lineApiProperties.getMulticastPerSecond()));
+        buckets.put(Endpoint.REPLY, new TokenBucket(lineApiProperties.getReplyPerSecond()));
+        buckets.put(Endpoint.LOADING, new TokenBucket(lineApiProperties.getLoadingPerSecond()));
+
+        inFlight = new Semaphore(lineApiProperties.getMaxInFlight());
+        permitScheduler = Schedulers.newBoundedElastic(lineApiProperties.getMaxInFlight(), Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "line-api-permit");
+        Gauge.builder("line.api.in_flight", inFlight, semaphore -> lineApiProperties.getMaxInFlight() - semaphore.availablePermits())
+                .description("LINE Messaging API requests in flight")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        permitScheduler.dispose();
+    }
+
+    public CompletableFuture<Void> pushAsync(PushMessage pushMessage) {
+        return pushAsync(pushMessage, UUID.randomUUID().toString());
+    }
+
+    /**
+     * 以呼叫端的冪等鍵發送 Push，相同冪等鍵的多次呼叫使用相同的 X-Line-Retry-Key
+     *
+     * @param pushMessage    Push 訊息
+     * @param idempotencyKey 冪等鍵（如 outbox 的 idempotency_key）
+     */
+    public CompletableFuture<Void> pushAsync(PushMessage pushMessage, String idempotencyKey) {
+        return send(Endpoint.PUSH, pushMessage, retryKey(idempotencyKey))
+                .thenRun(() -> linePushQuotaService.record(1));
+    }
+
+    public CompletableFuture<Void> multicastAsync(Multicast multicast) {
+        return send(Endpoint.MULTICAST, multicast, UUID.randomUUID().toString())
+                .thenRun(() -> linePushQuotaService.record(multicast.getTo().size()));
+    }
+
+    /**
+     * Reply Token 只能使用一次，Reply 不做重試
+     */
+    public CompletableFuture<Void> replyAsync(ReplyMessage replyMessage) {
+        return send(Endpoint.REPLY, replyMessage, null);
+    }
+
+    /**
+     * 在一對一聊天顯示載入動畫，收到下一則訊息或逾時後自動消失（群組不支援）
+     *
+     * @param chatId         使用者 ID
+     * @param loadingSeconds 顯示秒數（5 ~ 60，須為 5 的倍數）
+     */
+    public CompletableFuture<Void> startLoadingAsync(String chatId, int loadingSeconds) {
+        return send(Endpoint.LOADING, Map.of("chatId", chatId, "loadingSeconds", loadingSeconds), null);
+    }
+
+    public void push(PushMessage pushMessage) {
+        join(pushAsync(pushMessage));
+    }
+
+    public void push(PushMessage pushMessage, String idempotencyKey) {
+        join(pushAsync(pushMessage, idempotencyKey));
+    }
+
+    public void multicast(Multicast multicast) {
+        join(multicastAsync(multicast));
+    }
+
+    public void reply(ReplyMessage replyMessage) {
+        join(replyAsync(replyMessage));
+    }
+
+    private CompletableFuture<Void> send(Endpoint endpoint, Object body, String retryKey) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new NexusException(ErrorCode.LINE_MESSAGE_SEND_FAILED, "LINE " + endpoint.tag + " serialization failed", e));
+        }
+
+        Mono<Void> request = webClient.post()
+                .uri(endpoint.path)
+                .headers(headers -> {
+                    if (retryKey != null) {
+                        headers.set(RETRY_KEY_HEADER, retryKey);
+                    }
+                })
+                .bodyValue(json)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(Duration.ofMillis(lineApiProperties.getTimeoutMs()))
+                .then();
+
+        if (retryKey != null) {
+            request = request
+                    .onErrorResume(LineMessagingGateway::isAlreadyAccepted, e -> {
+                        logger.info("LINE {} already accepted for retry key {}", endpoint.tag, retryKey);
+                        return Mono.empty();
+                    })
+                    .retryWhen(Retry.backoff(lineApiProperties.getMaxRetries(), Duration.ofMillis(lineApiProperties.getRetryBackoffMs()))
+                            .filter(LineMessagingGateway::isRetryable)
+                            .doBeforeRetry(signal -> {
+                                retryCounter(endpoint).increment();
+                                logger.warn("Retrying LINE {} (attempt {}): {}", endpoint.tag, signal.totalRetries() + 2, signal.failure().getMessage());
+                            })
+                            .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+        }
+
+        // 先取得 in-flight 許可再扣令牌；請求結束、失敗或取消時釋放 in-flight 許可
+        Mono<Void> attempt = request;
+        Mono<Void> call = Mono.usingWhen(
+                acquireInFlight(endpoint),
+                permit -> reserveToken(endpoint).then(attempt),
+                permit -> Mono.fromRunnable(inFlight::release));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return call.toFuture()
+                .handle((ignored, error) -> {
+                    Throwable cause = unwrap(error);
+                    sample.stop(requestTimer(endpoint, outcome(cause)));
+                    if (cause == null) {
+                        return null;
+                    }
+                    if (cause instanceof NexusException nexusException) {
+                        throw new CompletionException(nexusException);
+                    }
+                    errorCounter(endpoint, status(cause)).increment();
+                    throw new CompletionException(toNexusException(endpoint, cause));
+                });
+    }
+
+    /**
+     * 取得同時請求數許可：有空位時直接取得，否則在專用 Scheduler 上等待，不阻塞呼叫端執行緒
+     */
+    private Mono<Boolean> acquireInFlight(Endpoint endpoint) {
+        long timeoutMs = lineApiProperties.getAcquireTimeoutMs();
+        return Mono.defer(() -> inFlight.tryAcquire()
+                        ? Mono.just(true)
+                        : Mono.fromCallable(() -> inFlight.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)).subscribeOn(permitScheduler))
+                .flatMap(acquired -> acquired ? Mono.just(true) : Mono.<Boolean>error(throttled(endpoint, "in-flight")));
+    }
+
+    /**
+     * 取得 in-flight 許可後才扣除令牌；需等待時以 Mono.delay 延遲
+     */
+    private Mono<Void> reserveToken(Endpoint endpoint) {
+        return Mono.defer(() -> {
+            long waitNanos = buckets.get(endpoint).reserve(TimeUnit.MILLISECONDS.toNanos(lineApiProperties.getAcquireTimeoutMs()));
+            if (waitNanos < 0) {
+                return Mono.<Void>error(throttled(endpoint, "rate"));
+            }
+            return waitNanos == 0 ? Mono.<Void>empty() : Mono.delay(Duration.ofNanos(waitNanos)).then();
+        });
+    }
+
+    private NexusException throttled(Endpoint endpoint, String limit) {
+        Counter.builder("line.api.throttled")
+                .description("LINE API calls rejected by the local rate or in-flight limiter")
+                .tag("endpoint", endpoint.tag)
+                .register(meterRegistry)
+                .increment();
+        logger.warn("LINE {} {} limit wait exceeded {}ms", endpoint.tag, limit, lineApiProperties.getAcquireTimeoutMs());
+        return new NexusException(ErrorCode.LINE_RATE_LIMITED, "LINE " + endpoint.tag + " rate limit exceeded");
+    }
+
+    /**
+     * X-Line-Retry-Key 必須是 UUID，以冪等鍵衍生固定的 UUID（v3）
+     */
+    public static String retryKey(String idempotencyKey) {
+        return UUID.nameUUIDFromBytes(("line-retry:" + idempotencyKey).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static void join(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof NexusException nexusException) {
+                throw nexusException;
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isAlreadyAccepted(Throwable error) {
+        return error instanceof WebClientResponseException e && e.getStatusCode().value() == HttpStatus.CONFLICT.value();
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof WebClientResponseException e) {
+            return e.getStatusCode().is5xxServerError() || e.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+        }
+        return error instanceof TimeoutException || error instanceof WebClientRequestException;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private static String outcome(Throwable cause) {
+        if (cause == null) {
+            return "success";
+        }
+        if (cause instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (cause instanceof NexusException) {
+            return "throttled";
+        }
+        if (cause instanceof WebClientResponseException e && e.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            return "rate_limited";
+        }
+        return "error";
+    }
+
+    private static String status(Throwable cause) {
+        if (cause instanceof WebClientResponseException e) {
+            return String.valueOf(e.getStatusCode().value());
+        }
+        return cause instanceof TimeoutException ? "timeout" : "io";
+    }
+
+    private static NexusException toNexusException(Endpoint endpoint, Throwable cause) {
+        String detail = cause instanceof WebClientResponseException e
+                ? "LINE " + endpoint.tag + " failed: " + e.getStatusCode().value() + " " + e.getResponseBodyAsString()
+                : "LINE " + endpoint.tag + " failed: " + cause;
+        return new NexusException(ErrorCode.LINE_MESSAGE_SEND_FAILED, detail, cause);
+    }
+
+    private Timer requestTimer(Endpoint endpoint, String outcome) {
+        return Timer.builder("line.api.requests")
+                .description("LINE Messaging API request latency")
+                .tag("endpoint", endpoint.tag)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Counter errorCounter(Endpoint endpoint, String status) {
+        return Counter.builder("line.api.errors")
+                .description("LINE Messaging API errors by status")
+                .tag("endpoint", endpoint.tag)
+                .tag("status", status)
+                .register(meterRegistry);
+    }
+
+    private Counter retryCounter(Endpoint endpoint) {
+        return Counter.builder("line.api.retries")
+                .description("LINE Messaging API retries")
+                .tag("endpoint", endpoint.tag)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,196 @@
+package com.acenexus.tata.nexusbot.line;
+
+import com.acenexus.tata.nexusbot.config.properties.LineApiProperties;
+import com.acenexus.tata.nexusbot.config.properties.TimezoneProperties;
+import com.linecorp.bot.client.LineMessagingClient;
+import com.linecorp.bot.model.response.MessageQuotaResponse;
+import com.linecorp.bot.model.response.QuotaConsumptionResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LINE Push 訊息額度計數服務
+ * - 發送成功時只累加記憶體計數，定期批次寫回 line_push_quota（多實例以資料庫累加共享用量）
+ * - 定期向 LINE 查詢方案額度與實際用量，以 LINE 回報的總量作為下限寫入（GREATEST），多實例同時校正也不會重複累加
+ * - 群組 / 多人聊天室的 Push 依成員數計費，本地只記 1 則，在下次與 LINE 校正前會低估用量
+ * - 使用率達低水位時回報額度不足，供通知路由降級使用
+ */
+@Service
+@RequiredArgsConstructor
+public class LinePushQuotaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LinePushQuotaService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LineMessagingClient lineMessagingClient;
+    private final LineApiProperties lineApiProperties;
+    private final TimezoneProperties timezoneProperties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 尚未寫回資料庫的用量
+     */
+    private final AtomicLong pending = new AtomicLong();
+
+    /**
+     * 最近一次從資料庫讀取的本月用量
+     */
+    private volatile long persistedUsed;
+
+    /**
+     * LINE 回報的方案額度，0 表示未知或不限制
+     */
+    private volatile long lineQuota;
+
+    @PostConstruct
+    public void init() {
+        try {
+            persistedUsed = loadUsed(currentMonthKey());
+        } catch (Exception e) {
+            logger.warn("Failed to load LINE push quota usage: {}", e.getMessage());
+        }
+        Gauge.builder("line.push.quota.used", this, LinePushQuotaService::used)
+                .description("LINE push quota used this month")
+                .register(meterRegistry);
+        Gauge.builder("line.push.quota.limit", this, LinePushQuotaService::limit)
+                .description("LINE push quota limit this month (0 = unlimited)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 記錄已使用的 Push 額度
+     *
+     * @param recipients 收件人數（Push 為 1，Multicast 為收件人數）；群組 Push 實際依成員數計費，由 {@link #syncFromLine} 校正
+     */
+    public void record(long recipients) {
+        pending.addAndGet(recipients);
+    }
+
+    /**
+     * 本月已使用額度（含尚未寫回的部分）
+     */
+    public long used() {
+        return persistedUsed + pending.get();
+    }
+
+    /**
+     * 本月額度上限，0 表示不限制
+     */
+    public long limit() {
+        return lineApiProperties.getMonthlyPushQuota() > 0 ? lineApiProperties.getMonthlyPushQuota() : lineQuota;
+    }
+
+    /**
+     * 額度是否已達低水位
+     */
+    public boolean isLow() {
+        long limit = limit();
+        return limit > 0 && used() >= limit * lineApiProperties.getQuotaLowWatermark();
+    }
+
+    /**
+     * 額度是否已用完
+     */
+    public boolean isExhausted() {
+        long limit = limit();
+        return limit > 0 && used() >= limit;
+    }
+
+    /**
+     * 將記憶體中的增量寫回資料庫，並重新讀取所有實例累計的用量
+     */
+    @Scheduled(fixedDelayString = "${line.api.quota-flush-interval-ms:10000}")
+    public void flush() {
+        String monthKey = currentMonthKey();
+        long delta = pending.getAndSet(0);
+        try {
+            if (delta > 0) {
+                increment(monthKey, delta);
+            }
+            persistedUsed = loadUsed(monthKey);
+        } catch (Exception e) {
+            pending.addAndGet(delta);
+            logger.error("Failed to flush LINE push quota usage: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 向 LINE 查詢方案額度與本月實際用量，校正本地計數
+     */
+    @Scheduled(initialDelay = 60_000, fixedDelay = 3_600_000)
+    public void syncFromLine() {
+        try {
+            MessageQuotaResponse quota = lineMessagingClient.getMessageQuota().get(10, TimeUnit.SECONDS);
+            lineQuota = quota.getType() == MessageQuotaResponse.QuotaType.limited ? quota.getValue() : 0;
+
+            QuotaConsumptionResponse consumption = lineMessagingClient.getMessageQuotaConsumption().get(10, TimeUnit.SECONDS);
+            String monthKey = currentMonthKey();
+            // 其他管道（如官方帳號後台群發）與群組成員計費也會消耗額度；以 LINE 的總量為下限，
+            // 寫入絕對值而非差額，多個實例以各自過期的本地計數同時校正也不會重複累加
+            raiseTo(monthKey, consumption.getTotalUsage());
+            persistedUsed = loadUsed(monthKey);
+            logger.info("LINE push quota synced: used={}, limit={}", used(), limit());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("Failed to sync LINE push quota: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void increment(String monthKey, long delta) {
+        LocalDateTime now = LocalDateTime.now();
+        String update = "UPDATE line_push_quota SET used_count = used_count + ?, updated_at = ? WHERE month_key = ?";
+        if (jdbcTemplate.update(update, delta, now, monthKey) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO line_push_quota (month_key, used_count, updated_at) VALUES (?, ?, ?)", monthKey, delta, now);
+        } catch (DuplicateKeyException e) {
+            // 其他實例剛建立本月資料列
+            jdbcTemplate.update(update, delta, now, monthKey);
+        }
+    }
+
+    private void raiseTo(String monthKey, long total) {
+        LocalDateTime now = LocalDateTime.now();
+        String update = "UPDATE line_push_quota SET used_count = GREATEST(used_count, ?), updated_at = ? WHERE month_key = ?";
+        if (jdbcTemplate.update(update, total, now, monthKey) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO line_push_quota (month_key, used_count, updated_at) VALUES (?, ?, ?)", monthKey, total, now);
+        } catch (DuplicateKeyException e) {
+            jdbcTemplate.update(update, total, now, monthKey);
+        }
+    }
+
+    private long loadUsed(String monthKey) {
+        List<Long> rows = jdbcTemplate.queryForList("SELECT used_count FROM line_push_quota WHERE month_key = ?", Long.class, monthKey);
+        return rows.isEmpty() ? 0 : rows.get(0);
+    }
+
+    private String currentMonthKey() {
+        return YearMonth.now(ZoneId.of(timezoneProperties.getDefaultTimezone())).toString();
+    }
+}
@@ -0,0 +1,51 @@
+package com.acenexus.tata.nexusbot.line;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶限流器
+ * 以固定速率補充令牌，容量等於每秒速率（允許最多一秒的突發量）。
+ * 取得許可時預先扣除令牌並回傳需等待的時間，由呼叫端以非阻塞方式延遲（如 Mono.delay），依序排隊，不會有飢餓問題。
+ */
+class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double capacity;
+
+    private double available;
+    private long lastRefillNanos;
+
+    TokenBucket(int permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        }
+        this.permitsPerNano = permitsPerSecond / (double) TimeUnit.SECONDS.toNanos(1);
+        this.capacity = permitsPerSecond;
+        this.available = permitsPerSecond;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 預約一個許可
+     *
+     * @param timeoutNanos 可接受的最長等待時間（奈秒）
+     * @return 需等待的奈秒數；超過 timeoutNanos 時不預約並回傳 -1
+     */
+    synchronized long reserve(long timeoutNanos) {
+        long now = System.nanoTime();
+        available = Math.min(capacity, available + (now - lastRefillNanos) * permitsPerNano);
+        lastRefillNanos = now;
+
+        if (available >= 1) {
+            available -= 1;
+            return 0;
+        }
+
+        long waitNanos = (long) Math.ceil((1 - available) / permitsPerNano);
+        if (waitNanos > timeoutNanos) {
+            return -1;
+        }
+        available -= 1;
+        return waitNanos;
+    }
+}
@@ -47,9 +47,9 @@ public final class LocationConstants {
         public static final String OUTPUT_FORMAT = "[out:json]";
 
         /**
-         * 輸出幾何資料和元資料
+         * 只輸出標籤與中心點（way 以 center 取代完整幾何，不含編輯元資料）
          */
-        public static final String OUTPUT_DETAILS = "out geom meta;";
+        public static final String OUTPUT_DETAILS = "out tags center;";
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.acenexus.tata.nexusbot.location;
 
+import java.time.ZoneId;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
@@ -11,7 +12,19 @@ public interface LocationService {
      * @param latitude  緯度
      * @param longitude 經度
      * @param radius    搜尋半徑（公尺）
+     * @param zone      使用者時區（判斷營業狀態）
      * @return 附近廁所列表
      */
-    CompletableFuture<List<ToiletLocation>> findNearbyToilets(double latitude, double longitude, int radius);
+    CompletableFuture<List<ToiletLocation>> findNearbyToilets(double latitude, double longitude, int radius, ZoneId zone);
+
+    /**
+     * 搜尋最近的廁所
+     * 每個網格只以最大搜尋半徑查詢一次並快取，較小範圍直接在本地依距離篩選
+     *
+     * @param latitude  緯度
+     * @param longitude 經度
+     * @param zone      使用者時區（判斷營業狀態）
+     * @return 最近的廁所列表（依距離排序）
+     */
+    CompletableFuture<List<ToiletLocation>> findNearestToilets(double latitude, double longitude, ZoneId zone);
 }
\ No newline at end of file
@@ -18,6 +18,9 @@ public class OsmElement {
     // way 元素的幾何資訊
     private List<GeometryNode> geometry;
 
+    // way 元素的中心點（out center 輸出）
+    private GeometryNode center;
+
     // 額外實用資訊
     private String access;        // 存取權限：yes, permissive, private 等
     private String description;   // 描述資訊
@@ -96,6 +99,9 @@ public class OsmElement {
         if (lat != null) {
             return lat;
         }
+        if (center != null && center.getLat() != null) {
+            return center.getLat();
+        }
 
         // 對於 way 元素，計算幾何中心
         if (geometry != null && !geometry.isEmpty()) {
@@ -120,6 +126,9 @@ public class OsmElement {
         if (lon != null) {
             return lon;
         }
+        if (center != null && center.getLon() != null) {
+            return center.getLon();
+        }
 
         // 對於 way 元素，計算幾何中心
         if (geometry != null && !geometry.isEmpty()) {
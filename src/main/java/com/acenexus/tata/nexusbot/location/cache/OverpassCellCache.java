@@ -0,0 +1,207 @@
+package com.acenexus.tata.nexusbot.location.cache;
+
+import com.acenexus.tata.nexusbot.config.properties.OsmCacheProperties;
+import com.acenexus.tata.nexusbot.location.OsmElement;
+import com.acenexus.tata.nexusbot.location.client.OverpassResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.acenexus.tata.nexusbot.location.LocationConstants.Geography;
+
+/**
+ * Overpass 查詢結果快取
+ * - 以「Geohash 網格 + 半徑級距」為鍵，快取以網格中心為圓心、涵蓋整個網格的原始 OSM 元素
+ * - 同網格內任何位置都能命中，呼叫端再依使用者實際座標過濾與重新排序（見 ToiletLocationMapper）
+ * - 同網格已快取較大級距時直接使用，不再為較小半徑另外查詢
+ * - 同一網格同時多個未命中只會送出一次 Overpass 查詢，其餘請求等待同一個結果
+ * - 查詢失敗或回應達元素數上限被截斷時不快取，下一次請求重新查詢
+ * - 指標：osm.cache.requests（result=hit / miss / coalesced / bypass / truncated）、osm.cache.size
+ */
+@Component
+@RequiredArgsConstructor
+public class OverpassCellCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverpassCellCache.class);
+
+    /**
+     * 實際的 Overpass 查詢
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * @return 查詢結果，失敗時回傳 null；失敗或被截斷的結果不會被快取
+         */
+        OverpassResult load(double latitude, double longitude, int radius);
+    }
+
+    private final OsmCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<CellKey, Entry> entries = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("osm.cache.size", entries, Map::size)
+                .description("Cached Overpass geohash cells")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 取得涵蓋 (latitude, longitude, radius) 搜尋圓的 OSM 元素
+     * 命中時回傳的元素可能超出搜尋半徑，呼叫端需依實際座標過濾
+     *
+     * @return OSM 元素，查詢失敗時為 null
+     */
+    public List<OsmElement> get(double latitude, double longitude, int radius, Loader loader) {
+        int bucket = bucketFor(radius);
+        if (!properties.isEnabled() || bucket < 0) {
+            count("bypass");
+            OverpassResult result = loader.load(latitude, longitude, radius);
+            return result != null ? result.elements() : null;
+        }
+
+        String geohash = Geohash.encode(latitude, longitude, properties.getGeohashPrecision());
+        CellKey key = new CellKey(geohash, bucket);
+        long now = System.currentTimeMillis();
+
+        List<OsmElement> covering = findLargerBucket(geohash, bucket, now);
+        if (covering != null) {
+            count("hit");
+            return covering;
+        }
+
+        CompletableFuture<List<OsmElement>> created = new CompletableFuture<>();
+        Entry entry = entries.compute(key, (k, existing) ->
+                existing != null && !existing.isExpired(now) ? existing : new Entry(created));
+
+        if (entry.future != created) {
+            count(entry.future.isDone() ? "hit" : "coalesced");
+            return entry.future.join();
+        }
+
+        count("miss");
+        evictIfFull(now);
+        Geohash.Cell cell = Geohash.decode(geohash);
+        OverpassResult loaded = null;
+        try {
+            loaded = loader.load(cell.centerLat(), cell.centerLon(), bucket + halfDiagonalMeters(cell));
+        } finally {
+            if (loaded == null) {
+                // 失敗不快取，等待中的請求也一併收到 null
+                entries.remove(key, entry);
+                created.complete(null);
+            } else if (loaded.truncated()) {
+                // 截斷的結果只是任意一部分元素，交給這次與等待中的請求使用，但不當作網格的完整結果快取
+                entries.remove(key, entry);
+                count("truncated");
+                created.complete(List.copyOf(loaded.elements()));
+            } else {
+                entry.expiresAt = System.currentTimeMillis() + properties.getTtlSeconds() * 1000;
+                created.complete(List.copyOf(loaded.elements()));
+            }
+        }
+        return created.join();
+    }
+
+    /**
+     * 清除所有快取
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * 同網格中已完成且未過期的較大級距結果，涵蓋較小半徑的搜尋圓
+     */
+    private List<OsmElement> findLargerBucket(String geohash, int bucket, long now) {
+        for (int larger : properties.getRadiusBuckets()) {
+            if (larger <= bucket) {
+                continue;
+            }
+            Entry entry = entries.get(new CellKey(geohash, larger));
+            if (entry != null && entry.future.isDone() && !entry.isExpired(now)) {
+                List<OsmElement> elements = entry.future.getNow(null);
+                if (elements != null) {
+                    return elements;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 搜尋半徑向上取整到級距，超過最大級距回傳 -1
+     */
+    private int bucketFor(int radius) {
+        for (int bucket : properties.getRadiusBuckets()) {
+            if (radius <= bucket) {
+                return bucket;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 網格中心到角落的距離（公尺），查詢半徑加上此值可確保網格內任一點的搜尋圓都被涵蓋
+     */
+    private static int halfDiagonalMeters(Geohash.Cell cell) {
+        double latMeters = (cell.maxLat() - cell.minLat()) / 2 * Geography.METERS_PER_DEGREE_LATITUDE;
+        double lonMeters = (cell.maxLon() - cell.minLon()) / 2 * Geography.METERS_PER_DEGREE_LATITUDE
+                * Math.cos(Math.toRadians(cell.centerLat()));
+        return (int) Math.ceil(Math.hypot(latMeters, lonMeters));
+    }
+
+    private void evictIfFull(long now) {
+        if (entries.size() <= properties.getMaxEntries()) {
+            return;
+        }
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        int excess = entries.size() - properties.getMaxEntries();
+        if (excess > 0) {
+            // 仍然過多時淘汰最快過期的已完成項目，避免記憶體無限成長
+            entries.entrySet().stream()
+                    .filter(e -> e.getValue().future.isDone())
+                    .map(e -> Map.entry(e, e.getValue().expiresAt))
+                    .sorted(Map.Entry.comparingByValue())
+                    .limit(excess)
+                    .toList()
+                    .forEach(e -> entries.remove(e.getKey().getKey(), e.getKey().getValue()));
+            logger.debug("Overpass cell cache trimmed to {} entries", entries.size());
+        }
+    }
+
+    private void count(String result) {
+        Counter.builder("osm.cache.requests")
+                .description("Overpass cell cache lookups")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private record CellKey(String geohash, int radiusBucket) {
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<List<OsmElement>> future;
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        private Entry(CompletableFuture<List<OsmElement>> future) {
+            this.future = future;
+        }
+
+        private boolean isExpired(long now) {
+            return future.isDone() && now >= expiresAt;
+        }
+    }
+}
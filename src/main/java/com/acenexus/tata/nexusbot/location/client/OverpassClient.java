@@ -0,0 +1,157 @@
+package com.acenexus.tata.nexusbot.location.client;
+
+import com.acenexus.tata.nexusbot.config.properties.OsmProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Overpass API 用戶端
+ * - 共用單一 HttpClient（連線池、HTTP keep-alive、非同步送出）
+ * - 回應直接以串流交給 {@link OverpassResponseParser}，不會先緩衝成字串
+ * - 元素數達上限時立即關閉連線停止下載，避免極端密集區域的回應佔滿記憶體
+ * - 透過 {@link OverpassMirrorPool} 選擇最快的可用鏡像站；主要鏡像站超過其 p90 延遲仍未回應時，
+ * 同時送出對沖請求到第二個鏡像站，主要鏡像站失敗時也會立即改送第二個鏡像站，先成功者為準
+ */
+@Component
+@RequiredArgsConstructor
+public class OverpassClient {
+
+    private final OsmProperties osmProperties;
+    private final OverpassMirrorPool mirrorPool;
+
+    private HttpClient httpClient;
+
+    @PostConstruct
+    public void init() {
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(osmProperties.getTimeoutMs()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * 非同步執行 Overpass 查詢
+     *
+     * @param query Overpass QL
+     * @return 解析後的 OSM 元素（way 只保留中心點）與是否被截斷；所有嘗試的鏡像站都失敗時以例外完成
+     */
+    public CompletableFuture<OverpassResult> query(String query) {
+        List<OverpassMirror> mirrors = mirrorPool.available();
+        if (mirrors.isEmpty()) {
+            return CompletableFuture.failedFuture(new OverpassException(503, "All Overpass mirrors are unavailable (circuit open)"));
+        }
+        HedgedCall call = new HedgedCall(query, mirrors.get(0), mirrors.size() > 1 ? mirrors.get(1) : null);
+        call.start();
+        return call.result;
+    }
+
+    /**
+     * 送出單一請求並記錄鏡像站延遲與健康狀態
+     */
+    private CompletableFuture<OverpassResult> send(OverpassMirror mirror, String query) {
+        HttpRequest request = HttpRequest.newBuilder(mirror.uri())
+                .timeout(Duration.ofMillis(osmProperties.getTimeoutMs()))
+                .header("User-Agent", osmProperties.getUserAgent())
+                .header("Content-Type", "text/plain; charset=UTF-8")
+                .POST(HttpRequest.BodyPublishers.ofString(query, StandardCharsets.UTF_8))
+                .build();
+
+        long start = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> {
+                    try (InputStream body = response.body()) {
+                        if (response.statusCode() != 200) {
+                            throw new OverpassException(response.statusCode(), "Overpass API " + mirror.name() + " returned status: " + response.statusCode());
+                        }
+                        return OverpassResponseParser.parse(body, osmProperties.getMaxElements());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .orTimeout(osmProperties.getTimeoutMs() * 2L, TimeUnit.MILLISECONDS)
+                .whenComplete((parsed, error) ->
+                        mirrorPool.record(mirror, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), error));
+    }
+
+    /**
+     * 一次查詢：主要請求加上至多一個送往第二個鏡像站的請求（對沖或容錯移轉），先成功者為準
+     * 落後的請求不會中斷，完成後仍會更新鏡像站延遲與健康狀態，結果則被忽略
+     */
+    private final class HedgedCall implements BiConsumer<OverpassResult, Throwable> {
+        private final String query;
+        private final OverpassMirror primary;
+        private final OverpassMirror secondary;
+        private final CompletableFuture<OverpassResult> result = new CompletableFuture<>();
+        private final AtomicBoolean secondaryStarted = new AtomicBoolean();
+        private final AtomicInteger outstanding = new AtomicInteger(1);
+
+        private HedgedCall(String query, OverpassMirror primary, OverpassMirror secondary) {
+            this.query = query;
+            this.primary = primary;
+            this.secondary = secondary;
+        }
+
+        private void start() {
+            send(primary, query).whenComplete(this);
+            if (secondary != null && mirrorPool.isHedgeEnabled()) {
+                CompletableFuture.delayedExecutor(mirrorPool.hedgeDelayMs(primary), TimeUnit.MILLISECONDS)
+                        .execute(() -> startSecondary("hedge"));
+            }
+        }
+
+        @Override
+        public void accept(OverpassResult parsed, Throwable error) {
+            if (error == null) {
+                result.complete(parsed);
+                return;
+            }
+            // 失敗時立即改送第二個鏡像站（若尚未送出）；計數先加後減，不會提前判定失敗
+            startSecondary("failover");
+            if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+            }
+        }
+
+        private void startSecondary(String reason) {
+            if (secondary == null || result.isDone() || !secondaryStarted.compareAndSet(false, true)) {
+                return;
+            }
+            outstanding.incrementAndGet();
+            mirrorPool.countSecondary(reason);
+            send(secondary, query).whenComplete(this);
+        }
+    }
+
+    /**
+     * Overpass API 回應非 200 狀態
+     */
+    public static class OverpassException extends RuntimeException {
+        private final int status;
+
+        public OverpassException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+}
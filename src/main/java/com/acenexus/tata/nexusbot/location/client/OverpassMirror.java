@@ -0,0 +1,78 @@
+package com.acenexus.tata.nexusbot.location.client;
+
+import java.net.URI;
+import java.util.Arrays;
+
+/**
+ * 單一 Overpass 鏡像站的健康狀態
+ * - 最近 N 筆成功請求的延遲（環狀緩衝），用於排序與計算對沖等待時間
+ * - 斷路器：連續失敗達門檻或收到 429 時開啟，期滿後允許請求試探，試探失敗立即再次開啟
+ */
+final class OverpassMirror {
+
+    private final URI uri;
+    private final String name;
+    private final long[] latencies;
+    private int sampleCount;
+    private int nextSample;
+    private int consecutiveFailures;
+    private long openUntil;
+
+    OverpassMirror(String url, int latencySamples) {
+        this.uri = URI.create(url);
+        this.name = uri.getHost() != null ? uri.getHost() : url;
+        this.latencies = new long[Math.max(1, latencySamples)];
+    }
+
+    URI uri() {
+        return uri;
+    }
+
+    /**
+     * 指標標籤使用的名稱（主機名稱）
+     */
+    String name() {
+        return name;
+    }
+
+    synchronized boolean isOpen(long now) {
+        return now < openUntil;
+    }
+
+    synchronized long openUntil() {
+        return openUntil;
+    }
+
+    synchronized void recordSuccess(long latencyMs) {
+        consecutiveFailures = 0;
+        openUntil = 0;
+        latencies[nextSample] = latencyMs;
+        nextSample = (nextSample + 1) % latencies.length;
+        sampleCount = Math.min(sampleCount + 1, latencies.length);
+    }
+
+    /**
+     * @param rateLimited 是否為 HTTP 429（立即開啟斷路器）
+     */
+    synchronized void recordFailure(boolean rateLimited, int failureThreshold, long openDurationMs, long now) {
+        consecutiveFailures++;
+        if (rateLimited || consecutiveFailures >= failureThreshold) {
+            openUntil = now + openDurationMs;
+        }
+    }
+
+    /**
+     * 最近延遲的百分位數（毫秒）
+     *
+     * @return 樣本數少於 minSamples 時回傳 -1
+     */
+    synchronized long latencyPercentile(double percentile, int minSamples) {
+        if (sampleCount < minSamples || sampleCount == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(latencies, sampleCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
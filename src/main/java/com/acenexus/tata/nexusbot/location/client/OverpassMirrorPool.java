@@ -0,0 +1,135 @@
+package com.acenexus.tata.nexusbot.location.client;
+
+import com.acenexus.tata.nexusbot.config.properties.OsmMirrorProperties;
+import com.acenexus.tata.nexusbot.config.properties.OsmProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overpass 鏡像站池
+ * - 依最近延遲（p50）排序可用鏡像站，斷路器開啟中的鏡像站不參與
+ * - 對沖等待時間取該鏡像站最近延遲的 p90
+ * - 指標：osm.overpass.requests（mirror、outcome=success / error / rate_limited）、
+ * osm.overpass.secondary（reason=hedge / failover）、osm.overpass.circuit.open（mirror）
+ */
+@Component
+@RequiredArgsConstructor
+public class OverpassMirrorPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverpassMirrorPool.class);
+
+    /**
+     * 計算 p90 所需的最少樣本數，不足時使用 initial-hedge-delay-ms
+     */
+    private static final int MIN_HEDGE_SAMPLES = 10;
+
+    private final OsmProperties osmProperties;
+    private final OsmMirrorProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private List<OverpassMirror> mirrors;
+
+    @PostConstruct
+    public void init() {
+        List<String> urls = properties.getUrls().stream()
+                .filter(StringUtils::hasText)
+                .map(String::trim)
+                .distinct()
+                .toList();
+        if (urls.isEmpty()) {
+            urls = List.of(osmProperties.getOverpassBaseUrl());
+        }
+
+        mirrors = urls.stream()
+                .map(url -> new OverpassMirror(url, properties.getLatencySamples()))
+                .toList();
+        for (OverpassMirror mirror : mirrors) {
+            Gauge.builder("osm.overpass.circuit.open", mirror, m -> m.isOpen(System.currentTimeMillis()) ? 1 : 0)
+                    .description("Whether the Overpass mirror circuit breaker is open")
+                    .tag("mirror", mirror.name())
+                    .register(meterRegistry);
+        }
+        logger.info("Overpass mirror pool: {}", mirrors.stream().map(OverpassMirror::name).toList());
+    }
+
+    /**
+     * 目前可用的鏡像站，依延遲由快到慢排序
+     * 尚無延遲樣本的鏡像站排在最前面，讓新加入或剛恢復的鏡像站能累積樣本
+     */
+    List<OverpassMirror> available() {
+        long now = System.currentTimeMillis();
+        return mirrors.stream()
+                .filter(mirror -> !mirror.isOpen(now))
+                .sorted(Comparator.comparingLong(mirror -> mirror.latencyPercentile(0.5, 1)))
+                .toList();
+    }
+
+    /**
+     * 主要請求等待多久仍未回應時送出對沖請求（毫秒）
+     */
+    long hedgeDelayMs(OverpassMirror mirror) {
+        long p90 = mirror.latencyPercentile(0.9, MIN_HEDGE_SAMPLES);
+        return p90 < 0 ? properties.getInitialHedgeDelayMs() : Math.max(properties.getMinHedgeDelayMs(), p90);
+    }
+
+    boolean isHedgeEnabled() {
+        return properties.isHedgeEnabled();
+    }
+
+    /**
+     * 記錄請求結果，更新延遲樣本與斷路器狀態
+     *
+     * @param error 失敗原因，成功時為 null
+     */
+    void record(OverpassMirror mirror, long latencyMs, Throwable error) {
+        String outcome;
+        if (error == null) {
+            mirror.recordSuccess(latencyMs);
+            outcome = "success";
+        } else {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            boolean rateLimited = cause instanceof OverpassClient.OverpassException overpassError && overpassError.getStatus() == 429;
+            long now = System.currentTimeMillis();
+            boolean wasOpen = mirror.isOpen(now);
+            mirror.recordFailure(rateLimited, properties.getFailureThreshold(), properties.getOpenDurationMs(), now);
+            if (!wasOpen && mirror.isOpen(now)) {
+                logger.warn("Overpass mirror {} circuit opened for {}ms: {}", mirror.name(), properties.getOpenDurationMs(), cause.getMessage());
+            }
+            outcome = rateLimited ? "rate_limited" : "error";
+        }
+
+        Timer.builder("osm.overpass.requests")
+                .description("Overpass API requests per mirror")
+                .tag("mirror", mirror.name())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 記錄送往第二個鏡像站的請求
+     *
+     * @param reason hedge（主要請求過慢）或 failover（主要請求失敗）
+     */
+    void countSecondary(String reason) {
+        Counter.builder("osm.overpass.secondary")
+                .description("Overpass requests sent to a second mirror")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+}
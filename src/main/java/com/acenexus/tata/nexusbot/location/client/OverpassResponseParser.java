@@ -0,0 +1,176 @@
+package com.acenexus.tata.nexusbot.location.client;
+
+import com.acenexus.tata.nexusbot.location.OsmElement;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Overpass JSON 串流解析器
+ * 逐一讀取 elements 陣列中的元素，不建立完整文件樹：
+ * - way 的 geometry 節點即時累加為中心點後丟棄，不保留完整幾何資料
+ * - 支援 {@code out center} 輸出的 center 欄位
+ * - 未使用的欄位（meta、nodes、members 等）直接略過
+ */
+public final class OverpassResponseParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverpassResponseParser.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private OverpassResponseParser() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * 串流解析 Overpass JSON，只讀取 elements 陣列
+     *
+     * @param body        回應內容（由呼叫端負責關閉）
+     * @param maxElements 元素數上限，達到上限即停止讀取
+     * @return 有座標的 OSM 元素，達到上限時標記為 truncated
+     */
+    public static OverpassResult parse(InputStream body, int maxElements) throws IOException {
+        List<OsmElement> elements = new ArrayList<>();
+        boolean completed = stream(body, element -> {
+            elements.add(element);
+            return elements.size() < maxElements;
+        });
+        if (!completed) {
+            logger.warn("Overpass response truncated at {} elements", maxElements);
+        }
+        return new OverpassResult(elements, !completed);
+    }
+
+    /**
+     * 串流解析 Overpass JSON，每讀到一個有座標的元素即交給 consumer
+     *
+     * @param body     回應內容（由呼叫端負責關閉）
+     * @param consumer 回傳 false 表示停止讀取
+     * @return {@code true} 表示讀完整份文件，{@code false} 表示由 consumer 中止
+     */
+    public static boolean stream(InputStream body, Predicate<OsmElement> consumer) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected Overpass JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("elements".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        OsmElement element = readElement(parser);
+                        if (element.getEffectiveLat() != null && element.getEffectiveLon() != null
+                                && !consumer.test(element)) {
+                            // 關閉 parser 與串流即中止下載
+                            return false;
+                        }
+                    }
+                } else if ("remark".equals(field)) {
+                    // Overpass 執行逾時或超出記憶體時，以 remark 說明，結果可能不完整
+                    logger.warn("Overpass remark: {}", parser.getValueAsString());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 讀取單一元素；way 的 geometry 只累加平均值，center 直接作為座標
+     */
+    private static OsmElement readElement(JsonParser parser) throws IOException {
+        OsmElement element = new OsmElement();
+        double latSum = 0;
+        double lonSum = 0;
+        int nodes = 0;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "type" -> element.setType(parser.getValueAsString());
+                case "id" -> element.setId(parser.getLongValue());
+                case "lat" -> element.setLat(parser.getDoubleValue());
+                case "lon" -> element.setLon(parser.getDoubleValue());
+                case "tags" -> element.setTags(readTags(parser));
+                case "center" -> {
+                    double[] center = readPoint(parser);
+                    if (center != null) {
+                        element.setLat(center[0]);
+                        element.setLon(center[1]);
+                    }
+                }
+                case "geometry" -> {
+                    if (value == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            double[] point = readPoint(parser);
+                            if (point != null) {
+                                latSum += point[0];
+                                lonSum += point[1];
+                                nodes++;
+                            }
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (element.getLat() == null && nodes > 0) {
+            element.setLat(latSum / nodes);
+            element.setLon(lonSum / nodes);
+        }
+        return element;
+    }
+
+    private static Map<String, String> readTags(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        Map<String, String> tags = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.currentName();
+            parser.nextToken();
+            tags.put(key, parser.getValueAsString());
+        }
+        return tags;
+    }
+
+    /**
+     * 讀取 {"lat": ..., "lon": ...}，解析器需位於 START_OBJECT
+     */
+    private static double[] readPoint(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        Double lat = null;
+        Double lon = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("lat".equals(field)) {
+                lat = parser.getDoubleValue();
+            } else if ("lon".equals(field)) {
+                lon = parser.getDoubleValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return lat != null && lon != null ? new double[]{lat, lon} : null;
+    }
+
+}
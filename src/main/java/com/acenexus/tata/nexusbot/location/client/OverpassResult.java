@@ -0,0 +1,14 @@
+package com.acenexus.tata.nexusbot.location.client;
+
+import com.acenexus.tata.nexusbot.location.OsmElement;
+
+import java.util.List;
+
+/**
+ * Overpass 回應解析結果
+ *
+ * @param elements  有座標的 OSM 元素
+ * @param truncated 達到元素數上限而中斷讀取；此時結果不完整且順序任意，不可當作完整結果快取
+ */
+public record OverpassResult(List<OsmElement> elements, boolean truncated) {
+}
@@ -0,0 +1,51 @@
+package com.acenexus.tata.nexusbot.location.hours;
+
+import java.time.LocalDateTime;
+
+/**
+ * 編譯後的營業時間
+ * 解析時已將所有規則展開為「月份 × 星期」共 84 組營業區段（分鐘，結束時間可超過 24:00 表示跨日），
+ * 判斷是否營業只需查表與比對少量區段，不需重新套用規則。
+ * 物件不可變，可在多執行緒間共用。
+ */
+public final class OpeningHours {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * 索引為 month(0-11) * 7 + dayOfWeek(0=週一)，內容為 [start, end, start, end, ...]
+     */
+    private final int[][] spans;
+
+    OpeningHours(int[][] spans) {
+        this.spans = spans;
+    }
+
+    /**
+     * 判斷指定當地時間是否營業
+     *
+     * @param localTime 使用者時區的當地時間
+     * @return 是否營業
+     */
+    public boolean isOpenAt(LocalDateTime localTime) {
+        int minute = localTime.getHour() * 60 + localTime.getMinute();
+        if (contains(spansOf(localTime), minute)) {
+            return true;
+        }
+        // 前一天跨過午夜的區段（例如 Fr 22:00-02:00 涵蓋週六凌晨）
+        return contains(spansOf(localTime.minusDays(1)), minute + MINUTES_PER_DAY);
+    }
+
+    private int[] spansOf(LocalDateTime localTime) {
+        return spans[(localTime.getMonthValue() - 1) * 7 + localTime.getDayOfWeek().getValue() - 1];
+    }
+
+    private static boolean contains(int[] daySpans, int minute) {
+        for (int i = 0; i < daySpans.length; i += 2) {
+            if (minute >= daySpans[i] && minute < daySpans[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,488 @@
+package com.acenexus.tata.nexusbot.location.hours;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * OSM opening_hours 解析工具
+ * 支援的語法子集（https://wiki.openstreetmap.org/wiki/Key:opening_hours）：
+ * - 24/7
+ * - 月份：Jan、Nov-Feb、Jan,Mar-May
+ * - 星期：Mo、Mo-Fr、Sa,Su（PH、SH 無法判斷是否為假日，僅含假日的規則不套用）
+ * - 時段：08:00-12:00,13:00-17:30、22:00-02:00（跨日）、18:00+（營業至當日結束）
+ * - 狀態：open、off、closed、unknown（unknown 視為不營業）
+ * - 規則以 ; 分隔，後面的規則覆蓋同一天較前面的規則；以 , 接續的附加規則則與前面的規則合併
+ * - 以 || 接續的備援規則只套用在較前面的規則都沒有涵蓋的日期與時段（例如 Mo-Fr 09:00-17:00 || off）
+ * 例如：
+ * - Mo-Fr 08:00-20:00; Sa,Su 10:00-18:00
+ * - Mo-Su 06:00-22:00; Jan off
+ * - Mo-Fr 08:00-12:00, We 14:00-18:00
+ * 不支援的語法（日期、週次、日出日落、第 n 個星期幾等）視為無法解析，由呼叫端採用保守判斷。
+ * 編譯結果依原始字串快取（LRU，上限 4096 筆）：連鎖店大量共用相同字串，每種字串只需解析一次。
+ */
+public final class OpeningHoursParser {
+
+    private static final int MAX_CACHE_SIZE = 4096;
+    private static final int ALL_MONTHS = (1 << 12) - 1;
+    private static final int ALL_DAYS = (1 << 7) - 1;
+    private static final int[] WHOLE_DAY = {0, OpeningHours.MINUTES_PER_DAY};
+
+    private static final String[] MONTHS = {"jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"};
+    private static final String[] DAYS = {"mo", "tu", "we", "th", "fr", "sa", "su"};
+
+    private static final Pattern RULE_SEPARATOR = Pattern.compile(";|\\|\\|");
+
+    /**
+     * 無法解析的字串也會快取（Optional.empty），避免重複解析；超過上限時淘汰最久未使用的項目
+     */
+    private static final Map<String, Optional<OpeningHours>> CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Optional<OpeningHours>> eldest) {
+                    return size() > MAX_CACHE_SIZE;
+                }
+            });
+
+    private OpeningHoursParser() {
+    }
+
+    /**
+     * 取得編譯後的營業時間（快取）
+     *
+     * @param openingHours opening_hours 標籤值
+     * @return 編譯結果，空白或無法解析時為 empty
+     */
+    public static Optional<OpeningHours> compile(String openingHours) {
+        if (openingHours == null || openingHours.isBlank()) {
+            return Optional.empty();
+        }
+        Optional<OpeningHours> cached = CACHE.get(openingHours);
+        if (cached != null) {
+            return cached;
+        }
+
+        Optional<OpeningHours> compiled;
+        try {
+            compiled = Optional.of(parse(openingHours));
+        } catch (IllegalArgumentException e) {
+            compiled = Optional.empty();
+        }
+        CACHE.put(openingHours, compiled);
+        return compiled;
+    }
+
+    /**
+     * 解析營業時間（不使用快取）
+     *
+     * @param openingHours opening_hours 標籤值
+     * @return 編譯後的營業時間
+     * @throws IllegalArgumentException 格式無法辨識或使用不支援的語法時
+     */
+    public static OpeningHours parse(String openingHours) {
+        String normalized = stripComments(openingHours).replace('–', '-').replace('—', '-');
+        List<Rule> rules = new ArrayList<>();
+        Matcher separator = RULE_SEPARATOR.matcher(normalized);
+        int start = 0;
+        boolean fallback = false;
+        while (true) {
+            boolean found = separator.find();
+            String sequence = normalized.substring(start, found ? separator.start() : normalized.length());
+            if (!sequence.isBlank()) {
+                new RuleReader(sequence, fallback, rules).read();
+            }
+            if (!found) {
+                break;
+            }
+            fallback = "||".equals(separator.group());
+            start = separator.end();
+        }
+        if (rules.isEmpty()) {
+            throw new IllegalArgumentException("No applicable rules: " + openingHours);
+        }
+        return new OpeningHours(expand(rules));
+    }
+
+    /**
+     * 展開為「月份 × 星期」的營業區段表
+     */
+    private static int[][] expand(List<Rule> rules) {
+        int[][] table = new int[12 * 7][];
+        for (int month = 0; month < 12; month++) {
+            for (int day = 0; day < 7; day++) {
+                List<int[]> spans = new ArrayList<>();
+                // 較前面的規則涵蓋的時段，備援規則只套用在其餘時段
+                List<int[]> covered = new ArrayList<>();
+                for (Rule rule : rules) {
+                    if ((rule.monthMask() >> month & 1) == 0 || (rule.dayMask() >> day & 1) == 0) {
+                        continue;
+                    }
+                    if (!rule.additional() && !rule.fallback()) {
+                        // 一般規則覆蓋當天所有較前面的規則
+                        spans.clear();
+                    }
+                    int[] times = rule.times() != null ? rule.times() : WHOLE_DAY;
+                    List<int[]> applied = new ArrayList<>();
+                    for (int i = 0; i < times.length; i += 2) {
+                        if (rule.fallback()) {
+                            applied.addAll(uncovered(times[i], times[i + 1], covered));
+                        } else {
+                            applied.add(new int[]{times[i], times[i + 1]});
+                        }
+                    }
+                    for (int[] span : applied) {
+                        if (rule.open()) {
+                            spans.add(span);
+                        } else {
+                            subtract(spans, span[0], span[1]);
+                        }
+                    }
+                    covered.addAll(applied);
+                }
+                table[month * 7 + day] = flatten(spans);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * start 到 end 之間沒有被 covered 涵蓋的區段
+     */
+    private static List<int[]> uncovered(int start, int end, List<int[]> covered) {
+        List<int[]> remaining = new ArrayList<>();
+        remaining.add(new int[]{start, end});
+        for (int[] span : covered) {
+            subtract(remaining, span[0], span[1]);
+        }
+        return remaining;
+    }
+
+    private static void subtract(List<int[]> spans, int start, int end) {
+        List<int[]> remaining = new ArrayList<>();
+        for (int[] span : spans) {
+            if (span[1] <= start || span[0] >= end) {
+                remaining.add(span);
+                continue;
+            }
+            if (span[0] < start) {
+                remaining.add(new int[]{span[0], start});
+            }
+            if (span[1] > end) {
+                remaining.add(new int[]{end, span[1]});
+            }
+        }
+        spans.clear();
+        spans.addAll(remaining);
+    }
+
+    private static int[] flatten(List<int[]> spans) {
+        int[] flat = new int[spans.size() * 2];
+        for (int i = 0; i < spans.size(); i++) {
+            flat[2 * i] = spans.get(i)[0];
+            flat[2 * i + 1] = spans.get(i)[1];
+        }
+        return flat;
+    }
+
+    private static String stripComments(String text) {
+        return text.replaceAll("\"[^\"]*\"", " ");
+    }
+
+    /**
+     * 單一規則
+     *
+     * @param monthMask  適用月份（bit 0 = 一月）
+     * @param dayMask    適用星期（bit 0 = 週一）
+     * @param times      營業區段（分鐘），null 表示整天
+     * @param open       營業或休息
+     * @param additional 是否為以逗號接續的附加規則（不覆蓋前面的規則）
+     * @param fallback   是否為 || 之後的備援規則（只套用在前面規則沒有涵蓋的時段）
+     */
+    private record Rule(int monthMask, int dayMask, int[] times, boolean open, boolean additional, boolean fallback) {
+    }
+
+    /**
+     * 以游標逐字讀取一段規則（; 或 || 之間的內容，可能包含以逗號接續的附加規則）
+     */
+    private static final class RuleReader {
+        private final String text;
+        private final boolean fallback;
+        private final List<Rule> rules;
+        private int pos;
+
+        private RuleReader(String text, boolean fallback, List<Rule> rules) {
+            this.text = text;
+            this.fallback = fallback;
+            this.rules = rules;
+        }
+
+        private void read() {
+            readRule(false);
+            while (consume(',')) {
+                readRule(true);
+            }
+            skipSpaces();
+            if (pos < text.length()) {
+                throw unsupported();
+            }
+        }
+
+        private void readRule(boolean additional) {
+            skipSpaces();
+            int start = pos;
+            int monthMask = ALL_MONTHS;
+            int dayMask = ALL_DAYS;
+            boolean holidayOnly = false;
+            int[] times = null;
+
+            if (text.startsWith("24/7", pos)) {
+                pos += 4;
+                times = WHOLE_DAY;
+            } else {
+                int months = readMonths();
+                if (months != 0) {
+                    monthMask = months;
+                }
+                skipSpaces();
+                int beforeDays = pos;
+                int days = readDays();
+                if (pos != beforeDays) {
+                    dayMask = days;
+                    holidayOnly = days == 0;
+                    consume(':');
+                }
+                times = readTimes();
+            }
+
+            boolean open = true;
+            String word = peekWord();
+            switch (word) {
+                case "open" -> pos = wordEnd();
+                case "off", "closed", "unknown" -> {
+                    pos = wordEnd();
+                    open = false;
+                }
+                default -> {
+                    if (pos == start) {
+                        throw unsupported();
+                    }
+                }
+            }
+
+            if (!holidayOnly) {
+                rules.add(new Rule(monthMask, dayMask, times, open, additional, fallback));
+            }
+        }
+
+        /**
+         * @return 月份遮罩，沒有月份選擇器時為 0
+         */
+        private int readMonths() {
+            int mask = 0;
+            while (true) {
+                int from = indexOf(MONTHS, peekWord());
+                if (from < 0) {
+                    return mask;
+                }
+                pos = wordEnd();
+                skipSpaces();
+                if (Character.isDigit(peekChar())) {
+                    // 特定日期（Dec 25）不支援
+                    throw unsupported();
+                }
+                int to = from;
+                int mark = pos;
+                if (consume('-') && indexOf(MONTHS, peekWord()) >= 0) {
+                    to = indexOf(MONTHS, peekWord());
+                    pos = wordEnd();
+                } else {
+                    pos = mark;
+                }
+                mask |= rangeMask(from, to, 12);
+                if (!continueList(MONTHS)) {
+                    return mask;
+                }
+            }
+        }
+
+        /**
+         * @return 星期遮罩；只有假日選擇器（PH、SH）時為 0
+         */
+        private int readDays() {
+            int mask = 0;
+            while (true) {
+                String word = peekWord();
+                if ("ph".equals(word) || "sh".equals(word)) {
+                    pos = wordEnd();
+                } else {
+                    int from = indexOf(DAYS, word);
+                    if (from < 0) {
+                        return mask;
+                    }
+                    pos = wordEnd();
+                    if (peekChar() == '[') {
+                        // 第 n 個星期幾不支援
+                        throw unsupported();
+                    }
+                    int to = from;
+                    int mark = pos;
+                    if (consume('-') && indexOf(DAYS, peekWord()) >= 0) {
+                        to = indexOf(DAYS, peekWord());
+                        pos = wordEnd();
+                    } else {
+                        pos = mark;
+                    }
+                    mask |= rangeMask(from, to, 7);
+                }
+                if (!continueList(DAYS) && !continueList(new String[]{"ph", "sh"})) {
+                    return mask;
+                }
+            }
+        }
+
+        /**
+         * @return 營業區段，沒有時段選擇器時為 null
+         */
+        private int[] readTimes() {
+            List<Integer> times = new ArrayList<>();
+            while (true) {
+                skipSpaces();
+                if (!Character.isDigit(peekChar())) {
+                    if (!peekWord().isEmpty() && (peekWord().startsWith("sun") || peekWord().startsWith("dawn") || peekWord().startsWith("dusk"))) {
+                        throw unsupported();
+                    }
+                    break;
+                }
+                int start = readTime();
+                int end;
+                if (consume('+')) {
+                    end = OpeningHours.MINUTES_PER_DAY;
+                } else {
+                    if (!consume('-')) {
+                        throw unsupported();
+                    }
+                    skipSpaces();
+                    if (!Character.isDigit(peekChar())) {
+                        throw unsupported();
+                    }
+                    end = readTime();
+                    consume('+');
+                }
+                if (end <= start) {
+                    end += OpeningHours.MINUTES_PER_DAY;
+                }
+                if (start >= OpeningHours.MINUTES_PER_DAY || end > 2 * OpeningHours.MINUTES_PER_DAY) {
+                    throw unsupported();
+                }
+                times.add(start);
+                times.add(end);
+
+                int mark = pos;
+                if (!consume(',')) {
+                    break;
+                }
+                skipSpaces();
+                if (!Character.isDigit(peekChar())) {
+                    // 逗號後不是時間，屬於附加規則分隔
+                    pos = mark;
+                    break;
+                }
+            }
+            return times.isEmpty() ? null : times.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        private int readTime() {
+            int colon = text.indexOf(':', pos);
+            if (colon < 0 || colon - pos < 1 || colon - pos > 2 || colon + 3 > text.length()) {
+                throw unsupported();
+            }
+            try {
+                int hour = Integer.parseInt(text.substring(pos, colon));
+                int minute = Integer.parseInt(text.substring(colon + 1, colon + 3));
+                if (hour > 48 || minute > 59) {
+                    throw unsupported();
+                }
+                pos = colon + 3;
+                return hour * 60 + minute;
+            } catch (NumberFormatException e) {
+                throw unsupported();
+            }
+        }
+
+        /**
+         * 逗號後接同類型選擇器時繼續清單，否則回到逗號之前
+         */
+        private boolean continueList(String[] names) {
+            int mark = pos;
+            if (consume(',') && indexOf(names, peekWord()) >= 0) {
+                return true;
+            }
+            pos = mark;
+            return false;
+        }
+
+        private boolean consume(char expected) {
+            skipSpaces();
+            if (pos < text.length() && text.charAt(pos) == expected) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private char peekChar() {
+            return pos < text.length() ? text.charAt(pos) : '\0';
+        }
+
+        private String peekWord() {
+            skipSpaces();
+            return text.substring(pos, wordEnd()).toLowerCase(Locale.ROOT);
+        }
+
+        private int wordEnd() {
+            int end = pos;
+            while (end < text.length() && Character.isLetter(text.charAt(end))) {
+                end++;
+            }
+            return end;
+        }
+
+        private void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException unsupported() {
+            return new IllegalArgumentException("Unsupported opening_hours syntax at " + pos + ": " + text.trim());
+        }
+    }
+
+    private static int indexOf(String[] names, String word) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(word)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 產生 from 到 to 的位元遮罩，to 小於 from 時跨越結尾（例如 Nov-Feb、Fr-Mo）
+     */
+    private static int rangeMask(int from, int to, int size) {
+        int mask = 0;
+        for (int i = from; ; i = (i + 1) % size) {
+            mask |= 1 << i;
+            if (i == to) {
+                return mask;
+            }
+        }
+    }
+}
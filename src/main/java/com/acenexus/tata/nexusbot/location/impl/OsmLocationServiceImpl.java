@@ -2,30 +2,24 @@ package com.acenexus.tata.nexusbot.location.impl;
 
 import com.acenexus.tata.nexusbot.config.properties.OsmProperties;
 import com.acenexus.tata.nexusbot.location.LocationService;
-import com.acenexus.tata.nexusbot.location.OverpassResponse;
+import com.acenexus.tata.nexusbot.location.OsmElement;
 import com.acenexus.tata.nexusbot.location.ToiletLocation;
+import com.acenexus.tata.nexusbot.location.cache.OverpassCellCache;
+import com.acenexus.tata.nexusbot.location.client.OverpassClient;
+import com.acenexus.tata.nexusbot.location.client.OverpassResult;
+import com.acenexus.tata.nexusbot.location.index.OfflineToiletIndexService;
 import com.acenexus.tata.nexusbot.location.mapper.ToiletLocationMapper;
 import com.acenexus.tata.nexusbot.location.query.OverpassQueryBuilder;
 import com.acenexus.tata.nexusbot.util.MdcTaskDecorator;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
+import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 @Service
@@ -33,50 +27,24 @@ import java.util.concurrent.CompletableFuture;
 public class OsmLocationServiceImpl implements LocationService {
 
     private final OsmProperties osmProperties;
-    private final RestTemplateBuilder restTemplateBuilder;
     private final OverpassQueryBuilder queryBuilder;
     private final ToiletLocationMapper locationMapper;
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
-    private RestTemplate overpassRestTemplate;
-
-    @PostConstruct
-    public void init() {
-        SimpleClientHttpRequestFactory overpassFactory = new SimpleClientHttpRequestFactory();
-        overpassFactory.setConnectTimeout(osmProperties.getTimeoutMs());
-        overpassFactory.setReadTimeout(osmProperties.getTimeoutMs());
-
-        this.overpassRestTemplate = restTemplateBuilder
-                .requestFactory(() -> overpassFactory)
-                .defaultHeader("User-Agent", osmProperties.getUserAgent())
-                .build();
-    }
+    private final OfflineToiletIndexService offlineIndex;
+    private final OverpassCellCache cellCache;
+    private final OverpassClient overpassClient;
 
     @Override
-    public CompletableFuture<List<ToiletLocation>> findNearbyToilets(double latitude, double longitude, int radius) {
+    public CompletableFuture<List<ToiletLocation>> findNearbyToilets(double latitude, double longitude, int radius, ZoneId zone) {
         // 使用 MdcTaskDecorator 自動傳遞 traceId 到非同步執行緒
         return CompletableFuture.supplyAsync(MdcTaskDecorator.wrapSupplier(() -> {
             try {
                 log.info("Searching for toilets near ({}, {}) within {}m using OSM", latitude, longitude, radius);
-
-                String overpassQuery = queryBuilder.buildQuery(latitude, longitude, radius);
-                log.debug("Overpass query: {}", overpassQuery);
-
-                OverpassResponse response = executeOverpassQuery(overpassQuery);
-
-                if (response == null || !response.isValid()) {
+                List<ToiletLocation> result = searchWithin(latitude, longitude, radius, zone);
+                if (result == null || result.isEmpty()) {
                     log.warn("No toilets found or invalid response from Overpass API");
                     return new ArrayList<>();
                 }
-
-                List<ToiletLocation> toilets = locationMapper.mapToToiletLocations(response.getElements(), latitude, longitude);
-
-                toilets.sort(Comparator.comparingDouble(ToiletLocation::getDistance));
-                int maxResults = Math.min(toilets.size(), osmProperties.getCarouselMaxItems());
-
-                List<ToiletLocation> result = toilets.subList(0, maxResults);
                 log.info("Found {} toilets within {}m", result.size(), radius);
-
                 return result;
 
             } catch (Exception e) {
@@ -86,31 +54,60 @@ public class OsmLocationServiceImpl implements LocationService {
         }));
     }
 
-    /**
-     * 執行 Overpass 查詢
-     */
-    private OverpassResponse executeOverpassQuery(String query) {
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.TEXT_PLAIN);
+    @Override
+    public CompletableFuture<List<ToiletLocation>> findNearestToilets(double latitude, double longitude, ZoneId zone) {
+        return CompletableFuture.supplyAsync(MdcTaskDecorator.wrapSupplier(() -> {
+            try {
+                // 每個網格只以最大半徑查詢一次 Overpass（經網格快取），再依使用者座標取最近的 carousel-max-items 筆；
+                // 結果與由小半徑逐步擴大相同，不必為較小半徑另外查詢
+                int radius = osmProperties.getNearestSearchRadius();
+                List<ToiletLocation> result = searchWithin(latitude, longitude, radius, zone);
+                if (result == null) {
+                    log.warn("Nearest toilet search failed: Overpass query failed");
+                    return new ArrayList<>();
+                }
+                log.info("Found {} toilets within {}m near ({}, {})", result.size(), radius, latitude, longitude);
+                return result;
 
-            HttpEntity<String> request = new HttpEntity<>(query, headers);
+            } catch (Exception e) {
+                log.error("Error searching nearest toilets using OSM: {}", e.getMessage(), e);
+                return new ArrayList<>();
+            }
+        }));
+    }
 
-            ResponseEntity<String> response = overpassRestTemplate.postForEntity(osmProperties.getOverpassBaseUrl(), request, String.class);
+    /**
+     * 搜尋單一半徑內的廁所
+     * 離線索引涵蓋此範圍時直接查詢，否則查詢 Overpass API（經網格快取）
+     *
+     * @return 依距離排序的廁所，Overpass 查詢失敗時為 null
+     */
+    private List<ToiletLocation> searchWithin(double latitude, double longitude, int radius, ZoneId zone) {
+        List<OsmElement> elements = offlineIndex.findWithin(latitude, longitude, radius)
+                .orElseGet(() -> cellCache.get(latitude, longitude, radius, this::queryOverpass));
+        if (elements == null) {
+            return null;
+        }
 
-            if (response.getStatusCode() != HttpStatus.OK) {
-                log.warn("Overpass API returned status: {}", response.getStatusCode());
-                return null;
-            }
+        // 快取結果以網格中心查詢，依使用者實際座標過濾與排序
+        return locationMapper.rankNearest(elements, latitude, longitude, radius, osmProperties.getCarouselMaxItems(), zone);
+    }
 
-            return objectMapper.readValue(response.getBody(), OverpassResponse.class);
+    /**
+     * 查詢 Overpass API 取得範圍內的 OSM 元素
+     *
+     * @return OSM 元素與是否被截斷，查詢失敗時為 null
+     */
+    private OverpassResult queryOverpass(double latitude, double longitude, int radius) {
+        String overpassQuery = queryBuilder.buildQuery(latitude, longitude, radius);
+        log.debug("Overpass query: {}", overpassQuery);
 
-        } catch (RestClientException e) {
-            log.error("HTTP error calling Overpass API: {}", e.getMessage());
-            return null;
-        } catch (Exception e) {
-            log.error("Error parsing Overpass response: {}", e.getMessage());
+        try {
+            return overpassClient.query(overpassQuery).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.error("Error calling Overpass API: {}", cause.getMessage());
             return null;
         }
     }
-}
\ No newline at end of file
+}
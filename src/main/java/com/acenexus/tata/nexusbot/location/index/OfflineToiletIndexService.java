@@ -0,0 +1,137 @@
+package com.acenexus.tata.nexusbot.location.index;
+
+import com.acenexus.tata.nexusbot.config.properties.OsmIndexProperties;
+import com.acenexus.tata.nexusbot.location.OsmElement;
+import com.acenexus.tata.nexusbot.location.client.OverpassResponseParser;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 離線廁所索引服務
+ * - 從 OSM 資料檔（Overpass JSON）以 {@link OverpassResponseParser} 串流讀取元素，依設定標籤過濾後建立 {@link ToiletSpatialIndex}
+ * - 索引以 volatile 參考整份替換，重建期間查詢繼續使用舊索引，不會被阻塞
+ * - 定期檢查資料檔修改時間，有變動時在專用背景執行緒重建（不佔用共用排程執行緒）
+ * - 搜尋範圍超出索引涵蓋範圍時回傳 empty，由呼叫端改用 Overpass API
+ */
+@Service
+@RequiredArgsConstructor
+public class OfflineToiletIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OfflineToiletIndexService.class);
+
+    private final OsmIndexProperties properties;
+    private final ToiletTagFilter tagFilter;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile ToiletSpatialIndex index;
+    private volatile long loadedModifiedTime = -1;
+    private ExecutorService builder;
+
+    @PostConstruct
+    public void init() {
+        builder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "osm-index-builder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    /**
+     * 以離線索引查詢半徑內的廁所
+     *
+     * @return 半徑內的元素；索引未啟用、尚未載入或搜尋範圍超出涵蓋範圍時為 empty
+     */
+    public Optional<List<OsmElement>> findWithin(double latitude, double longitude, int radius) {
+        ToiletSpatialIndex current = index;
+        if (current == null || !current.covers(latitude, longitude, radius)) {
+            return Optional.empty();
+        }
+        return Optional.of(current.query(latitude, longitude, radius));
+    }
+
+    /**
+     * 檢查資料檔是否有更新，有則交由背景執行緒重建索引
+     */
+    @Scheduled(fixedDelayString = "${osm.offline-index.refresh-check-interval-ms:300000}")
+    public void refreshIfChanged() {
+        if (!properties.isEnabled() || !StringUtils.hasText(properties.getFile())) {
+            return;
+        }
+        Path file = Path.of(properties.getFile());
+        long modifiedTime;
+        try {
+            modifiedTime = Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            logger.warn("OSM index file not readable: {} ({})", file, e.getMessage());
+            return;
+        }
+        if (modifiedTime == loadedModifiedTime || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        builder.execute(() -> {
+            try {
+                long start = System.currentTimeMillis();
+                ToiletSpatialIndex rebuilt = load(file);
+                index = rebuilt;
+                loadedModifiedTime = modifiedTime;
+                logger.info("OSM offline index loaded from {}: {} toilets in {}ms", file, rebuilt.size(), System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                logger.error("Failed to build OSM offline index from {}: {}", file, e.getMessage(), e);
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+    }
+
+    /**
+     * 串流解析資料檔，逐一過濾元素，不會把整份文件讀進記憶體
+     */
+    private ToiletSpatialIndex load(Path file) throws IOException {
+        ToiletSpatialIndex.Builder indexBuilder = ToiletSpatialIndex.builder(properties.getCellSizeDegrees());
+        applyBounds(indexBuilder);
+
+        try (InputStream input = Files.newInputStream(file)) {
+            OverpassResponseParser.stream(input, element -> {
+                if (tagFilter.matches(element)) {
+                    indexBuilder.add(element);
+                }
+                return true;
+            });
+        }
+        return indexBuilder.build();
+    }
+
+    private void applyBounds(ToiletSpatialIndex.Builder indexBuilder) {
+        if (!StringUtils.hasText(properties.getBounds())) {
+            return;
+        }
+        String[] parts = properties.getBounds().split(",");
+        if (parts.length != 4) {
+            logger.warn("Ignoring invalid osm.offline-index.bounds: {}", properties.getBounds());
+            return;
+        }
+        indexBuilder.bounds(Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim()),
+                Double.parseDouble(parts[2].trim()), Double.parseDouble(parts[3].trim()));
+    }
+}
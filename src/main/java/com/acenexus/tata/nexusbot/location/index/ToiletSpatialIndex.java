@@ -0,0 +1,225 @@
+package com.acenexus.tata.nexusbot.location.index;
+
+import com.acenexus.tata.nexusbot.location.OsmElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.acenexus.tata.nexusbot.location.LocationConstants.Geography;
+
+/**
+ * 不可變的廁所空間索引（經緯度網格）
+ * 所有點依網格排序後存放在基本型別陣列中，每個網格對應一段連續區間；
+ * 半徑查詢只需列舉覆蓋範圍內的網格並以二分搜尋定位，查詢成本與資料總量無關。
+ */
+public final class ToiletSpatialIndex {
+
+    private final double cellSize;
+    private final long columns;
+
+    /**
+     * 排序後的網格鍵值，cellOffsets[i] ~ cellOffsets[i + 1] 為該網格的點
+     */
+    private final long[] cellKeys;
+    private final int[] cellOffsets;
+
+    private final double[] lats;
+    private final double[] lons;
+    private final OsmElement[] elements;
+
+    private final double minLat;
+    private final double minLon;
+    private final double maxLat;
+    private final double maxLon;
+
+    private ToiletSpatialIndex(double cellSize, long[] cellKeys, int[] cellOffsets, double[] lats, double[] lons,
+                               OsmElement[] elements, double[] bounds) {
+        this.cellSize = cellSize;
+        this.columns = (long) Math.ceil(360 / cellSize) + 1;
+        this.cellKeys = cellKeys;
+        this.cellOffsets = cellOffsets;
+        this.lats = lats;
+        this.lons = lons;
+        this.elements = elements;
+        this.minLat = bounds[0];
+        this.minLon = bounds[1];
+        this.maxLat = bounds[2];
+        this.maxLon = bounds[3];
+    }
+
+    /**
+     * 索引中的點數
+     */
+    public int size() {
+        return elements.length;
+    }
+
+    /**
+     * 搜尋圓是否完全落在索引涵蓋範圍內
+     */
+    public boolean covers(double latitude, double longitude, int radius) {
+        double latDelta = latitudeDelta(radius);
+        double lonDelta = longitudeDelta(latitude, radius);
+        return latitude - latDelta >= minLat && latitude + latDelta <= maxLat
+                && longitude - lonDelta >= minLon && longitude + lonDelta <= maxLon;
+    }
+
+    /**
+     * 查詢半徑內的所有元素（未排序）
+     *
+     * @param latitude  中心緯度
+     * @param longitude 中心經度
+     * @param radius    搜尋半徑（公尺）
+     * @return 半徑內的 OSM 元素
+     */
+    public List<OsmElement> query(double latitude, double longitude, int radius) {
+        double latDelta = latitudeDelta(radius);
+        double lonDelta = longitudeDelta(latitude, radius);
+        long minRow = row(latitude - latDelta);
+        long maxRow = row(latitude + latDelta);
+        long minCol = column(longitude - lonDelta);
+        long maxCol = column(longitude + lonDelta);
+
+        List<OsmElement> result = new ArrayList<>();
+        for (long row = minRow; row <= maxRow; row++) {
+            for (long col = minCol; col <= maxCol; col++) {
+                int cell = Arrays.binarySearch(cellKeys, row * columns + col);
+                if (cell < 0) {
+                    continue;
+                }
+                for (int i = cellOffsets[cell]; i < cellOffsets[cell + 1]; i++) {
+                    if (distance(latitude, longitude, lats[i], lons[i]) <= radius) {
+                        result.add(elements[i]);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private long row(double latitude) {
+        return (long) Math.floor((latitude + 90) / cellSize);
+    }
+
+    private long column(double longitude) {
+        return (long) Math.floor((longitude + 180) / cellSize);
+    }
+
+    private static double latitudeDelta(int radius) {
+        return radius / Geography.METERS_PER_DEGREE_LATITUDE;
+    }
+
+    private static double longitudeDelta(double latitude, int radius) {
+        return radius / (Geography.METERS_PER_DEGREE_LATITUDE * Math.cos(Math.toRadians(latitude)));
+    }
+
+    /**
+     * Haversine 距離（公尺），與 ToiletLocationMapper 的計算一致
+     */
+    private static double distance(double lat1, double lon1, double lat2, double lon2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        return Geography.EARTH_RADIUS_METERS * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    public static Builder builder(double cellSize) {
+        return new Builder(cellSize);
+    }
+
+    /**
+     * 索引建構器（非執行緒安全，建構完成後的索引可多執行緒共用）
+     */
+    public static final class Builder {
+
+        private final double cellSize;
+        private final List<OsmElement> elements = new ArrayList<>();
+        private final List<double[]> coordinates = new ArrayList<>();
+        private double[] bounds;
+
+        private Builder(double cellSize) {
+            if (cellSize <= 0 || cellSize > 1) {
+                throw new IllegalArgumentException("cellSize must be in (0, 1]: " + cellSize);
+            }
+            this.cellSize = cellSize;
+        }
+
+        /**
+         * 加入一個元素，缺少座標時忽略
+         */
+        public Builder add(OsmElement element) {
+            Double lat = element.getEffectiveLat();
+            Double lon = element.getEffectiveLon();
+            if (lat != null && lon != null) {
+                elements.add(element);
+                coordinates.add(new double[]{lat, lon});
+            }
+            return this;
+        }
+
+        /**
+         * 明確指定涵蓋範圍，未指定時以所有點的外框為準
+         */
+        public Builder bounds(double minLat, double minLon, double maxLat, double maxLon) {
+            this.bounds = new double[]{minLat, minLon, maxLat, maxLon};
+            return this;
+        }
+
+        public ToiletSpatialIndex build() {
+            int size = elements.size();
+            long columns = (long) Math.ceil(360 / cellSize) + 1;
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                double[] point = coordinates.get(i);
+                long row = (long) Math.floor((point[0] + 90) / cellSize);
+                long col = (long) Math.floor((point[1] + 180) / cellSize);
+                keys[i] = row * columns + col;
+            }
+
+            int[] order = IntStream.range(0, size).boxed()
+                    .sorted(Comparator.comparingLong(i -> keys[i]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+
+            double[] lats = new double[size];
+            double[] lons = new double[size];
+            OsmElement[] sorted = new OsmElement[size];
+            long[] cellKeys = new long[size];
+            int[] cellOffsets = new int[size + 1];
+            int cells = 0;
+            for (int i = 0; i < size; i++) {
+                int source = order[i];
+                lats[i] = coordinates.get(source)[0];
+                lons[i] = coordinates.get(source)[1];
+                sorted[i] = elements.get(source);
+                if (cells == 0 || cellKeys[cells - 1] != keys[source]) {
+                    cellKeys[cells] = keys[source];
+                    cellOffsets[cells] = i;
+                    cells++;
+                }
+            }
+            cellOffsets[cells] = size;
+
+            return new ToiletSpatialIndex(cellSize, Arrays.copyOf(cellKeys, cells), Arrays.copyOf(cellOffsets, cells + 1),
+                    lats, lons, sorted, bounds != null ? bounds : dataBounds(lats, lons));
+        }
+
+        private static double[] dataBounds(double[] lats, double[] lons) {
+            if (lats.length == 0) {
+                // 空索引不涵蓋任何範圍
+                return new double[]{Double.NaN, Double.NaN, Double.NaN, Double.NaN};
+            }
+            return new double[]{
+                    Arrays.stream(lats).min().getAsDouble(),
+                    Arrays.stream(lons).min().getAsDouble(),
+                    Arrays.stream(lats).max().getAsDouble(),
+                    Arrays.stream(lons).max().getAsDouble()
+            };
+        }
+    }
+}
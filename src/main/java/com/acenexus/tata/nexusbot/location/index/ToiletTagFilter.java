@@ -0,0 +1,52 @@
+package com.acenexus.tata.nexusbot.location.index;
+
+import com.acenexus.tata.nexusbot.config.properties.OsmProperties;
+import com.acenexus.tata.nexusbot.location.OsmElement;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 依設定的 toiletTags / facilityTags 過濾 OSM 元素
+ * 規則與 {@link com.acenexus.tata.nexusbot.location.query.OverpassQueryBuilder} 產生的查詢一致：
+ * 符合任一廁所標籤，或符合任一設施標籤且 toilets=yes
+ */
+@Component
+public class ToiletTagFilter {
+
+    private final List<String[]> toiletTags;
+    private final List<String[]> facilityTags;
+
+    public ToiletTagFilter(OsmProperties osmProperties) {
+        this.toiletTags = parse(osmProperties.getToiletTags());
+        this.facilityTags = parse(osmProperties.getFacilityTags());
+    }
+
+    public boolean matches(OsmElement element) {
+        if (element.getTags() == null) {
+            return false;
+        }
+        if (matchesAny(element, toiletTags)) {
+            return true;
+        }
+        return "yes".equals(element.getTag("toilets")) && matchesAny(element, facilityTags);
+    }
+
+    private static boolean matchesAny(OsmElement element, List<String[]> tags) {
+        for (String[] tag : tags) {
+            if (element.hasTagValue(tag[0], tag[1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String[]> parse(String[] tags) {
+        return Arrays.stream(tags)
+                .map(tag -> tag.split("=", 2))
+                .filter(pair -> pair.length == 2)
+                .map(pair -> new String[]{pair[0].trim(), pair[1].trim()})
+                .toList();
+    }
+}
@@ -0,0 +1,112 @@
+package com.acenexus.tata.nexusbot.location.mapper;
+
+import static com.acenexus.tata.nexusbot.location.LocationConstants.Geography;
+
+/**
+ * 最近 K 筆選取
+ * - 以等距圓柱投影（equirectangular）近似距離平方做篩選，迴圈內只有乘加運算，不呼叫三角函數
+ * - 以大小為 K 的最大堆保留目前最近的 K 筆，時間 O(n log K)、額外空間 O(K)
+ * - 數公里內近似距離與 Haversine 的相對誤差低於 0.1%，半徑判斷保留些許餘量，由呼叫端以精確距離複核
+ */
+final class NearestSelector {
+
+    /**
+     * 緯度 1 度對應的距離（公尺），與 Haversine 使用相同的地球半徑
+     */
+    private static final double METERS_PER_DEGREE = Math.toRadians(Geography.EARTH_RADIUS_METERS);
+
+    /**
+     * 半徑篩選的相對餘量，避免近似誤差排除恰好落在半徑內的元素
+     */
+    private static final double RADIUS_SLACK = 1.01;
+
+    private NearestSelector() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * 選出半徑內最近的 K 個點
+     *
+     * @param lats    緯度陣列
+     * @param lons    經度陣列
+     * @param count   有效點數（陣列前 count 筆）
+     * @param userLat 使用者緯度
+     * @param userLon 使用者經度
+     * @param radius  搜尋半徑（公尺）
+     * @param k       最多選取筆數
+     * @return 被選取的索引，依近似距離由近到遠排序
+     */
+    static int[] select(double[] lats, double[] lons, int count, double userLat, double userLon, double radius, int k) {
+        if (k <= 0 || count == 0) {
+            return new int[0];
+        }
+        double lonScale = Math.cos(Math.toRadians(userLat));
+        double maxDistanceSquared = Math.pow(radius * RADIUS_SLACK / METERS_PER_DEGREE, 2);
+
+        // 最大堆：根節點為目前 K 筆中最遠者
+        int[] heapIndex = new int[Math.min(k, count)];
+        double[] heapKey = new double[heapIndex.length];
+        int size = 0;
+
+        for (int i = 0; i < count; i++) {
+            double dy = lats[i] - userLat;
+            double dx = (lons[i] - userLon) * lonScale;
+            double distanceSquared = dx * dx + dy * dy;
+            if (distanceSquared > maxDistanceSquared) {
+                continue;
+            }
+            if (size < heapIndex.length) {
+                siftUp(heapIndex, heapKey, size++, i, distanceSquared);
+            } else if (distanceSquared < heapKey[0]) {
+                siftDown(heapIndex, heapKey, size, i, distanceSquared);
+            }
+        }
+
+        // 依序取出根節點（最遠者）由後往前填入，得到由近到遠的順序
+        int[] result = new int[size];
+        for (int last = size - 1; last >= 0; last--) {
+            result[last] = heapIndex[0];
+            if (last > 0) {
+                siftDown(heapIndex, heapKey, last, heapIndex[last], heapKey[last]);
+            }
+        }
+        return result;
+    }
+
+    private static void siftUp(int[] heapIndex, double[] heapKey, int position, int index, double key) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (heapKey[parent] >= key) {
+                break;
+            }
+            heapIndex[position] = heapIndex[parent];
+            heapKey[position] = heapKey[parent];
+            position = parent;
+        }
+        heapIndex[position] = index;
+        heapKey[position] = key;
+    }
+
+    /**
+     * 以新元素取代根節點後往下調整
+     */
+    private static void siftDown(int[] heapIndex, double[] heapKey, int size, int index, double key) {
+        int position = 0;
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && heapKey[right] > heapKey[child]) {
+                child = right;
+            }
+            if (key >= heapKey[child]) {
+                break;
+            }
+            heapIndex[position] = heapIndex[child];
+            heapKey[position] = heapKey[child];
+            position = child;
+        }
+        heapIndex[position] = index;
+        heapKey[position] = key;
+    }
+}
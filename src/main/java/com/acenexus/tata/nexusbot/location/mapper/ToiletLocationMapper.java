@@ -2,13 +2,17 @@ package com.acenexus.tata.nexusbot.location.mapper;
 
 import com.acenexus.tata.nexusbot.location.OsmElement;
 import com.acenexus.tata.nexusbot.location.ToiletLocation;
+import com.acenexus.tata.nexusbot.location.hours.OpeningHoursParser;
 import com.acenexus.tata.nexusbot.location.strategy.ToiletNamingStrategy;
 import com.acenexus.tata.nexusbot.location.strategy.ToiletRatingCalculator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 import static com.acenexus.tata.nexusbot.location.LocationConstants.AddressTags;
@@ -33,13 +37,15 @@ public class ToiletLocationMapper {
      * @param elements OSM 元素列表
      * @param userLat  使用者緯度
      * @param userLon  使用者經度
+     * @param zone     使用者時區（判斷營業狀態）
      * @return ToiletLocation 列表
      */
-    public List<ToiletLocation> mapToToiletLocations(List<OsmElement> elements, double userLat, double userLon) {
+    public List<ToiletLocation> mapToToiletLocations(List<OsmElement> elements, double userLat, double userLon, ZoneId zone) {
         List<ToiletLocation> toilets = new ArrayList<>();
+        LocalDateTime localNow = LocalDateTime.now(zone);
 
         for (OsmElement element : elements) {
-            ToiletLocation toilet = mapElementToLocation(element, userLat, userLon);
+            ToiletLocation toilet = mapElementToLocation(element, userLat, userLon, localNow);
             if (toilet != null) {
                 toilets.add(toilet);
             }
@@ -48,15 +54,67 @@ public class ToiletLocationMapper {
         return toilets;
     }
 
+    /**
+     * 依使用者實際座標選出最近的廁所
+     * 元素可能來自以網格中心查詢的快取結果，範圍比使用者的搜尋圓大：
+     * 先以近似距離在原始座標陣列上選出最近的 limit 筆（見 {@link NearestSelector}），
+     * 只對這些元素計算 Haversine 距離並做完整轉換（名稱、地址、評分）
+     *
+     * @param elements OSM 元素列表
+     * @param userLat  使用者緯度
+     * @param userLon  使用者經度
+     * @param radius   搜尋半徑（公尺）
+     * @param limit    最多回傳筆數
+     * @param zone     使用者時區（判斷營業狀態）
+     * @return 依距離由近到遠排序的 ToiletLocation 列表
+     */
+    public List<ToiletLocation> rankNearest(List<OsmElement> elements, double userLat, double userLon, int radius, int limit, ZoneId zone) {
+        int size = elements.size();
+        double[] lats = new double[size];
+        double[] lons = new double[size];
+        OsmElement[] candidates = new OsmElement[size];
+        int count = 0;
+
+        for (OsmElement element : elements) {
+            Double elementLat = element.getEffectiveLat();
+            Double elementLon = element.getEffectiveLon();
+            if (elementLat == null || elementLon == null) {
+                continue;
+            }
+            lats[count] = elementLat;
+            lons[count] = elementLon;
+            candidates[count] = element;
+            count++;
+        }
+
+        int[] nearest = NearestSelector.select(lats, lons, count, userLat, userLon, radius, limit);
+        List<ToiletLocation> toilets = new ArrayList<>(nearest.length);
+        LocalDateTime localNow = LocalDateTime.now(zone);
+        for (int index : nearest) {
+            if (calculateDistance(userLat, userLon, lats[index], lons[index]) > radius) {
+                continue;
+            }
+            ToiletLocation toilet = mapElementToLocation(candidates[index], userLat, userLon, localNow);
+            if (toilet != null) {
+                toilets.add(toilet);
+            }
+        }
+
+        // 近似距離與精確距離的先後可能有極小差異，以精確距離重新排序
+        toilets.sort(Comparator.comparingDouble(ToiletLocation::getDistance));
+        return toilets;
+    }
+
     /**
      * 將單個 OSM 元素轉換為 ToiletLocation
      *
      * @param element OSM 元素
      * @param userLat 使用者緯度
-     * @param userLon 使用者經度
+     * @param userLon  使用者經度
+     * @param localNow 使用者時區的當地時間
      * @return ToiletLocation 或 null（如果元素無效）
      */
-    private ToiletLocation mapElementToLocation(OsmElement element, double userLat, double userLon) {
+    private ToiletLocation mapElementToLocation(OsmElement element, double userLat, double userLon, LocalDateTime localNow) {
         Double elementLat = element.getEffectiveLat();
         Double elementLon = element.getEffectiveLon();
 
@@ -80,7 +138,7 @@ public class ToiletLocationMapper {
         toilet.setRating(ratingCalculator.calculateRating(element));
 
         // 營業狀態
-        toilet.setOpen(evaluateOpenStatus(element));
+        toilet.setOpen(evaluateOpenStatus(element, localNow));
 
         // 無障礙設施
         toilet.setHasWheelchairAccess(checkWheelchairAccessibility(element));
@@ -130,14 +188,15 @@ public class ToiletLocationMapper {
     }
 
     /**
-     * 評估廁所開放狀態（採保守策略）
+     * 評估廁所開放狀態
      * <p>
      * 邏輯：
      * 1. 無營業時間資訊 -> 公共廁所假設開放，其他假設關閉
      * 2. 明確標示 24/7 -> 開放
-     * 3. 有營業時間但無法解析 -> 保守假設關閉（避免誤導使用者）
+     * 3. 可解析的營業時間 -> 依使用者時區的當地時間判斷
+     * 4. 有營業時間但無法解析 -> 保守假設關閉（避免誤導使用者）
      */
-    private boolean evaluateOpenStatus(OsmElement element) {
+    private boolean evaluateOpenStatus(OsmElement element, LocalDateTime localNow) {
         String openingHours = element.getOpeningHours();
 
         // 1. 沒有營業時間資訊
@@ -155,8 +214,11 @@ public class ToiletLocationMapper {
             return true;
         }
 
-        // 3. 有營業時間但無法準確判斷當前是否營業，保守策略：顯示為關閉
-        return false;
+        // 3. 編譯後的營業時間依原始字串快取，同一連鎖店的營業時間只解析一次
+        // 4. 無法解析時保守策略：顯示為關閉
+        return OpeningHoursParser.compile(openingHours)
+                .map(hours -> hours.isOpenAt(localNow))
+                .orElse(false);
     }
 
     /**
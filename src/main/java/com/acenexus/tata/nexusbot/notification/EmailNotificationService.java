@@ -3,15 +3,19 @@ package com.acenexus.tata.nexusbot.notification;
 import com.acenexus.tata.nexusbot.config.properties.EmailProperties;
 import com.acenexus.tata.nexusbot.entity.Reminder;
 import com.acenexus.tata.nexusbot.entity.ReminderLog;
+import com.acenexus.tata.nexusbot.reminder.ConfirmationTokenService;
+import com.acenexus.tata.nexusbot.reminder.recurrence.RecurrenceRules;
 import com.acenexus.tata.nexusbot.repository.ReminderLogRepository;
 import com.acenexus.tata.nexusbot.util.TimezoneValidator;
 import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
@@ -19,11 +23,12 @@ import org.thymeleaf.context.Context;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.UUID;
 
 /**
  * Email 提醒通知服務
  * 負責發送提醒 Email 及生成確認連結
+ * 同一次提醒觸發的多位收件者共用一次模板渲染，並透過 {@link SmtpTransportPool} 重複使用 SMTP 連線
+ * Message-ID 由 outbox 冪等鍵產生，同一筆通知重試時收件端（如 Gmail）可依 Message-ID 去除重複
  */
 @Service
 @RequiredArgsConstructor
@@ -35,7 +40,9 @@ public class EmailNotificationService {
     private final JavaMailSender mailSender;
     private final EmailProperties emailProperties;
     private final ReminderLogRepository reminderLogRepository;
+    private final ConfirmationTokenService confirmationTokenService;
     private final TemplateEngine templateEngine;
+    private final SmtpTransportPool smtpTransportPool;
 
     @Value("${nexusbot.base-url}")
     private String baseUrl;
@@ -46,81 +53,116 @@ public class EmailNotificationService {
      * @param reminder        提醒資料
      * @param recipientEmail  收件者 Email
      * @param enhancedContent AI 增強後的提醒內容
+     * @param idempotencyKey  outbox 冪等鍵
      * @return 是否發送成功
      */
-    public boolean sendReminderEmail(Reminder reminder, String recipientEmail, String enhancedContent) {
+    public boolean sendReminderEmail(Reminder reminder, String recipientEmail, String enhancedContent, String idempotencyKey) {
+        return sendReminderEmail(reminder, recipientEmail, render(reminder, enhancedContent), idempotencyKey);
+    }
+
+    /**
+     * 渲染提醒 Email（每次提醒觸發只需一次，所有收件者共用）
+     *
+     * @param reminder        提醒資料
+     * @param enhancedContent AI 增強後的提醒內容
+     * @return 含確認連結佔位字串的渲染結果
+     */
+    public RenderedReminderEmail render(Reminder reminder, String enhancedContent) {
+        // 使用 Thymeleaf 模板生成 HTML 內容
+        Context context = new Context();
+        String reminderTimeDisplay = reminder.getLocalTime() != null ? reminder.getLocalTime().format(TIME_FORMATTER) : "-";
+
+        context.setVariable("reminderContent", reminder.getContent());
+        context.setVariable("enhancedContent", enhancedContent != null ? enhancedContent : "");
+        context.setVariable("reminderTime", reminderTimeDisplay);
+        context.setVariable("confirmationUrl", RenderedReminderEmail.CONFIRMATION_URL_PLACEHOLDER);
+        context.setVariable("repeatType", RecurrenceRules.describe(reminder.getRepeatType()));
+        context.setVariable("timezoneDisplay", TimezoneValidator.getDisplayName(reminder.getTimezone()));
+
+        // 主旨包含提醒內容，讓使用者一眼辨識
+        return new RenderedReminderEmail("📅 提醒：" + reminder.getContent(), templateEngine.process("reminder-email", context));
+    }
+
+    /**
+     * 以已渲染的內容發送提醒 Email，只替換收件者專屬的確認連結
+     *
+     * @param reminder       提醒資料
+     * @param recipientEmail 收件者 Email
+     * @param email          {@link #render} 的渲染結果
+     * @param idempotencyKey outbox 冪等鍵，用於產生固定的 Message-ID
+     * @return 是否發送成功
+     */
+    public boolean sendReminderEmail(Reminder reminder, String recipientEmail, RenderedReminderEmail email, String idempotencyKey) {
+        ReminderLog log = new ReminderLog();
         try {
-            // 生成唯一確認 Token
-            String confirmationToken = UUID.randomUUID().toString();
-            String confirmationUrl = baseUrl + "/reminder/confirm/" + confirmationToken;
+            // 先以 PENDING 寫入發送日誌取得 ID，確認 Token 直接以日誌 ID 簽章，不需另存 Token；寄出後才改為 SENT
+            log.setReminderId(reminder.getId());
+            log.setRoomId(reminder.getRoomId());
+            log.setStatus("PENDING");
+            log.setDeliveryMethod("EMAIL");
+            log.setSentTime(LocalDateTime.now());
+            log = reminderLogRepository.save(log);
+
+            String confirmationUrl = baseUrl + "/reminder/confirm/" + confirmationTokenService.issue(log.getId());
 
             // 創建 Email 內容
-            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessage message = new FixedIdMimeMessage(mailSender instanceof JavaMailSenderImpl sender ? sender.getSession() : null,
+                    "<" + idempotencyKey + "@nexusbot>");
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
             helper.setFrom(emailProperties.getFrom(), emailProperties.getFromName());
             helper.setTo(recipientEmail);
-            // 主旨包含提醒內容，讓使用者一眼辨識
-            helper.setSubject("📅 提醒：" + reminder.getContent());
-
-            // 使用 Thymeleaf 模板生成 HTML 內容
-            Context context = new Context();
-            String reminderTimeDisplay = reminder.getLocalTime() != null ? reminder.getLocalTime().format(TIME_FORMATTER) : "-";
-
-            context.setVariable("reminderContent", reminder.getContent());
-            context.setVariable("enhancedContent", enhancedContent != null ? enhancedContent : "");
-            context.setVariable("reminderTime", reminderTimeDisplay);
-            context.setVariable("confirmationUrl", confirmationUrl);
-            context.setVariable("repeatType", getRepeatTypeText(reminder.getRepeatType()));
-            context.setVariable("timezoneDisplay", TimezoneValidator.getDisplayName(reminder.getTimezone()));
+            helper.setSubject(email.subject());
+            helper.setText(email.html(confirmationUrl), true);
 
-            String htmlContent = templateEngine.process("reminder-email", context);
-            helper.setText(htmlContent, true);
+            // 透過連線池發送郵件，重複使用已認證的 SMTP 連線
+            smtpTransportPool.send(message);
 
-            // 發送郵件
-            mailSender.send(message);
-
-            // 記錄發送日誌
-            ReminderLog log = new ReminderLog();
-            log.setReminderId(reminder.getId());
-            log.setRoomId(reminder.getRoomId());
-            log.setStatus("SENT");
-            log.setDeliveryMethod("EMAIL");
-            log.setConfirmationToken(confirmationToken);
-            log.setSentTime(LocalDateTime.now());
-            reminderLogRepository.save(log);
+            reminderLogRepository.updateStatus(log.getId(), "SENT", null);
 
             logger.info("Reminder email sent successfully to {} for reminder {}", recipientEmail, reminder.getId());
             return true;
 
         } catch (MessagingException e) {
             logger.error("Failed to send reminder email to {} for reminder {}: {}", recipientEmail, reminder.getId(), e.getMessage());
-
-            // 記錄失敗日誌
-            ReminderLog log = new ReminderLog();
-            log.setReminderId(reminder.getId());
-            log.setRoomId(reminder.getRoomId());
-            log.setStatus("FAILED");
-            log.setDeliveryMethod("EMAIL");
-            log.setErrorMessage("Email sending failed: " + e.getMessage());
-            log.setSentTime(LocalDateTime.now());
-            reminderLogRepository.save(log);
-
+            markFailed(log, "Email sending failed: " + e.getMessage());
             return false;
         } catch (Exception e) {
             logger.error("Unexpected error sending reminder email: {}", e.getMessage(), e);
+            markFailed(log, "Unexpected error: " + e.getMessage());
             return false;
         }
     }
 
     /**
-     * 轉換重複類型為可讀文字
+     * 將日誌改為失敗（日誌尚未寫入時略過）
+     */
+    private void markFailed(ReminderLog log, String errorMessage) {
+        if (log.getId() == null) {
+            return;
+        }
+        try {
+            reminderLogRepository.updateStatus(log.getId(), "FAILED", errorMessage);
+        } catch (Exception e) {
+            logger.error("Failed to mark reminder log [{}] as failed: {}", log.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 固定 Message-ID 的郵件，saveChanges 時不重新產生
      */
-    private String getRepeatTypeText(String repeatType) {
-        return switch (repeatType) {
-            case "DAILY" -> "每日重複";
-            case "WEEKLY" -> "每週重複";
-            default -> "僅一次";
-        };
+    private static final class FixedIdMimeMessage extends MimeMessage {
+
+        private final String messageId;
+
+        FixedIdMimeMessage(Session session, String messageId) {
+            super(session);
+            this.messageId = messageId;
+        }
+
+        @Override
+        protected void updateMessageID() throws MessagingException {
+            setHeader("Message-ID", messageId);
+        }
     }
 }
@@ -2,10 +2,11 @@ package com.acenexus.tata.nexusbot.notification;
 
 import com.acenexus.tata.nexusbot.entity.Reminder;
 import com.acenexus.tata.nexusbot.entity.ReminderLog;
-import com.acenexus.tata.nexusbot.repository.ReminderLogRepository;
+import com.acenexus.tata.nexusbot.line.LineMessagingGateway;
+import com.acenexus.tata.nexusbot.reminder.ReminderLogWriter;
 import com.acenexus.tata.nexusbot.template.MessageTemplateProvider;
+import com.acenexus.tata.nexusbot.template.ReminderTemplateBuilder;
 import com.acenexus.tata.nexusbot.util.TimezoneValidator;
-import com.linecorp.bot.client.LineMessagingClient;
 import com.linecorp.bot.model.PushMessage;
 import com.linecorp.bot.model.message.Message;
 import lombok.RequiredArgsConstructor;
@@ -14,10 +15,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * LINE 通知服務
  * 負責發送 LINE Push Message 提醒通知
+ * Push 以 outbox 的冪等鍵發送，同一筆通知重試時 LINE 能以 X-Line-Retry-Key 去除重複
  */
 @Service
 @RequiredArgsConstructor
@@ -25,30 +29,34 @@ public class LineNotificationService {
 
     private static final Logger logger = LoggerFactory.getLogger(LineNotificationService.class);
 
-    private final LineMessagingClient lineMessagingClient;
+    /**
+     * LINE 單次 Push 最多可包含的訊息數
+     */
+    private static final int MAX_MESSAGES_PER_PUSH = 5;
+
+    /**
+     * 單次合併 Push 最多可包含的提醒數
+     */
+    public static final int MAX_REMINDERS_PER_PUSH = ReminderTemplateBuilder.MAX_CAROUSEL_BUBBLES * MAX_MESSAGES_PER_PUSH;
+
+    private final LineMessagingGateway lineMessagingGateway;
     private final MessageTemplateProvider messageTemplateProvider;
-    private final ReminderLogRepository reminderLogRepository;
+    private final ReminderLogWriter reminderLogWriter;
 
     /**
      * 發送 LINE 提醒通知
      *
      * @param reminder        提醒資料
      * @param enhancedContent AI 增強後的提醒內容
+     * @param idempotencyKey  outbox 冪等鍵
      * @return 是否發送成功
      */
-    public boolean pushReminder(Reminder reminder, String enhancedContent) {
+    public boolean pushReminder(Reminder reminder, String enhancedContent, String idempotencyKey) {
         try {
-            // 確保訊息中一定包含原始提醒內容
-            String safeOriginalContent = reminder.getContent() != null && !reminder.getContent().isBlank() ? reminder.getContent() : "（未提供提醒內容）";
-            String safeEnhancedContent = enhancedContent != null && !enhancedContent.isBlank() ? enhancedContent : safeOriginalContent;
-
-            String timezoneDisplay = TimezoneValidator.getDisplayName(reminder.getTimezone());
-            String reminderTimeDisplay = reminder.getLocalTime() != null ? reminder.getLocalTime().format(com.acenexus.tata.nexusbot.constants.TimeFormatters.STANDARD_TIME) : "-";
-
-            Message reminderMessage = messageTemplateProvider.buildReminderNotification(safeEnhancedContent, safeOriginalContent, reminder.getRepeatType(), reminder.getId(), timezoneDisplay, reminderTimeDisplay);
+            Message reminderMessage = buildReminderMessage(reminder, enhancedContent);
 
             PushMessage pushMessage = new PushMessage(reminder.getRoomId(), reminderMessage);
-            lineMessagingClient.pushMessage(pushMessage);
+            lineMessagingGateway.push(pushMessage, idempotencyKey);
 
             // 記錄發送日誌
             saveReminderLog(reminder, "SENT", null);
@@ -65,6 +73,61 @@ public class LineNotificationService {
         }
     }
 
+    /**
+     * 將同一聊天室同時到期的多則提醒合併為一次 Push 發送
+     * 每 {@link ReminderTemplateBuilder#MAX_CAROUSEL_BUBBLES} 則組成一個輪播訊息，
+     * 最多 {@link #MAX_REMINDERS_PER_PUSH} 則，只需一次 API 呼叫與一則 Push 額度。
+     * 每則提醒仍各自寫入一筆 reminder_logs。
+     * Retry Key 由 outbox 的投遞批次 ID 衍生，同一批提醒重試時沿用同一個 Key。
+     * 輪播組不出來（通知不是 Flex Bubble）時整批回報失敗，由 outbox 重試，不會有提醒被略過卻標記為已投遞。
+     *
+     * @param roomId           聊天室 ID
+     * @param reminders        提醒資料（同一聊天室，最多 {@link #MAX_REMINDERS_PER_PUSH} 則）
+     * @param enhancedContents AI 增強後的提醒內容，與 reminders 一一對應
+     * @param deliveryBatchId  outbox 投遞批次 ID
+     * @return 是否發送成功
+     */
+    public boolean pushReminders(String roomId, List<Reminder> reminders, List<String> enhancedContents, String deliveryBatchId) {
+        if (reminders.size() > MAX_REMINDERS_PER_PUSH) {
+            throw new IllegalArgumentException("At most " + MAX_REMINDERS_PER_PUSH + " reminders per push, got " + reminders.size());
+        }
+
+        try {
+            List<Message> carousels = new ArrayList<>();
+            for (int from = 0; from < reminders.size(); from += ReminderTemplateBuilder.MAX_CAROUSEL_BUBBLES) {
+                int to = Math.min(from + ReminderTemplateBuilder.MAX_CAROUSEL_BUBBLES, reminders.size());
+                List<Message> notifications = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    notifications.add(buildReminderMessage(reminders.get(i), enhancedContents.get(i)));
+                }
+                carousels.add(messageTemplateProvider.reminderNotificationCarousel(notifications));
+            }
+
+            lineMessagingGateway.push(new PushMessage(roomId, carousels), deliveryBatchId);
+            reminders.forEach(reminder -> saveReminderLog(reminder, "SENT", null));
+            logger.info("LINE aggregated notification sent for room [{}]: {} reminders in one push", roomId, reminders.size());
+            return true;
+        } catch (Exception e) {
+            logger.error("Failed to send aggregated LINE notification for room [{}]: {}", roomId, e.getMessage());
+            reminders.forEach(reminder -> saveReminderLog(reminder, "FAILED", e.getMessage()));
+            return false;
+        }
+    }
+
+    /**
+     * 建立單則提醒通知訊息
+     */
+    private Message buildReminderMessage(Reminder reminder, String enhancedContent) {
+        // 確保訊息中一定包含原始提醒內容
+        String safeOriginalContent = reminder.getContent() != null && !reminder.getContent().isBlank() ? reminder.getContent() : "（未提供提醒內容）";
+        String safeEnhancedContent = enhancedContent != null && !enhancedContent.isBlank() ? enhancedContent : safeOriginalContent;
+
+        String timezoneDisplay = TimezoneValidator.getDisplayName(reminder.getTimezone());
+        String reminderTimeDisplay = reminder.getLocalTime() != null ? reminder.getLocalTime().format(com.acenexus.tata.nexusbot.constants.TimeFormatters.STANDARD_TIME) : "-";
+
+        return messageTemplateProvider.buildReminderNotification(safeEnhancedContent, safeOriginalContent, reminder.getRepeatType(), reminder.getId(), timezoneDisplay, reminderTimeDisplay);
+    }
+
     /**
      * 儲存提醒發送日誌
      */
@@ -81,7 +144,7 @@ public class LineNotificationService {
                 log.setErrorMessage(errorMessage);
             }
 
-            reminderLogRepository.save(log);
+            reminderLogWriter.write(log);
         } catch (Exception e) {
             logger.error("Failed to save reminder log: {}", e.getMessage());
         }
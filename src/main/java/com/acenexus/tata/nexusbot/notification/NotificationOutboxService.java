@@ -0,0 +1,180 @@
+package com.acenexus.tata.nexusbot.notification;
+
+import com.acenexus.tata.nexusbot.config.properties.NotificationOutboxProperties;
+import com.acenexus.tata.nexusbot.entity.NotificationOutbox;
+import com.acenexus.tata.nexusbot.entity.Reminder;
+import com.acenexus.tata.nexusbot.repository.NotificationOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 提醒通知 Outbox 服務
+ * 負責 outbox 的寫入、批次認領與投遞結果回寫
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutboxService.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final NotificationOutboxRepository notificationOutboxRepository;
+    private final NotificationOutboxProperties properties;
+
+    /**
+     * 寫入一筆待投遞通知
+     * 必須在呼叫端事務內執行，與提醒狀態更新一起提交或回滾
+     *
+     * @param reminder       觸發的提醒
+     * @param firedAtInstant 本次觸發時間點（epoch millis）
+     * @param channel        投遞管道：LINE, EMAIL
+     * @param recipient      Email 收件者（LINE 為 null）
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Reminder reminder, long firedAtInstant, String channel, String recipient) {
+        NotificationOutbox entry = NotificationOutbox.builder()
+                .idempotencyKey(idempotencyKey(reminder.getId(), firedAtInstant, channel, recipient))
+                .reminderId(reminder.getId())
+                .roomId(reminder.getRoomId())
+                .channel(channel)
+                .recipient(recipient)
+                .content(reminder.getContent())
+                .repeatType(reminder.getRepeatType())
+                .timezone(reminder.getTimezone())
+                .firedAtInstant(firedAtInstant)
+                .nextAttemptAt("LINE".equals(channel) ? alignToAggregationWindow(LocalDateTime.now()) : LocalDateTime.now())
+                .build();
+
+        notificationOutboxRepository.save(entry);
+        logger.debug("Enqueued {} notification for reminder [{}] fired at {}", channel, reminder.getId(), firedAtInstant);
+    }
+
+    /**
+     * 認領一批到期的通知
+     * 先查出候選 ID，再以條件式 UPDATE 寫入本批 Token，多實例競爭時每筆只會被一個實例取得；
+     * 認領到已分批的通知時，同一投遞批次中其餘尚未成功的通知也一併認領
+     *
+     * @return 本實例認領到的通知
+     */
+    @Transactional
+    public List<NotificationOutbox> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = notificationOutboxRepository.findClaimableIds(now, PageRequest.of(0, properties.getBatchSize()));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        String token = UUID.randomUUID().toString();
+        LocalDateTime lockedUntil = now.plus(Duration.ofMillis(properties.getLeaseMs()));
+        int claimed = notificationOutboxRepository.claim(ids, token, now, lockedUntil);
+        if (claimed == 0) {
+            return List.of();
+        }
+
+        List<NotificationOutbox> batch = notificationOutboxRepository.findByClaimToken(token);
+        Set<String> deliveryBatches = batch.stream()
+                .map(NotificationOutbox::getDeliveryBatchId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (!deliveryBatches.isEmpty() && notificationOutboxRepository.claimDeliveryBatches(deliveryBatches, token, now, lockedUntil) > 0) {
+            batch = notificationOutboxRepository.findByClaimToken(token);
+        }
+        return batch;
+    }
+
+    /**
+     * 在第一次合併投遞前為一組通知寫入同一個投遞批次 ID
+     * 之後的重試固定以同一組通知與由批次 ID 衍生的 Retry Key 重送
+     *
+     * @param entries 本次要合併投遞、尚未分批的通知（同一認領批次）
+     * @return 投遞批次 ID
+     */
+    @Transactional
+    public String assignDeliveryBatch(List<NotificationOutbox> entries) {
+        String batchId = UUID.randomUUID().toString();
+        notificationOutboxRepository.assignDeliveryBatch(entries.stream().map(NotificationOutbox::getId).toList(),
+                entries.get(0).getClaimToken(), batchId);
+        entries.forEach(entry -> entry.setDeliveryBatchId(batchId));
+        return batchId;
+    }
+
+    /**
+     * 標記投遞成功
+     */
+    @Transactional
+    public void markSent(NotificationOutbox entry) {
+        notificationOutboxRepository.markSent(entry.getId(), entry.getClaimToken(), LocalDateTime.now());
+    }
+
+    /**
+     * 標記投遞失敗：未達上限時以指數退避排入重試，否則標記為 FAILED
+     */
+    @Transactional
+    public void markFailed(NotificationOutbox entry, String error) {
+        int attempts = entry.getAttempts() + 1;
+        boolean exhausted = attempts >= properties.getMaxAttempts();
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plus(Duration.ofMillis(backoffMillis(attempts)));
+        String truncatedError = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+
+        notificationOutboxRepository.markFailed(entry.getId(), entry.getClaimToken(), exhausted ? "FAILED" : "PENDING", nextAttemptAt, truncatedError);
+
+        if (exhausted) {
+            logger.error("Notification outbox [{}] for reminder [{}] gave up after {} attempts: {}", entry.getId(), entry.getReminderId(), attempts, error);
+        } else {
+            logger.warn("Notification outbox [{}] for reminder [{}] failed (attempt {}), retry at {}", entry.getId(), entry.getReminderId(), attempts, nextAttemptAt);
+        }
+    }
+
+    /**
+     * 清除保留期限之前已投遞成功的通知
+     *
+     * @return 刪除筆數
+     */
+    @Transactional
+    public int purgeSent() {
+        return notificationOutboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(properties.getRetentionDays()));
+    }
+
+    /**
+     * 將時間對齊到下一個 LINE 聚合視窗邊界，同一視窗內排入的 LINE 通知會同時到期
+     */
+    private LocalDateTime alignToAggregationWindow(LocalDateTime time) {
+        long window = properties.getLineAggregationWindowMs();
+        if (window <= 0) {
+            return time;
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        long millis = time.atZone(zone).toInstant().toEpochMilli();
+        long aligned = Math.floorDiv(millis + window - 1, window) * window;
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(aligned), zone);
+    }
+
+    private long backoffMillis(int attempts) {
+        long backoff = properties.getInitialBackoffMs() << Math.min(attempts - 1, 20);
+        return Math.min(backoff, properties.getMaxBackoffMs());
+    }
+
+    /**
+     * 以提醒 ID、觸發時間、管道與收件者產生固定長度的冪等鍵
+     */
+    static String idempotencyKey(Long reminderId, long firedAtInstant, String channel, String recipient) {
+        String raw = reminderId + ":" + firedAtInstant + ":" + channel + ":" + (recipient != null ? recipient.toLowerCase() : "");
+        return UUID.nameUUIDFromBytes(raw.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+}
@@ -1,7 +1,10 @@
 package com.acenexus.tata.nexusbot.notification;
 
+import com.acenexus.tata.nexusbot.entity.NotificationOutbox;
 import com.acenexus.tata.nexusbot.entity.Reminder;
 
+import java.util.List;
+
 /**
  * 提醒通知服務介面
  * 負責協調 LINE 和 Email 通知的發送
@@ -9,39 +12,52 @@ import com.acenexus.tata.nexusbot.entity.Reminder;
  * - 統一通知邏輯，支援多種通知管道
  * - 封裝複雜的通知路由邏輯
  * - 便於擴充新的通知管道（如 Push Notification、SMS）
+ * 發送流程分為兩段：
+ * - 排程器在提醒狀態更新的同一事務內呼叫 {@link #enqueue} 寫入 outbox
+ * - 背景 worker 認領 outbox 後呼叫 {@link #deliver} 實際投遞
  */
 public interface ReminderNotificationService {
 
     /**
-     * 發送提醒通知
-     * 根據 Reminder 的 notificationChannel 自動路由到對應管道
+     * 依 Reminder 的 notificationChannel 將本次觸發寫入 outbox
+     * 必須在呼叫端事務內執行
      *
-     * @param reminder        提醒資料
-     * @param enhancedContent AI 增強後的提醒內容（用於 LINE 訊息）
+     * @param reminder       觸發的提醒
+     * @param firedAtInstant 本次觸發時間點（epoch millis）
      */
-    void send(Reminder reminder, String enhancedContent);
+    void enqueue(Reminder reminder, long firedAtInstant);
 
     /**
-     * 僅發送 LINE 通知
+     * 投遞單筆 outbox 通知
      *
-     * @param reminder        提醒資料
+     * @param entry           待投遞通知
      * @param enhancedContent AI 增強後的提醒內容
+     * @return 是否投遞成功
+     */
+    boolean deliver(NotificationOutbox entry, String enhancedContent);
+
+    /**
+     * 將同一聊天室同時到期的多筆 LINE 通知合併為一次 Push 投遞
+     *
+     * @param roomId           聊天室 ID
+     * @param entries          待投遞的 LINE 通知（同一聊天室、同一投遞批次）
+     * @param enhancedContents AI 增強後的提醒內容，與 entries 一一對應
+     * @return 是否投遞成功（整批一起成功或失敗）
      */
-    void sendLineOnly(Reminder reminder, String enhancedContent);
+    boolean deliverLineAggregated(String roomId, List<NotificationOutbox> entries, List<String> enhancedContents);
 
     /**
-     * 僅發送 Email 通知
+     * 渲染 Email 通知內容，同一次觸發的所有 Email 收件者共用
      *
-     * @param reminder        提醒資料
+     * @param entry           同一次觸發中的任一 Email 通知
      * @param enhancedContent AI 增強後的提醒內容
      */
-    void sendEmailOnly(Reminder reminder, String enhancedContent);
+    RenderedReminderEmail renderEmail(NotificationOutbox entry, String enhancedContent);
 
     /**
-     * 同時發送 LINE 和 Email 通知
+     * 以已渲染的內容投遞單一 Email 通知
      *
-     * @param reminder        提醒資料
-     * @param enhancedContent AI 增強後的提醒內容（用於 LINE 訊息）
+     * @return 是否投遞成功
      */
-    void sendBoth(Reminder reminder, String enhancedContent);
+    boolean deliverEmail(NotificationOutbox entry, RenderedReminderEmail email);
 }
@@ -0,0 +1,24 @@
+package com.acenexus.tata.nexusbot.notification;
+
+/**
+ * 已渲染的提醒 Email
+ * 同一次提醒觸發的所有收件者共用同一份渲染結果，只有確認連結因人而異，
+ * 以佔位字串保留在 HTML 中，寄送時再替換。
+ *
+ * @param subject      郵件主旨
+ * @param htmlTemplate 含確認連結佔位字串的 HTML 內容
+ */
+public record RenderedReminderEmail(String subject, String htmlTemplate) {
+
+    /**
+     * 確認連結佔位字串
+     */
+    public static final String CONFIRMATION_URL_PLACEHOLDER = "__NEXUSBOT_CONFIRMATION_URL__";
+
+    /**
+     * 產生指定收件者的 HTML 內容
+     */
+    public String html(String confirmationUrl) {
+        return htmlTemplate.replace(CONFIRMATION_URL_PLACEHOLDER, confirmationUrl);
+    }
+}
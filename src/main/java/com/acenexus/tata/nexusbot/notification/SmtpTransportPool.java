@@ -0,0 +1,123 @@
+package com.acenexus.tata.nexusbot.notification;
+
+import com.acenexus.tata.nexusbot.config.properties.EmailProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+
+/**
+ * SMTP 連線池
+ * JavaMailSender 每次 send 都會重新建立連線並認證，批次寄送時大部分時間花在握手上。
+ * 此連線池保留少量已認證的 Transport 重複使用：
+ * - 同時使用中的連線數不超過 email.pool-size
+ * - 閒置超過 email.pool-idle-timeout-ms 或已斷線的連線在借出前關閉重建
+ * - 發送失敗的連線直接丟棄，不放回池中
+ * - 發送耗時（含等待可用連線）記錄於 smtp.send（host、outcome=success / error）
+ */
+@Component
+@RequiredArgsConstructor
+public class SmtpTransportPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmtpTransportPool.class);
+
+    private final JavaMailSender mailSender;
+    private final EmailProperties emailProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentLinkedDeque<PooledTransport> idle = new ConcurrentLinkedDeque<>();
+    private Semaphore permits;
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(Math.max(1, emailProperties.getPoolSize()), true);
+    }
+
+    /**
+     * 透過池中的連線發送郵件
+     */
+    public void send(MimeMessage message) throws MessagingException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            doSend(message);
+            outcome = "success";
+        } finally {
+            sample.stop(Timer.builder("smtp.send")
+                    .description("SMTP message delivery")
+                    .tag("host", mailSender instanceof JavaMailSenderImpl sender && sender.getHost() != null ? sender.getHost() : "default")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private void doSend(MimeMessage message) throws MessagingException {
+        if (!(mailSender instanceof JavaMailSenderImpl sender)) {
+            mailSender.send(message);
+            return;
+        }
+
+        permits.acquireUninterruptibly();
+        try {
+            PooledTransport pooled = borrow(sender);
+            try {
+                message.saveChanges();
+                pooled.transport.sendMessage(message, message.getAllRecipients());
+            } catch (MessagingException | RuntimeException e) {
+                close(pooled.transport);
+                throw e;
+            }
+            idle.push(new PooledTransport(pooled.transport, System.currentTimeMillis()));
+        } finally {
+            permits.release();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        PooledTransport pooled;
+        while ((pooled = idle.poll()) != null) {
+            close(pooled.transport);
+        }
+    }
+
+    private PooledTransport borrow(JavaMailSenderImpl sender) throws MessagingException {
+        long now = System.currentTimeMillis();
+        PooledTransport pooled;
+        while ((pooled = idle.poll()) != null) {
+            if (now - pooled.lastUsedAt <= emailProperties.getPoolIdleTimeoutMs() && pooled.transport.isConnected()) {
+                return pooled;
+            }
+            close(pooled.transport);
+        }
+
+        Transport transport = sender.getSession().getTransport(sender.getProtocol());
+        transport.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+        logger.debug("Opened new SMTP connection to {}:{}", sender.getHost(), sender.getPort());
+        return new PooledTransport(transport, now);
+    }
+
+    private void close(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            logger.debug("Failed to close SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    private record PooledTransport(Transport transport, long lastUsedAt) {
+    }
+}
@@ -1,23 +1,30 @@
 package com.acenexus.tata.nexusbot.notification.impl;
 
 import com.acenexus.tata.nexusbot.email.EmailManager;
+import com.acenexus.tata.nexusbot.entity.NotificationOutbox;
 import com.acenexus.tata.nexusbot.entity.Reminder;
+import com.acenexus.tata.nexusbot.line.LinePushQuotaService;
 import com.acenexus.tata.nexusbot.notification.EmailNotificationService;
 import com.acenexus.tata.nexusbot.notification.LineNotificationService;
+import com.acenexus.tata.nexusbot.notification.NotificationOutboxService;
 import com.acenexus.tata.nexusbot.notification.ReminderNotificationService;
+import com.acenexus.tata.nexusbot.notification.RenderedReminderEmail;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * 提醒通知服務實作
  * 協調 LINE 和 Email 通知的發送
  * 設計特色：
- * - 統一通知路由邏輯
+ * - 統一通知路由邏輯（於寫入 outbox 時決定管道與收件者）
  * - 支援多種通知管道
+ * - LINE Push 額度不足時，BOTH 管道降級為只寄 Email
  * - 易於擴充新通知管道（Push、SMS 等）
  */
 @Service
@@ -29,84 +36,85 @@ public class ReminderNotificationServiceImpl implements ReminderNotificationServ
     private final LineNotificationService lineNotificationService;
     private final EmailNotificationService emailNotificationService;
     private final EmailManager emailManager;
+    private final NotificationOutboxService notificationOutboxService;
+    private final LinePushQuotaService linePushQuotaService;
 
     @Override
-    public void send(Reminder reminder, String enhancedContent) {
+    public void enqueue(Reminder reminder, long firedAtInstant) {
         String channel = reminder.getNotificationChannel() != null ? reminder.getNotificationChannel() : "LINE";
-        logger.info("Sending reminder [{}] via channel: {}", reminder.getId(), channel);
+        logger.info("Enqueuing reminder [{}] via channel: {}", reminder.getId(), channel);
 
         switch (channel.toUpperCase()) {
-            case "LINE" -> sendLineOnly(reminder, enhancedContent);
-            case "EMAIL" -> sendEmailOnly(reminder, enhancedContent);
-            case "BOTH" -> sendBoth(reminder, enhancedContent);
+            case "LINE" -> enqueueLine(reminder, firedAtInstant);
+            case "EMAIL" -> enqueueEmail(reminder, firedAtInstant);
+            case "BOTH" -> {
+                int emails = enqueueEmail(reminder, firedAtInstant);
+                // Push 額度不足時降級為只寄 Email，保留額度給只能走 LINE 的提醒
+                if (emails > 0 && linePushQuotaService.isLow()) {
+                    logger.warn("LINE push quota low ({}/{}), reminder [{}] degraded to email only",
+                            linePushQuotaService.used(), linePushQuotaService.limit(), reminder.getId());
+                } else {
+                    enqueueLine(reminder, firedAtInstant);
+                }
+            }
             default -> {
                 logger.warn("Unknown notification channel '{}' for reminder [{}], using LINE", channel, reminder.getId());
-                sendLineOnly(reminder, enhancedContent);
+                enqueueLine(reminder, firedAtInstant);
             }
         }
     }
 
     @Override
-    public void sendLineOnly(Reminder reminder, String enhancedContent) {
-        try {
-            boolean success = lineNotificationService.pushReminder(reminder, enhancedContent);
-            if (success) {
-                logger.info("LINE notification sent for reminder [{}]", reminder.getId());
-            } else {
-                logger.error("LINE notification failed for reminder [{}]", reminder.getId());
+    public boolean deliver(NotificationOutbox entry, String enhancedContent) {
+        Reminder reminder = entry.toReminderSnapshot();
+        return switch (entry.getChannel()) {
+            case "LINE" -> lineNotificationService.pushReminder(reminder, enhancedContent, entry.getIdempotencyKey());
+            case "EMAIL" -> emailNotificationService.sendReminderEmail(reminder, entry.getRecipient(), enhancedContent, entry.getIdempotencyKey());
+            default -> {
+                logger.error("Unknown outbox channel '{}' for entry [{}]", entry.getChannel(), entry.getId());
+                yield false;
             }
-        } catch (Exception e) {
-            logger.error("Exception sending LINE notification for reminder [{}]: {}", reminder.getId(), e.getMessage());
-        }
+        };
     }
 
     @Override
-    public void sendEmailOnly(Reminder reminder, String enhancedContent) {
-        try {
-            List<String> enabledEmails = emailManager.getEnabledEmailAddresses(reminder.getRoomId());
-
-            if (enabledEmails.isEmpty()) {
-                logger.warn("No enabled email addresses for room [{}], skipping email notification", reminder.getRoomId());
-                return;
-            }
+    public boolean deliverLineAggregated(String roomId, List<NotificationOutbox> entries, List<String> enhancedContents) {
+        List<Reminder> reminders = entries.stream().map(NotificationOutbox::toReminderSnapshot).toList();
+        return lineNotificationService.pushReminders(roomId, reminders, enhancedContents, entries.get(0).getDeliveryBatchId());
+    }
 
-            int successCount = 0;
-            for (String email : enabledEmails) {
-                try {
-                    boolean sent = emailNotificationService.sendReminderEmail(reminder, email, enhancedContent);
-                    if (sent) {
-                        successCount++;
-                        logger.debug("Email sent successfully to {} for reminder [{}]", email, reminder.getId());
-                    }
-                } catch (Exception e) {
-                    logger.error("Failed to send email to {} for reminder [{}]: {}", email, reminder.getId(), e.getMessage());
-                }
-            }
+    @Override
+    public RenderedReminderEmail renderEmail(NotificationOutbox entry, String enhancedContent) {
+        return emailNotificationService.render(entry.toReminderSnapshot(), enhancedContent);
+    }
 
-            logger.info("Email notification completed for reminder [{}]: {}/{} sent", reminder.getId(), successCount, enabledEmails.size());
+    @Override
+    public boolean deliverEmail(NotificationOutbox entry, RenderedReminderEmail email) {
+        return emailNotificationService.sendReminderEmail(entry.toReminderSnapshot(), entry.getRecipient(), email, entry.getIdempotencyKey());
+    }
 
-        } catch (Exception e) {
-            logger.error("Exception sending email notification for reminder [{}]: {}", reminder.getId(), e.getMessage());
-        }
+    private void enqueueLine(Reminder reminder, long firedAtInstant) {
+        notificationOutboxService.enqueue(reminder, firedAtInstant, "LINE", null);
     }
 
-    @Override
-    public void sendBoth(Reminder reminder, String enhancedContent) {
-        logger.info("Sending reminder [{}] via both LINE and Email", reminder.getId());
+    /**
+     * @return 排入的 Email 通知筆數
+     */
+    private int enqueueEmail(Reminder reminder, long firedAtInstant) {
+        List<String> enabledEmails = emailManager.getEnabledEmailAddresses(reminder.getRoomId());
 
-        // 並行發送 LINE 和 Email
-        try {
-            sendLineOnly(reminder, enhancedContent);
-        } catch (Exception e) {
-            logger.error("LINE notification failed in BOTH mode: {}", e.getMessage());
+        if (enabledEmails.isEmpty()) {
+            logger.warn("No enabled email addresses for room [{}], skipping email notification", reminder.getRoomId());
+            return 0;
         }
 
-        try {
-            sendEmailOnly(reminder, enhancedContent);
-        } catch (Exception e) {
-            logger.error("Email notification failed in BOTH mode: {}", e.getMessage());
+        // 同一地址重複綁定時只寄一次，避免冪等鍵衝突導致整個事務回滾
+        Set<String> recipients = new LinkedHashSet<>();
+        for (String email : enabledEmails) {
+            if (recipients.add(email.toLowerCase())) {
+                notificationOutboxService.enqueue(reminder, firedAtInstant, "EMAIL", email);
+            }
         }
-
-        logger.info("Both notifications completed for reminder [{}]", reminder.getId());
+        return recipients.size();
     }
 }
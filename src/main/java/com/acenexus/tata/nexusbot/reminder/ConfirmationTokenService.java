@@ -0,0 +1,118 @@
+package com.acenexus.tata.nexusbot.reminder;
+
+import com.acenexus.tata.nexusbot.config.properties.EmailProperties;
+import com.acenexus.tata.nexusbot.config.properties.LineBotProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.OptionalLong;
+
+/**
+ * Email 確認連結 Token 服務
+ * Token 自帶日誌 ID 與到期時間，並以 HMAC-SHA256 簽章：
+ * - 驗證完全在記憶體中完成，偽造、竄改或過期的連結不會查詢資料庫
+ * - 不需在 reminder_logs 儲存 Token 及維護其索引，有效連結直接以主鍵更新
+ * 格式：Base64URL( logId[8] + expiresAtEpochSecond[8] + HMAC 前 16 bytes )
+ */
+@Component
+@RequiredArgsConstructor
+public class ConfirmationTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfirmationTokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int PAYLOAD_LENGTH = 16;
+    private static final int SIGNATURE_LENGTH = 16;
+
+    private final EmailProperties emailProperties;
+    private final LineBotProperties lineBotProperties;
+
+    private SecretKeySpec key;
+
+    @PostConstruct
+    public void init() {
+        String secret = emailProperties.getConfirmationSecret();
+        if (!StringUtils.hasText(secret)) {
+            logger.warn("email.confirmation-secret is not configured, deriving confirmation token key from LINE channel secret");
+            secret = "reminder-confirmation:" + lineBotProperties.getChannelSecret();
+        }
+        key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    /**
+     * 簽發確認 Token
+     *
+     * @param logId 提醒日誌 ID
+     */
+    public String issue(long logId) {
+        long expiresAt = Instant.now().plus(Duration.ofDays(emailProperties.getConfirmationTtlDays())).getEpochSecond();
+        byte[] token = ByteBuffer.allocate(PAYLOAD_LENGTH + SIGNATURE_LENGTH)
+                .putLong(logId)
+                .putLong(expiresAt)
+                .array();
+        System.arraycopy(sign(token), 0, token, PAYLOAD_LENGTH, SIGNATURE_LENGTH);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
+
+    /**
+     * 驗證確認 Token
+     *
+     * @return 有效時回傳日誌 ID；格式錯誤、簽章不符或已過期時回傳空值
+     */
+    public OptionalLong verify(String token) {
+        if (token == null || token.length() > 64) {
+            return OptionalLong.empty();
+        }
+
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            return OptionalLong.empty();
+        }
+        if (bytes.length != PAYLOAD_LENGTH + SIGNATURE_LENGTH) {
+            return OptionalLong.empty();
+        }
+
+        byte[] expected = Arrays.copyOf(sign(bytes), SIGNATURE_LENGTH);
+        byte[] actual = Arrays.copyOfRange(bytes, PAYLOAD_LENGTH, PAYLOAD_LENGTH + SIGNATURE_LENGTH);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return OptionalLong.empty();
+        }
+
+        ByteBuffer payload = ByteBuffer.wrap(bytes, 0, PAYLOAD_LENGTH);
+        long logId = payload.getLong();
+        long expiresAt = payload.getLong();
+        if (Instant.now().getEpochSecond() > expiresAt) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(logId);
+    }
+
+    /**
+     * 對 Token 的 payload 部分簽章
+     */
+    private byte[] sign(byte[] token) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            mac.update(token, 0, PAYLOAD_LENGTH);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.acenexus.tata.nexusbot.reminder;
+
+import com.acenexus.tata.nexusbot.config.properties.TimezoneProperties;
+import com.acenexus.tata.nexusbot.entity.Reminder;
+import com.acenexus.tata.nexusbot.reminder.recurrence.RecurrenceRule;
+import com.acenexus.tata.nexusbot.reminder.recurrence.RecurrenceRules;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+/**
+ * 提醒重複計算引擎
+ * 依 reminder.repeatType 解析出 {@link RecurrenceRule}，並在提醒時區下直接算出下一次觸發時間。
+ * 日期與時刻以 reminder.anchorLocalTime 為準；舊資料沒有 anchor 時以本次觸發的本地時間代替。
+ */
+@Component
+@RequiredArgsConstructor
+public class RecurrenceEngine {
+
+    private final TimezoneProperties timezoneProperties;
+
+    /**
+     * 計算提醒的下一次觸發時間
+     *
+     * @param reminder 已觸發的提醒（reminderTimeInstant 為本次觸發時間）
+     * @param now      目前時間
+     * @return 下一次觸發時間；單次提醒回傳 empty
+     * @throws IllegalArgumentException repeatType 無法解析時
+     */
+    public Optional<ZonedDateTime> nextFireTime(Reminder reminder, Instant now) {
+        RecurrenceRule rule = RecurrenceRules.parse(reminder.getRepeatType());
+        if (!rule.isRepeating()) {
+            return Optional.empty();
+        }
+
+        String timezone = reminder.getTimezone() != null ? reminder.getTimezone() : timezoneProperties.getDefaultTimezone();
+        ZonedDateTime previous = Instant.ofEpochMilli(reminder.getReminderTimeInstant()).atZone(ZoneId.of(timezone));
+        LocalDateTime anchor = reminder.getAnchorLocalTime() != null ? reminder.getAnchorLocalTime() : previous.toLocalDateTime();
+        return rule.next(previous, anchor, now);
+    }
+}
@@ -1,5 +1,6 @@
 package com.acenexus.tata.nexusbot.reminder;
 
+import com.acenexus.tata.nexusbot.config.properties.EmailProperties;
 import com.acenexus.tata.nexusbot.config.properties.TimezoneProperties;
 import com.acenexus.tata.nexusbot.dto.ConfirmationResult;
 import com.acenexus.tata.nexusbot.entity.Reminder;
@@ -8,15 +9,19 @@ import com.acenexus.tata.nexusbot.repository.ReminderLogRepository;
 import com.acenexus.tata.nexusbot.repository.ReminderRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -29,7 +34,10 @@ public class ReminderLogService {
 
     private final ReminderLogRepository reminderLogRepository;
     private final ReminderRepository reminderRepository;
+    private final ReminderLogWriter reminderLogWriter;
+    private final ConfirmationTokenService confirmationTokenService;
     private final TimezoneProperties timezoneProperties;
+    private final EmailProperties emailProperties;
 
     /**
      * 今日提醒記錄 DTO
@@ -108,6 +116,21 @@ public class ReminderLogService {
         return reminderLogRepository.findLatestByReminderId(reminderId);
     }
 
+    /**
+     * 批量查找多個提醒的最新日誌（單一查詢）
+     *
+     * @param reminderIds 提醒 ID 列表
+     * @return 提醒 ID → 最新日誌，沒有日誌的提醒不會出現在結果中
+     */
+    public Map<Long, ReminderLog> findLatestByReminderIds(Collection<Long> reminderIds) {
+        if (reminderIds.isEmpty()) {
+            return Map.of();
+        }
+        return reminderLogRepository.findLatestByReminderIds(reminderIds).stream()
+                .collect(Collectors.toMap(ReminderLog::getReminderId, log -> log,
+                        (a, b) -> a.getId() >= b.getId() ? a : b));
+    }
+
     /**
      * 更新提醒日誌的用戶回應
      *
@@ -116,6 +139,8 @@ public class ReminderLogService {
      */
     public boolean updateWithUserResponse(Long reminderId) {
         try {
+            // 剛發送的日誌可能仍在背景寫入佇列中
+            reminderLogWriter.flush();
             Optional<ReminderLog> logOptional = reminderLogRepository.findLatestSentLogByReminderId(reminderId);
 
             if (logOptional.isPresent()) {
@@ -135,31 +160,53 @@ public class ReminderLogService {
 
     /**
      * 透過 Token 確認提醒
+     * Token 先在記憶體中驗證簽章與到期時間，無效連結不會查詢資料庫；
+     * 舊版 UUID 連結在 email.confirmation-ttl-days 內仍以 confirmation_token 查詢
      *
      * @param token 確認 Token
      * @return 確認結果
      */
+    @Transactional
     public ConfirmationResult confirmByToken(String token) {
         try {
-            Optional<ReminderLog> optionalLog = reminderLogRepository.findByConfirmationToken(token);
+            OptionalLong logId = confirmationTokenService.verify(token);
+            if (logId.isEmpty()) {
+                logId = findLegacyLogId(token);
+            }
 
-            if (optionalLog.isEmpty()) {
+            if (logId.isEmpty()) {
                 return new ConfirmationResult(false, "無效的確認連結", "此連結可能已過期或不存在", false);
             }
 
-            ReminderLog log = optionalLog.get();
-
-            if (log.getConfirmedAt() != null) {
-                String detail = "確認時間: " + log.getConfirmedAt().format(java.time.format.DateTimeFormatter.ofPattern("yyyy年MM月dd日 HH:mm:ss"));
-                return new ConfirmationResult(true, "此提醒已確認", detail, true);
+            if (reminderLogRepository.confirmById(logId.getAsLong(), LocalDateTime.now()) > 0) {
+                return new ConfirmationResult(true, "提醒確認成功", "您可以返回 LINE 查看提醒狀態", false);
             }
 
-            log.setConfirmedAt(LocalDateTime.now());
-            reminderLogRepository.save(log);
+            // 未更新：已確認過，或日誌已不存在
+            Optional<ReminderLog> optionalLog = reminderLogRepository.findById(logId.getAsLong());
+            if (optionalLog.isEmpty() || optionalLog.get().getConfirmedAt() == null) {
+                return new ConfirmationResult(false, "無效的確認連結", "此連結可能已過期或不存在", false);
+            }
 
-            return new ConfirmationResult(true, "提醒確認成功", "您可以返回 LINE 查看提醒狀態", false);
+            String detail = "確認時間: " + optionalLog.get().getConfirmedAt().format(java.time.format.DateTimeFormatter.ofPattern("yyyy年MM月dd日 HH:mm:ss"));
+            return new ConfirmationResult(true, "此提醒已確認", detail, true);
         } catch (Exception e) {
             return new ConfirmationResult(false, "確認失敗", "系統發生錯誤，請稍後再試", false);
         }
     }
+
+    /**
+     * 舊版 UUID 確認連結的過渡期查詢
+     */
+    private OptionalLong findLegacyLogId(String token) {
+        try {
+            UUID.fromString(token);
+        } catch (IllegalArgumentException e) {
+            return OptionalLong.empty();
+        }
+        LocalDateTime notBefore = LocalDateTime.now().minusDays(emailProperties.getConfirmationTtlDays());
+        return reminderLogRepository.findIdByLegacyConfirmationToken(token, notBefore)
+                .map(OptionalLong::of)
+                .orElse(OptionalLong.empty());
+    }
 }
@@ -0,0 +1,222 @@
+package com.acenexus.tata.nexusbot.reminder;
+
+import com.acenexus.tata.nexusbot.config.properties.ReminderLogProperties;
+import com.acenexus.tata.nexusbot.entity.ReminderLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 提醒發送日誌背景批次寫入器（write-behind）
+ * ReminderLog 使用 IDENTITY 主鍵，Hibernate 無法批次 INSERT，每次投遞都會同步等待一次資料庫寫入。
+ * 此寫入器讓投遞執行緒只需將日誌放入有界佇列：
+ * - 背景執行緒等到累積 batchSize 筆或超過 flushIntervalMs 後以單一多列 INSERT 寫入；
+ *   單一陳述式全部成功或全部失敗，逐筆重試不會重複寫入，也不依賴 MySQL 驅動的 rewriteBatchedStatements
+ * - 由佇列取出與寫入資料庫在同一把鎖內完成，{@link #flush()} 也取得此鎖，因此會等待背景執行緒進行中的批次寫完
+ * - 佇列滿時由呼叫端同步寫入，形成背壓而不丟棄日誌
+ * - 關閉時寫完佇列中剩餘的日誌
+ * - 逐筆重試仍失敗的日誌無法寫入，記錄完整內容並計入 reminder.log.dropped
+ * - 指標：reminder.log.queue.size、reminder.log.backpressure、reminder.log.written、reminder.log.dropped、reminder.log.flush
+ */
+@Component
+@RequiredArgsConstructor
+public class ReminderLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReminderLogWriter.class);
+
+    private static final String INSERT_SQL = """
+            INSERT INTO reminder_logs (reminder_id, room_id, sent_time, status, error_message,
+                                       delivery_method, created_at)
+            VALUES\s""";
+
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReminderLogProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 由佇列取出批次到寫入完成期間持有，flush() 取得後即表示先前排入的日誌都已寫入
+     */
+    private final ReentrantLock batchLock = new ReentrantLock();
+
+    /**
+     * 每次排入佇列釋放一個許可，用來喚醒等待中的背景執行緒
+     */
+    private final Semaphore available = new Semaphore(0);
+
+    private BlockingQueue<ReminderLog> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private Counter backpressure;
+    private Counter written;
+    private Counter dropped;
+    private Timer flushTimer;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        Gauge.builder("reminder.log.queue.size", queue, BlockingQueue::size)
+                .description("Reminder logs waiting to be written")
+                .register(meterRegistry);
+        backpressure = Counter.builder("reminder.log.backpressure")
+                .description("Reminder logs written synchronously because the queue was full")
+                .register(meterRegistry);
+        written = Counter.builder("reminder.log.written")
+                .description("Reminder logs written to the database")
+                .register(meterRegistry);
+        dropped = Counter.builder("reminder.log.dropped")
+                .description("Reminder logs that could not be written even when retried individually")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("reminder.log.flush")
+                .description("Reminder log batch insert latency")
+                .register(meterRegistry);
+
+        running = true;
+        flusher = new Thread(this::runFlusher, "reminder-log-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // 不中斷背景執行緒，避免打斷進行中的批次寫入；等待逾時後即會結束
+        running = false;
+        available.release();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        // 背景執行緒結束後，將剩餘日誌寫完
+        flush();
+    }
+
+    /**
+     * 非同步寫入一筆日誌，佇列滿時同步寫入
+     */
+    public void write(ReminderLog log) {
+        LocalDateTime now = LocalDateTime.now();
+        if (log.getCreatedAt() == null) {
+            log.setCreatedAt(now);
+        }
+        if (log.getSentTime() == null) {
+            log.setSentTime(now);
+        }
+
+        if (queue.offer(log)) {
+            available.release();
+        } else {
+            backpressure.increment();
+            logger.warn("Reminder log queue full ({}), writing synchronously", properties.getQueueCapacity());
+            insert(List.of(log));
+        }
+    }
+
+    /**
+     * 立即同步寫入佇列中所有日誌，並等待背景執行緒進行中的批次寫完
+     * 供需要讀取剛發送日誌的流程（如使用者確認提醒）在查詢前呼叫，回傳時呼叫前已排入的日誌都已寫入
+     */
+    public void flush() {
+        batchLock.lock();
+        try {
+            List<ReminderLog> batch = new ArrayList<>(properties.getBatchSize());
+            while (queue.drainTo(batch, properties.getBatchSize()) > 0) {
+                insert(batch);
+                batch = new ArrayList<>(properties.getBatchSize());
+            }
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        while (running) {
+            try {
+                awaitBatch();
+                writeBatch();
+            } catch (InterruptedException e) {
+                // 關閉中，剩餘日誌由 shutdown 同步寫入
+                return;
+            } catch (Exception e) {
+                logger.error("Reminder log writer failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 等待佇列累積到 batchSize 筆或超過 flushIntervalMs；只等待不取出，取出由 {@link #writeBatch()} 在鎖內進行
+     */
+    private void awaitBatch() throws InterruptedException {
+        // 先清空許可再檢查佇列長度，之後排入的日誌都會再釋放許可，不會漏掉喚醒
+        available.drainPermits();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getFlushIntervalMs());
+        while (running && queue.size() < properties.getBatchSize()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            available.tryAcquire(remaining, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void writeBatch() {
+        batchLock.lock();
+        try {
+            List<ReminderLog> batch = new ArrayList<>(properties.getBatchSize());
+            if (queue.drainTo(batch, properties.getBatchSize()) > 0) {
+                insert(batch);
+            }
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    private void insert(List<ReminderLog> batch) {
+        try {
+            flushTimer.record(() -> jdbcTemplate.update(
+                    INSERT_SQL + String.join(", ", Collections.nCopies(batch.size(), ROW_PLACEHOLDERS)),
+                    ps -> {
+                        int i = 1;
+                        for (ReminderLog log : batch) {
+                            ps.setLong(i++, log.getReminderId());
+                            ps.setString(i++, log.getRoomId());
+                            ps.setTimestamp(i++, Timestamp.valueOf(log.getSentTime()));
+                            ps.setString(i++, log.getStatus());
+                            ps.setString(i++, log.getErrorMessage());
+                            ps.setString(i++, log.getDeliveryMethod());
+                            ps.setTimestamp(i++, Timestamp.valueOf(log.getCreatedAt()));
+                        }
+                    }));
+            written.increment(batch.size());
+        } catch (Exception e) {
+            if (batch.size() > 1) {
+                // 整批未寫入，逐筆重試，避免單筆錯誤導致整批遺失
+                logger.warn("Failed to write {} reminder logs, retrying individually: {}", batch.size(), e.getMessage());
+                batch.forEach(log -> insert(List.of(log)));
+                return;
+            }
+            ReminderLog log = batch.get(0);
+            dropped.increment();
+            logger.error("Dropped reminder log reminderId={} roomId={} status={} method={} sentTime={} error={}: {}",
+                    log.getReminderId(), log.getRoomId(), log.getStatus(), log.getDeliveryMethod(), log.getSentTime(),
+                    log.getErrorMessage(), e.getMessage(), e);
+        }
+    }
+}
@@ -25,6 +25,7 @@ public class ReminderServiceImpl implements ReminderService {
                 .content(content)
                 .timezone(timezone)
                 .reminderTimeInstant(reminderInstant != null ? reminderInstant.toEpochMilli() : null)
+                .anchorLocalTime(reminderTime)
                 .repeatType(repeatType != null ? repeatType : "ONCE")
                 .notificationChannel(notificationChannel != null ? notificationChannel : "LINE")
                 .status("ACTIVE")
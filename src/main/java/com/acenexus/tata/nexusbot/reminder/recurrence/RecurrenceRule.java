@@ -0,0 +1,186 @@
+package com.acenexus.tata.nexusbot.reminder.recurrence;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 提醒重複規則
+ * 由 {@link RecurrenceRules#parse(String)} 從 reminders.repeat_type 解析而來。
+ * 每個規則以封閉公式直接算出「上一次觸發之後、且晚於 after」的下一個觸發時間，
+ * 不論停機多久都只需常數次計算（不再逐次 plus 迴圈追趕）。
+ * 日 / 週 / 月規則每次都由提醒最初設定的本地日期時間（anchor）重新計算，
+ * 跨越夏令時間缺口時只有當次順延，之後回到原本的本地時刻；月底縮短的日期也不會沿用到之後的月份。
+ * 固定間隔規則（每 N 小時 / 分鐘）以絕對時間推進。
+ */
+public sealed interface RecurrenceRule {
+
+    /**
+     * 計算下一次觸發時間
+     *
+     * @param previous 上一次觸發時間（含提醒時區）
+     * @param anchor   提醒最初設定的本地日期時間，日 / 週 / 月規則的日期與時刻以此為準
+     * @param after    下一次觸發時間必須晚於此時間點（通常為現在）
+     * @return 下一次觸發時間；不再重複時為 empty
+     */
+    Optional<ZonedDateTime> next(ZonedDateTime previous, LocalDateTime anchor, Instant after);
+
+    /**
+     * 以上一次觸發的本地時間作為 anchor 計算下一次觸發時間
+     */
+    default Optional<ZonedDateTime> next(ZonedDateTime previous, Instant after) {
+        return next(previous, previous.toLocalDateTime(), after);
+    }
+
+    /**
+     * 是否為會重複的規則
+     */
+    default boolean isRepeating() {
+        return true;
+    }
+
+    /**
+     * 僅一次
+     */
+    record Once() implements RecurrenceRule {
+        @Override
+        public Optional<ZonedDateTime> next(ZonedDateTime previous, LocalDateTime anchor, Instant after) {
+            return Optional.empty();
+        }
+
+        @Override
+        public boolean isRepeating() {
+            return false;
+        }
+    }
+
+    /**
+     * 每 N 天（同一本地時刻）
+     */
+    record Daily(int interval) implements RecurrenceRule {
+        @Override
+        public Optional<ZonedDateTime> next(ZonedDateTime previous, LocalDateTime anchor, Instant after) {
+            ZoneId zone = previous.getZone();
+            LocalDate afterDate = after.atZone(zone).toLocalDate();
+
+            long days = ChronoUnit.DAYS.between(anchor.toLocalDate(), afterDate);
+            long steps = Math.max(0, Math.floorDiv(days, interval));
+
+            ZonedDateTime candidate = anchor.plusDays(steps * interval).atZone(zone);
+            while (!isFuture(candidate, previous, after)) {
+                steps++;
+                candidate = anchor.plusDays(steps * interval).atZone(zone);
+            }
+            return Optional.of(candidate);
+        }
+    }
+
+    /**
+     * 每 N 週的指定星期（未指定時沿用 anchor 的星期）
+     */
+    record Weekly(int interval, Set<DayOfWeek> days) implements RecurrenceRule {
+
+        public Weekly {
+            days = Collections.unmodifiableSet(days.isEmpty() ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.copyOf(days));
+        }
+
+        @Override
+        public Optional<ZonedDateTime> next(ZonedDateTime previous, LocalDateTime anchor, Instant after) {
+            ZoneId zone = previous.getZone();
+            LocalTime time = anchor.toLocalTime();
+            Set<DayOfWeek> effectiveDays = days.isEmpty() ? EnumSet.of(anchor.getDayOfWeek()) : days;
+
+            LocalDate anchorWeek = weekStart(anchor.toLocalDate());
+            LocalDate afterDate = after.atZone(zone).toLocalDate();
+            LocalDate previousDate = previous.toLocalDate();
+            LocalDate from = afterDate.isAfter(previousDate) ? afterDate : previousDate;
+            LocalDate week = weekStart(from);
+
+            // 對齊到下一個符合間隔的週
+            long offset = Math.floorMod(ChronoUnit.WEEKS.between(anchorWeek, week), interval);
+            if (offset != 0) {
+                week = week.plusWeeks(interval - offset);
+                from = week;
+            }
+
+            // 最多檢查三個符合間隔的週：起始週的日期可能都已過去，下一週即有結果；第三週保留給 previous 晚於 after 的情況
+            for (int round = 0; round < 3; round++) {
+                for (LocalDate day = from; day.isBefore(week.plusWeeks(1)); day = day.plusDays(1)) {
+                    if (!effectiveDays.contains(day.getDayOfWeek())) {
+                        continue;
+                    }
+                    ZonedDateTime candidate = day.atTime(time).atZone(zone);
+                    if (isFuture(candidate, previous, after)) {
+                        return Optional.of(candidate);
+                    }
+                }
+                week = week.plusWeeks(interval);
+                from = week;
+            }
+            return Optional.empty();
+        }
+
+        private static LocalDate weekStart(LocalDate date) {
+            return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+    }
+
+    /**
+     * 每 N 個月的指定日期（0 表示沿用 anchor 的日期；月份天數不足時取該月最後一天，下個月仍回到原日期）
+     */
+    record Monthly(int interval, int dayOfMonth) implements RecurrenceRule {
+        @Override
+        public Optional<ZonedDateTime> next(ZonedDateTime previous, LocalDateTime anchor, Instant after) {
+            ZoneId zone = previous.getZone();
+            int day = dayOfMonth > 0 ? dayOfMonth : anchor.getDayOfMonth();
+
+            YearMonth anchorMonth = YearMonth.from(anchor);
+            long months = ChronoUnit.MONTHS.between(anchorMonth, YearMonth.from(after.atZone(zone)));
+            long steps = Math.max(0, Math.floorDiv(months, interval));
+
+            ZonedDateTime candidate = atMonth(anchorMonth.plusMonths(steps * interval), day, anchor.toLocalTime(), zone);
+            while (!isFuture(candidate, previous, after)) {
+                steps++;
+                candidate = atMonth(anchorMonth.plusMonths(steps * interval), day, anchor.toLocalTime(), zone);
+            }
+            return Optional.of(candidate);
+        }
+
+        private static ZonedDateTime atMonth(YearMonth month, int day, LocalTime time, ZoneId zone) {
+            return month.atDay(Math.min(day, month.lengthOfMonth())).atTime(time).atZone(zone);
+        }
+    }
+
+    /**
+     * 固定間隔（每 N 小時 / 分鐘），以絕對時間推進，不受夏令時間影響
+     */
+    record FixedInterval(Duration period) implements RecurrenceRule {
+        @Override
+        public Optional<ZonedDateTime> next(ZonedDateTime previous, LocalDateTime anchor, Instant after) {
+            long periodMillis = period.toMillis();
+            long previousMillis = previous.toInstant().toEpochMilli();
+            long elapsed = after.toEpochMilli() - previousMillis;
+            long steps = elapsed < 0 ? 1 : elapsed / periodMillis + 1;
+
+            Instant next = Instant.ofEpochMilli(previousMillis + steps * periodMillis);
+            return Optional.of(next.atZone(previous.getZone()));
+        }
+    }
+
+    private static boolean isFuture(ZonedDateTime candidate, ZonedDateTime previous, Instant after) {
+        Instant instant = candidate.toInstant();
+        return instant.isAfter(after) && instant.isAfter(previous.toInstant());
+    }
+}
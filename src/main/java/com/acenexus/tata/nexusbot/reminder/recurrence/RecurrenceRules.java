@@ -0,0 +1,214 @@
+package com.acenexus.tata.nexusbot.reminder.recurrence;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 重複規則解析工具
+ * 支援的 repeat_type 格式：
+ * - 關鍵字：ONCE, DAILY, WEEKLY, WEEKDAYS, MONTHLY
+ * - RRULE 子集：RRULE:FREQ=DAILY|WEEKLY|MONTHLY|HOURLY|MINUTELY;INTERVAL=n;BYDAY=MO,WE;BYMONTHDAY=n
+ * 例如：
+ * - RRULE:FREQ=HOURLY;INTERVAL=4        每 4 小時
+ * - RRULE:FREQ=WEEKLY;BYDAY=MO,WE,FR    每週一、三、五
+ * - RRULE:FREQ=MONTHLY;BYMONTHDAY=15    每月 15 日
+ * 解析結果為不可變物件，依原始字串快取，排程器每次推進不需重複解析。
+ */
+public final class RecurrenceRules {
+
+    public static final String ONCE = "ONCE";
+    public static final String DAILY = "DAILY";
+    public static final String WEEKLY = "WEEKLY";
+    public static final String WEEKDAYS = "WEEKDAYS";
+    public static final String MONTHLY = "MONTHLY";
+
+    private static final String RRULE_PREFIX = "RRULE:";
+    private static final int MAX_CACHE_SIZE = 1024;
+
+    private static final Map<String, RecurrenceRule> CACHE = new ConcurrentHashMap<>();
+
+    private static final Map<String, DayOfWeek> DAY_CODES = Map.of(
+            "MO", DayOfWeek.MONDAY,
+            "TU", DayOfWeek.TUESDAY,
+            "WE", DayOfWeek.WEDNESDAY,
+            "TH", DayOfWeek.THURSDAY,
+            "FR", DayOfWeek.FRIDAY,
+            "SA", DayOfWeek.SATURDAY,
+            "SU", DayOfWeek.SUNDAY
+    );
+
+    private static final Map<DayOfWeek, String> DAY_NAMES = Map.of(
+            DayOfWeek.MONDAY, "一",
+            DayOfWeek.TUESDAY, "二",
+            DayOfWeek.WEDNESDAY, "三",
+            DayOfWeek.THURSDAY, "四",
+            DayOfWeek.FRIDAY, "五",
+            DayOfWeek.SATURDAY, "六",
+            DayOfWeek.SUNDAY, "日"
+    );
+
+    private RecurrenceRules() {
+    }
+
+    /**
+     * 解析重複規則
+     *
+     * @param repeatType reminders.repeat_type 欄位值
+     * @return 重複規則
+     * @throws IllegalArgumentException 格式無法辨識時
+     */
+    public static RecurrenceRule parse(String repeatType) {
+        if (repeatType == null || repeatType.isBlank()) {
+            return new RecurrenceRule.Once();
+        }
+        RecurrenceRule cached = CACHE.get(repeatType);
+        if (cached != null) {
+            return cached;
+        }
+
+        RecurrenceRule rule = doParse(repeatType.trim().toUpperCase(Locale.ROOT));
+        if (CACHE.size() < MAX_CACHE_SIZE) {
+            CACHE.put(repeatType, rule);
+        }
+        return rule;
+    }
+
+    /**
+     * 檢查重複規則格式是否合法
+     */
+    public static boolean isValid(String repeatType) {
+        try {
+            parse(repeatType);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 轉換重複規則為可讀文字（無法解析時視為僅一次）
+     */
+    public static String describe(String repeatType) {
+        RecurrenceRule rule;
+        try {
+            rule = parse(repeatType);
+        } catch (IllegalArgumentException e) {
+            return "僅一次";
+        }
+
+        if (rule instanceof RecurrenceRule.Daily daily) {
+            return daily.interval() == 1 ? "每日重複" : "每 " + daily.interval() + " 天重複";
+        }
+        if (rule instanceof RecurrenceRule.Weekly weekly) {
+            String prefix = weekly.interval() == 1 ? "每週" : "每 " + weekly.interval() + " 週";
+            if (weekly.days().isEmpty()) {
+                return prefix + "重複";
+            }
+            if (weekly.interval() == 1 && weekly.days().equals(weekdays())) {
+                return "平日重複";
+            }
+            StringBuilder names = new StringBuilder();
+            for (DayOfWeek day : weekly.days()) {
+                names.append(DAY_NAMES.get(day));
+            }
+            return prefix + "（" + names + "）重複";
+        }
+        if (rule instanceof RecurrenceRule.Monthly monthly) {
+            String prefix = monthly.interval() == 1 ? "每月" : "每 " + monthly.interval() + " 個月";
+            return monthly.dayOfMonth() > 0 ? prefix + " " + monthly.dayOfMonth() + " 日重複" : prefix + "重複";
+        }
+        if (rule instanceof RecurrenceRule.FixedInterval fixed) {
+            long minutes = fixed.period().toMinutes();
+            return minutes % 60 == 0 ? "每 " + minutes / 60 + " 小時重複" : "每 " + minutes + " 分鐘重複";
+        }
+        return "僅一次";
+    }
+
+    private static RecurrenceRule doParse(String value) {
+        return switch (value) {
+            case ONCE -> new RecurrenceRule.Once();
+            case DAILY -> new RecurrenceRule.Daily(1);
+            case WEEKLY -> new RecurrenceRule.Weekly(1, EnumSet.noneOf(DayOfWeek.class));
+            case WEEKDAYS -> new RecurrenceRule.Weekly(1, weekdays());
+            case MONTHLY -> new RecurrenceRule.Monthly(1, 0);
+            default -> {
+                if (!value.startsWith(RRULE_PREFIX)) {
+                    throw new IllegalArgumentException("Unknown repeat type: " + value);
+                }
+                yield parseRRule(value.substring(RRULE_PREFIX.length()));
+            }
+        };
+    }
+
+    private static RecurrenceRule parseRRule(String body) {
+        Map<String, String> parts = new HashMap<>();
+        for (String part : body.split(";")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            String[] kv = part.split("=", 2);
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Invalid RRULE part: " + part);
+            }
+            parts.put(kv[0].trim(), kv[1].trim());
+        }
+
+        String freq = parts.get("FREQ");
+        if (freq == null) {
+            throw new IllegalArgumentException("RRULE missing FREQ: " + body);
+        }
+        int interval = parsePositive(parts.getOrDefault("INTERVAL", "1"), "INTERVAL");
+
+        return switch (freq) {
+            case "MINUTELY" -> new RecurrenceRule.FixedInterval(Duration.ofMinutes(interval));
+            case "HOURLY" -> new RecurrenceRule.FixedInterval(Duration.ofHours(interval));
+            case "DAILY" -> new RecurrenceRule.Daily(interval);
+            case "WEEKLY" -> new RecurrenceRule.Weekly(interval, parseDays(parts.get("BYDAY")));
+            case "MONTHLY" -> {
+                int dayOfMonth = parts.containsKey("BYMONTHDAY") ? parsePositive(parts.get("BYMONTHDAY"), "BYMONTHDAY") : 0;
+                if (dayOfMonth > 31) {
+                    throw new IllegalArgumentException("BYMONTHDAY out of range: " + dayOfMonth);
+                }
+                yield new RecurrenceRule.Monthly(interval, dayOfMonth);
+            }
+            default -> throw new IllegalArgumentException("Unsupported RRULE FREQ: " + freq);
+        };
+    }
+
+    private static Set<DayOfWeek> parseDays(String byDay) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        if (byDay == null || byDay.isBlank()) {
+            return days;
+        }
+        for (String code : byDay.split(",")) {
+            DayOfWeek day = DAY_CODES.get(code.trim());
+            if (day == null) {
+                throw new IllegalArgumentException("Invalid BYDAY value: " + code);
+            }
+            days.add(day);
+        }
+        return days;
+    }
+
+    private static int parsePositive(String value, String name) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed <= 0) {
+                throw new IllegalArgumentException(name + " must be positive: " + value);
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static Set<DayOfWeek> weekdays() {
+        return EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+    }
+}
@@ -2,12 +2,10 @@ package com.acenexus.tata.nexusbot.repository;
 
 import com.acenexus.tata.nexusbot.entity.ChatMessage;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -18,62 +16,20 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
 
     /**
      * 查詢指定聊天室最近的 N 筆訊息記錄
+     * 只取聊天室對話記錄清除時間（chat_rooms.history_cleared_at）之後的訊息
      *
      * @param roomId 聊天室 ID
      * @param limit  限制筆數
      * @return 最近的訊息記錄列表（按時間降序）
      */
     @Query(value = """
-            SELECT * FROM chat_messages 
-            WHERE room_id = :roomId AND deleted_at IS NULL
-            ORDER BY created_at DESC 
+            SELECT m.* FROM chat_messages m
+            LEFT JOIN chat_rooms r ON r.room_id = m.room_id
+            WHERE m.room_id = :roomId AND m.deleted_at IS NULL
+              AND (r.history_cleared_at IS NULL OR m.created_at > r.history_cleared_at)
+            ORDER BY m.created_at DESC, m.id DESC
             LIMIT :limit
             """, nativeQuery = true)
     List<ChatMessage> findRecentMessagesDesc(@Param("roomId") String roomId,
                                              @Param("limit") int limit);
-
-    /**
-     * 軟刪除指定聊天室的所有歷史記錄
-     *
-     * @param roomId 聊天室 ID
-     */
-    @Modifying
-    @Query("UPDATE ChatMessage SET deletedAt = CURRENT_TIMESTAMP WHERE roomId = :roomId AND deletedAt IS NULL")
-    void softDeleteByRoomId(@Param("roomId") String roomId);
-
-    /**
-     * 統計總消息數量
-     */
-    @Query("SELECT COUNT(m) FROM ChatMessage m WHERE m.deletedAt IS NULL")
-    long countTotalMessages();
-
-    /**
-     * 統計 AI 消息數量
-     */
-    @Query("SELECT COUNT(m) FROM ChatMessage m WHERE m.messageType = 'AI' AND m.deletedAt IS NULL")
-    long countAiMessages();
-
-    /**
-     * 統計用戶消息數量
-     */
-    @Query("SELECT COUNT(m) FROM ChatMessage m WHERE m.messageType = 'USER' AND m.deletedAt IS NULL")
-    long countUserMessages();
-
-    /**
-     * 計算 AI 平均響應時間
-     */
-    @Query("SELECT AVG(m.processingTimeMs) FROM ChatMessage m WHERE m.processingTimeMs IS NOT NULL AND m.deletedAt IS NULL")
-    Double getAverageProcessingTime();
-
-    /**
-     * 統計指定時間點之後的活躍聊天室數量
-     */
-    @Query("SELECT COUNT(DISTINCT m.roomId) FROM ChatMessage m WHERE m.createdAt >= :since AND m.deletedAt IS NULL")
-    long countActiveRoomsSince(@Param("since") LocalDateTime since);
-
-    /**
-     * 統計 AI Token 總消耗量
-     */
-    @Query("SELECT COALESCE(SUM(m.tokensUsed), 0) FROM ChatMessage m WHERE m.deletedAt IS NULL")
-    long sumTotalTokensUsed();
-}
\ No newline at end of file
+}
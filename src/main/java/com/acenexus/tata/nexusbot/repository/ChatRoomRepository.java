@@ -2,10 +2,12 @@ package com.acenexus.tata.nexusbot.repository;
 
 import com.acenexus.tata.nexusbot.entity.ChatRoom;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 /**
@@ -28,6 +30,17 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
     @Query("SELECT c.aiEnabled FROM ChatRoom c WHERE c.roomId = :roomId")
     Optional<Boolean> findAiEnabledByRoomId(@Param("roomId") String roomId);
 
+    /**
+     * 設定聊天室的對話記錄清除時間（單筆更新，較早的訊息由背景排程刪除）
+     *
+     * @param roomId    聊天室 ID
+     * @param clearedAt 清除時間
+     * @return 更新筆數，聊天室不存在時為 0
+     */
+    @Modifying
+    @Query("UPDATE ChatRoom c SET c.historyClearedAt = :clearedAt, c.updatedAt = :clearedAt WHERE c.roomId = :roomId")
+    int markHistoryCleared(@Param("roomId") String roomId, @Param("clearedAt") LocalDateTime clearedAt);
+
     /**
      * 統計總聊天室數量
      */
@@ -0,0 +1,107 @@
+package com.acenexus.tata.nexusbot.repository;
+
+import com.acenexus.tata.nexusbot.entity.NotificationOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    /**
+     * 查詢可認領的通知 ID：到期的 PENDING，或租約已逾期的 PROCESSING（投遞中節點失效）
+     */
+    @Query("""
+            SELECT o.id FROM NotificationOutbox o
+            WHERE (o.status = 'PENDING' AND o.nextAttemptAt <= :now)
+               OR (o.status = 'PROCESSING' AND o.lockedUntil < :now)
+            ORDER BY o.id ASC
+            """)
+    List<Long> findClaimableIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * 以條件式更新認領通知，多實例同時認領時只有一個會成功
+     *
+     * @return 實際認領筆數
+     */
+    @Modifying
+    @Query("""
+            UPDATE NotificationOutbox o
+            SET o.status = 'PROCESSING', o.claimToken = :token, o.lockedUntil = :lockedUntil
+            WHERE o.id IN :ids
+              AND ((o.status = 'PENDING' AND o.nextAttemptAt <= :now)
+                OR (o.status = 'PROCESSING' AND o.lockedUntil < :now))
+            """)
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token,
+              @Param("now") LocalDateTime now, @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    /**
+     * 一併認領與已認領通知同一投遞批次、尚未投遞成功的通知，讓合併 Push 以原本的整組通知重試
+     *
+     * @return 額外認領筆數
+     */
+    @Modifying
+    @Query("""
+            UPDATE NotificationOutbox o
+            SET o.status = 'PROCESSING', o.claimToken = :token, o.lockedUntil = :lockedUntil
+            WHERE o.deliveryBatchId IN :batchIds
+              AND (o.status = 'PENDING' OR (o.status = 'PROCESSING' AND o.lockedUntil < :now))
+            """)
+    int claimDeliveryBatches(@Param("batchIds") Collection<String> batchIds, @Param("token") String token,
+                             @Param("now") LocalDateTime now, @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    /**
+     * 為尚未分批的通知寫入投遞批次 ID
+     */
+    @Modifying
+    @Query("""
+            UPDATE NotificationOutbox o
+            SET o.deliveryBatchId = :batchId
+            WHERE o.id IN :ids AND o.claimToken = :token AND o.deliveryBatchId IS NULL
+            """)
+    int assignDeliveryBatch(@Param("ids") Collection<Long> ids, @Param("token") String token, @Param("batchId") String batchId);
+
+    /**
+     * 查詢指定認領批次的通知
+     */
+    @Query("SELECT o FROM NotificationOutbox o WHERE o.claimToken = :token ORDER BY o.id ASC")
+    List<NotificationOutbox> findByClaimToken(@Param("token") String token);
+
+    /**
+     * 標記投遞成功
+     */
+    @Modifying
+    @Query("""
+            UPDATE NotificationOutbox o
+            SET o.status = 'SENT', o.attempts = o.attempts + 1, o.sentAt = :now, o.lockedUntil = NULL, o.claimToken = NULL
+            WHERE o.id = :id AND o.claimToken = :token
+            """)
+    int markSent(@Param("id") Long id, @Param("token") String token, @Param("now") LocalDateTime now);
+
+    /**
+     * 標記投遞失敗，依 status 決定重試（PENDING）或放棄（FAILED）
+     */
+    @Modifying
+    @Query("""
+            UPDATE NotificationOutbox o
+            SET o.status = :status, o.attempts = o.attempts + 1, o.nextAttemptAt = :nextAttemptAt,
+                o.lastError = :error, o.lockedUntil = NULL, o.claimToken = NULL
+            WHERE o.id = :id AND o.claimToken = :token
+            """)
+    int markFailed(@Param("id") Long id, @Param("token") String token, @Param("status") String status,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    /**
+     * 刪除指定時間之前已投遞成功的通知
+     */
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox o WHERE o.status = 'SENT' AND o.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
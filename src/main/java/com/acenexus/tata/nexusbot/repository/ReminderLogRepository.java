@@ -2,11 +2,14 @@ package com.acenexus.tata.nexusbot.repository;
 
 import com.acenexus.tata.nexusbot.entity.ReminderLog;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,9 +23,32 @@ public interface ReminderLogRepository extends JpaRepository<ReminderLog, Long>
     List<ReminderLog> findUserResponsesByReminderIds(@Param("reminderIds") List<Long> reminderIds);
 
     /**
-     * 根據確認 Token 查詢 ReminderLog
+     * 標記 Email 提醒已確認（僅已寄出且第一次確認生效）
+     *
+     * @return 實際更新筆數，0 表示不存在、未寄出（PENDING / FAILED）或已確認過
      */
-    Optional<ReminderLog> findByConfirmationToken(String confirmationToken);
+    @Modifying
+    @Query("UPDATE ReminderLog rl SET rl.confirmedAt = :now WHERE rl.id = :id AND rl.status = 'SENT' AND rl.confirmedAt IS NULL")
+    int confirmById(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * 以舊版 UUID 確認 Token 查詢日誌 ID（HMAC Token 上線前寄出的連結）
+     * confirmation_token 已不對應實體欄位；超過 email.confirmation-ttl-days 後移除欄位時一併移除此查詢
+     *
+     * @param notBefore 只接受此時間之後寄出的日誌
+     */
+    @Query(value = "SELECT id FROM reminder_logs WHERE confirmation_token = :token AND sent_time >= :notBefore", nativeQuery = true)
+    Optional<Long> findIdByLegacyConfirmationToken(@Param("token") String token, @Param("notBefore") LocalDateTime notBefore);
+
+    /**
+     * 更新日誌狀態（Email 寄出後由 PENDING 改為 SENT 或 FAILED），以單一 UPDATE 取代先查詢再合併的 save
+     *
+     * @return 實際更新筆數
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReminderLog rl SET rl.status = :status, rl.errorMessage = :errorMessage WHERE rl.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") String status, @Param("errorMessage") String errorMessage);
 
     /**
      * 查詢指定提醒的最新日誌（用於檢查確認狀態）
@@ -30,6 +56,17 @@ public interface ReminderLogRepository extends JpaRepository<ReminderLog, Long>
     @Query("SELECT rl FROM ReminderLog rl WHERE rl.reminderId = :reminderId ORDER BY rl.createdAt DESC LIMIT 1")
     Optional<ReminderLog> findLatestByReminderId(@Param("reminderId") Long reminderId);
 
+    /**
+     * 一次查詢多個提醒各自的最新日誌（用於提醒列表的確認狀態，避免 N+1）
+     * 以 (reminder_id, created_at) 複合索引取得每個提醒的最大 created_at；同一時間有多筆時會一併回傳，由呼叫端取 id 最大者
+     */
+    @Query("""
+            SELECT rl FROM ReminderLog rl
+            WHERE rl.reminderId IN :reminderIds
+              AND rl.createdAt = (SELECT MAX(r2.createdAt) FROM ReminderLog r2 WHERE r2.reminderId = rl.reminderId)
+            """)
+    List<ReminderLog> findLatestByReminderIds(@Param("reminderIds") Collection<Long> reminderIds);
+
     /**
      * 查詢今日已發送的提醒記錄
      */
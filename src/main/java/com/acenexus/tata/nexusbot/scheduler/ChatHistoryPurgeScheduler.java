@@ -0,0 +1,105 @@
+package com.acenexus.tata.nexusbot.scheduler;
+
+import com.acenexus.tata.nexusbot.config.properties.ChatHistoryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 已清除對話記錄的背景刪除
+ * - 刪除聊天室清除時間點（chat_rooms.history_cleared_at）以前的訊息，以及舊版軟刪除（deleted_at）留下的訊息
+ * - 先查出一批 ID 再依 ID 刪除，每批為獨立的短交易，不會在單一交易中鎖定整個聊天室的訊息與索引
+ * - 每次排程最多執行 chat.history.purge-max-batches-per-run 批，未清完的部分留待下次排程
+ * - 聊天室刪完後將 history_purged_at 設為該次的清除時間點，只有再次清除後才會重新處理
+ * - 多實例同時執行時重複刪除同一批不影響結果
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatHistoryPurgeScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatHistoryPurgeScheduler.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChatHistoryProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private Counter purged;
+
+    private record ClearedRoom(String roomId, LocalDateTime clearedAt) {
+    }
+
+    @PostConstruct
+    public void init() {
+        purged = Counter.builder("chat.history.purged")
+                .description("Chat messages physically deleted after a history clear")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.history.purge-interval-ms:300000}")
+    public void purge() {
+        try {
+            int batches = 0;
+            long deleted = 0;
+
+            List<ClearedRoom> rooms = jdbcTemplate.query(
+                    "SELECT room_id, history_cleared_at FROM chat_rooms WHERE history_cleared_at IS NOT NULL " +
+                            "AND (history_purged_at IS NULL OR history_purged_at < history_cleared_at)",
+                    (rs, rowNum) -> new ClearedRoom(rs.getString("room_id"), rs.getTimestamp("history_cleared_at").toLocalDateTime()));
+            for (ClearedRoom room : rooms) {
+                boolean done = false;
+                while (!done && batches < properties.getPurgeMaxBatchesPerRun()) {
+                    List<Long> ids = jdbcTemplate.queryForList(
+                            "SELECT id FROM chat_messages WHERE room_id = ? AND created_at <= ? ORDER BY created_at LIMIT ?",
+                            Long.class, room.roomId(), room.clearedAt(), properties.getPurgeBatchSize());
+                    if (!ids.isEmpty()) {
+                        deleted += deleteByIds(ids);
+                        batches++;
+                    }
+                    done = ids.size() < properties.getPurgeBatchSize();
+                }
+                if (done) {
+                    // 期間若再次清除，history_cleared_at 已更新，條件不成立，下次排程會重新處理
+                    jdbcTemplate.update("UPDATE chat_rooms SET history_purged_at = ? WHERE room_id = ? AND history_cleared_at = ?",
+                            room.clearedAt(), room.roomId(), room.clearedAt());
+                }
+            }
+
+            // 舊版清除對話記錄以 deleted_at 軟刪除
+            while (batches < properties.getPurgeMaxBatchesPerRun()) {
+                List<Long> ids = jdbcTemplate.queryForList(
+                        "SELECT id FROM chat_messages WHERE deleted_at IS NOT NULL LIMIT ?",
+                        Long.class, properties.getPurgeBatchSize());
+                if (ids.isEmpty()) {
+                    break;
+                }
+                deleted += deleteByIds(ids);
+                batches++;
+                if (ids.size() < properties.getPurgeBatchSize()) {
+                    break;
+                }
+            }
+
+            if (deleted > 0) {
+                purged.increment(deleted);
+                logger.info("Purged {} cleared chat messages in {} batches", deleted, batches);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to purge cleared chat messages: {}", e.getMessage(), e);
+        }
+    }
+
+    private int deleteByIds(List<Long> ids) {
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.update("DELETE FROM chat_messages WHERE id IN (" + placeholders + ")", ids.toArray());
+    }
+}
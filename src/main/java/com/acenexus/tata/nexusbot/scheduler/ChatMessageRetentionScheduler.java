@@ -0,0 +1,33 @@
+package com.acenexus.tata.nexusbot.scheduler;
+
+import com.acenexus.tata.nexusbot.chatroom.retention.ChatMessageRetentionService;
+import com.acenexus.tata.nexusbot.config.properties.ChatRetentionProperties;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 過期聊天訊息封存排程（chat.retention.enabled=true 時才執行）
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatMessageRetentionScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessageRetentionScheduler.class);
+    private final ChatMessageRetentionService retentionService;
+    private final ChatRetentionProperties properties;
+
+    @Scheduled(fixedDelayString = "${chat.retention.interval-ms:3600000}", initialDelay = 60000)
+    public void applyRetention() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            retentionService.run();
+        } catch (Exception e) {
+            logger.error("Failed to apply chat message retention: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.acenexus.tata.nexusbot.scheduler;
+
+import com.acenexus.tata.nexusbot.ai.AIService;
+import com.acenexus.tata.nexusbot.config.properties.GroqProperties;
+import com.acenexus.tata.nexusbot.config.properties.NotificationOutboxProperties;
+import com.acenexus.tata.nexusbot.entity.NotificationOutbox;
+import com.acenexus.tata.nexusbot.notification.LineNotificationService;
+import com.acenexus.tata.nexusbot.notification.NotificationOutboxService;
+import com.acenexus.tata.nexusbot.notification.ReminderNotificationService;
+import com.acenexus.tata.nexusbot.notification.RenderedReminderEmail;
+import com.acenexus.tata.nexusbot.util.MdcTaskDecorator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 提醒通知 Outbox 投遞 worker
+ * - 定期批次認領 outbox 中到期的通知
+ * - 同一次觸發（LINE + 多個 Email）只做一次 AI 內容美化，多個 Email 收件者共用一次模板渲染
+ * - 同一聊天室同批到期的 LINE 通知合併為一次 Push（輪播訊息）；第一次投遞前寫入投遞批次 ID，
+ *   之後重試固定以同一組通知與同一個 Retry Key 重送，不會與新到期的通知重新分組
+ * - 依管道分流到各自的固定大小執行緒池，限制每個管道的同時投遞數；AI 美化（阻塞呼叫）使用獨立的執行緒池
+ * - 投遞結果回寫 outbox：成功標記 SENT，失敗依指數退避排入重試
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationOutboxWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutboxWorker.class);
+
+    private final NotificationOutboxService notificationOutboxService;
+    private final ReminderNotificationService reminderNotificationService;
+    private final NotificationOutboxProperties properties;
+    private final AIService aiService;
+    private final GroqProperties groqProperties;
+
+    private ExecutorService lineExecutor;
+    private ExecutorService emailExecutor;
+    private ExecutorService aiExecutor;
+
+    @PostConstruct
+    public void init() {
+        lineExecutor = Executors.newFixedThreadPool(properties.getLineConcurrency(), namedThreads("outbox-line-"));
+        emailExecutor = Executors.newFixedThreadPool(properties.getEmailConcurrency(), namedThreads("outbox-email-"));
+        aiExecutor = Executors.newFixedThreadPool(properties.getAiConcurrency(), namedThreads("outbox-ai-"));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        lineExecutor.shutdown();
+        emailExecutor.shutdown();
+        aiExecutor.shutdown();
+        // 未完成的通知租約到期後會由下次啟動的實例重新認領
+        lineExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        emailExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        aiExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 持續排空 outbox：上一批投遞完成後才認領下一批
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void drain() {
+        try {
+            List<NotificationOutbox> batch = notificationOutboxService.claimBatch();
+            while (!batch.isEmpty()) {
+                deliverBatch(batch);
+                if (batch.size() < properties.getBatchSize()) {
+                    return;
+                }
+                batch = notificationOutboxService.claimBatch();
+            }
+        } catch (Exception e) {
+            logger.error("Notification outbox drain failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedRate = 3_600_000) // 每小時清理一次已投遞的 outbox
+    public void purgeSent() {
+        try {
+            int purged = notificationOutboxService.purgeSent();
+            if (purged > 0) {
+                logger.info("Purged {} sent notification outbox entries", purged);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to purge notification outbox: {}", e.getMessage(), e);
+        }
+    }
+
+    private void deliverBatch(List<NotificationOutbox> batch) {
+        logger.info("Delivering {} outbox notifications", batch.size());
+
+        // 同一次觸發共用一次 AI 美化結果與一次 Email 模板渲染
+        Map<String, CompletableFuture<String>> enhanced = new HashMap<>();
+        Map<String, CompletableFuture<RenderedReminderEmail>> rendered = new HashMap<>();
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>(batch.size());
+
+        // LINE 通知依聊天室分組，同一聊天室多則提醒合併為一次 Push
+        Map<String, List<NotificationOutbox>> lineByRoom = new LinkedHashMap<>();
+
+        for (NotificationOutbox entry : batch) {
+            if ("LINE".equals(entry.getChannel())) {
+                lineByRoom.computeIfAbsent(entry.getRoomId(), k -> new ArrayList<>()).add(entry);
+                continue;
+            }
+            if ("EMAIL".equals(entry.getChannel())) {
+                CompletableFuture<RenderedReminderEmail> email = rendered.computeIfAbsent(firingKey(entry),
+                        key -> enhancedContent(enhanced, entry).thenApply(content -> reminderNotificationService.renderEmail(entry, content)));
+                deliveries.add(email.handleAsync((renderedEmail, error) -> {
+                    deliverEmail(entry, renderedEmail, error);
+                    return null;
+                }, emailExecutor));
+                continue;
+            }
+            deliveries.add(enhancedContent(enhanced, entry).thenAcceptAsync(content -> deliver(entry, content), lineExecutor));
+        }
+
+        for (Map.Entry<String, List<NotificationOutbox>> group : lineByRoom.entrySet()) {
+            String roomId = group.getKey();
+            for (List<NotificationOutbox> entries : deliveryBatches(group.getValue())) {
+                if (entries.size() == 1 && entries.get(0).getDeliveryBatchId() == null) {
+                    NotificationOutbox entry = entries.get(0);
+                    deliveries.add(enhancedContent(enhanced, entry).thenAcceptAsync(content -> deliver(entry, content), lineExecutor));
+                    continue;
+                }
+
+                List<CompletableFuture<String>> contents = entries.stream().map(entry -> enhancedContent(enhanced, entry)).toList();
+                deliveries.add(CompletableFuture.allOf(contents.toArray(new CompletableFuture[0]))
+                        .thenRunAsync(() -> deliverAggregated(roomId, entries, contents.stream().map(CompletableFuture::join).toList()), lineExecutor));
+            }
+        }
+
+        CompletableFuture.allOf(deliveries.toArray(new CompletableFuture[0])).join();
+    }
+
+    /**
+     * 將同一聊天室的 LINE 通知分成各次 Push
+     * 已分批的通知（先前投遞失敗的重試）維持原本的分組；未分批的通知每 {@link LineNotificationService#MAX_REMINDERS_PER_PUSH}
+     * 筆一組，多於一筆時在投遞前寫入新的投遞批次 ID。只有一筆時以單則 Push 投遞，不需分批。
+     */
+    private List<List<NotificationOutbox>> deliveryBatches(List<NotificationOutbox> entries) {
+        Map<String, List<NotificationOutbox>> batches = new LinkedHashMap<>();
+        List<NotificationOutbox> unbatched = new ArrayList<>();
+        for (NotificationOutbox entry : entries) {
+            if (entry.getDeliveryBatchId() != null) {
+                batches.computeIfAbsent(entry.getDeliveryBatchId(), k -> new ArrayList<>()).add(entry);
+            } else {
+                unbatched.add(entry);
+            }
+        }
+
+        List<List<NotificationOutbox>> result = new ArrayList<>(batches.values());
+        if (unbatched.size() == 1) {
+            result.add(unbatched);
+            return result;
+        }
+        for (int from = 0; from < unbatched.size(); from += LineNotificationService.MAX_REMINDERS_PER_PUSH) {
+            List<NotificationOutbox> chunk = unbatched.subList(from, Math.min(from + LineNotificationService.MAX_REMINDERS_PER_PUSH, unbatched.size()));
+            notificationOutboxService.assignDeliveryBatch(chunk);
+            result.add(chunk);
+        }
+        return result;
+    }
+
+    private CompletableFuture<String> enhancedContent(Map<String, CompletableFuture<String>> enhanced, NotificationOutbox entry) {
+        return enhanced.computeIfAbsent(firingKey(entry),
+                key -> CompletableFuture.supplyAsync(MdcTaskDecorator.wrapSupplier(() -> enhanceReminderWithAI(entry.getContent())), aiExecutor));
+    }
+
+    private static String firingKey(NotificationOutbox entry) {
+        return entry.getReminderId() + ":" + entry.getFiredAtInstant();
+    }
+
+    private void deliverEmail(NotificationOutbox entry, RenderedReminderEmail email, Throwable renderError) {
+        if (renderError != null) {
+            logger.error("Outbox [{}] email rendering failed: {}", entry.getId(), renderError.getMessage(), renderError);
+            notificationOutboxService.markFailed(entry, renderError.getMessage());
+            return;
+        }
+        try {
+            if (reminderNotificationService.deliverEmail(entry, email)) {
+                notificationOutboxService.markSent(entry);
+                logger.info("Outbox [{}] EMAIL notification delivered for reminder [{}]", entry.getId(), entry.getReminderId());
+            } else {
+                notificationOutboxService.markFailed(entry, "EMAIL delivery returned failure");
+            }
+        } catch (Exception e) {
+            logger.error("Outbox [{}] delivery threw: {}", entry.getId(), e.getMessage(), e);
+            notificationOutboxService.markFailed(entry, e.getMessage());
+        }
+    }
+
+    private void deliver(NotificationOutbox entry, String enhancedContent) {
+        try {
+            if (reminderNotificationService.deliver(entry, enhancedContent)) {
+                notificationOutboxService.markSent(entry);
+                logger.info("Outbox [{}] {} notification delivered for reminder [{}]", entry.getId(), entry.getChannel(), entry.getReminderId());
+            } else {
+                notificationOutboxService.markFailed(entry, entry.getChannel() + " delivery returned failure");
+            }
+        } catch (Exception e) {
+            logger.error("Outbox [{}] delivery threw: {}", entry.getId(), e.getMessage(), e);
+            notificationOutboxService.markFailed(entry, e.getMessage());
+        }
+    }
+
+    private void deliverAggregated(String roomId, List<NotificationOutbox> entries, List<String> enhancedContents) {
+        try {
+            if (reminderNotificationService.deliverLineAggregated(roomId, entries, enhancedContents)) {
+                entries.forEach(notificationOutboxService::markSent);
+                logger.info("Aggregated {} LINE notifications for room [{}]", entries.size(), roomId);
+            } else {
+                entries.forEach(entry -> notificationOutboxService.markFailed(entry, "LINE aggregated delivery returned failure"));
+            }
+        } catch (Exception e) {
+            logger.error("Aggregated LINE delivery for room [{}] threw: {}", roomId, e.getMessage(), e);
+            entries.forEach(entry -> notificationOutboxService.markFailed(entry, e.getMessage()));
+        }
+    }
+
+    /**
+     * 用 AI 美化提醒內容
+     */
+    private String enhanceReminderWithAI(String originalContent) {
+        String promptTemplate = """
+                請將以下提醒改寫成適合長輩看的文字，
+                語氣溫馨、體貼、禮貌，
+                簡短不超過10字，帶點鼓勵或祝福，
+                最後加上合適的 emoji。
+                原內容：%s
+                請只回覆改寫後的文字，勿附其他說明，保持自然。
+                """;
+
+        try {
+            String prompt = String.format(promptTemplate, originalContent);
+            AIService.ChatResponse response = aiService.chatWithContext("reminder_enhancement", prompt, groqProperties.getDefaultModel());
+
+            if (response != null && response.success() && response.content() != null && !response.content().trim().isEmpty()) {
+                return response.content().trim();
+            }
+        } catch (Exception e) {
+            logger.error("AI enhancement failed, using original content. Cause: {}", e.getMessage());
+        }
+        return originalContent;
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,7 +1,8 @@
 package com.acenexus.tata.nexusbot.scheduler;
 
-import com.acenexus.tata.nexusbot.config.properties.TimezoneProperties;
 import com.acenexus.tata.nexusbot.entity.Reminder;
+import com.acenexus.tata.nexusbot.notification.ReminderNotificationService;
+import com.acenexus.tata.nexusbot.reminder.RecurrenceEngine;
 import com.acenexus.tata.nexusbot.repository.ReminderRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -9,9 +10,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.ZoneId;
+import java.time.Instant;
 import java.time.ZonedDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.Optional;
 
 import static com.acenexus.tata.nexusbot.constants.TimeFormatters.STANDARD_TIME;
 
@@ -25,57 +26,47 @@ public class ReminderRepeatHandler {
     private static final Logger logger = LoggerFactory.getLogger(ReminderRepeatHandler.class);
 
     private final ReminderRepository reminderRepository;
-    private final TimezoneProperties timezoneProperties;
+    private final RecurrenceEngine recurrenceEngine;
+    private final ReminderNotificationService reminderNotificationService;
 
     /**
-     * 根據重複類型更新提醒狀態：
-     * - ONCE   → 標記為 COMPLETED
-     * - DAILY  → 推進至下一個每日時間點
-     * - WEEKLY → 推進至下一個每週時間點
-     * 整個操作在同一個事務內完成，確保狀態更新的原子性。
+     * 根據重複規則更新提醒狀態：
+     * - 單次提醒 → 標記為 COMPLETED
+     * - 重複提醒 → 由 {@link RecurrenceEngine} 直接算出下一個觸發時間點
+     * - 無法解析的規則 → 標記為 COMPLETED，避免每秒重複觸發
+     * 本次觸發的通知在同一個事務內寫入 outbox，狀態更新與通知排入同時提交或回滾，
+     * 節點在提交後失效也不會遺失通知。
      */
     @Transactional
     public void handle(Reminder reminder) {
-        switch (reminder.getRepeatType().toUpperCase()) {
-            case "ONCE" -> {
-                reminder.setStatus("COMPLETED");
-                reminderRepository.save(reminder);
-                logger.debug("One-time reminder [{}] completed", reminder.getId());
-            }
-            case "DAILY" -> {
-                updateNextReminderTime(reminder, 1, ChronoUnit.DAYS);
-                logger.debug("Daily reminder [{}] updated to: {}", reminder.getId(), reminder.getLocalTime().format(STANDARD_TIME));
-            }
-            case "WEEKLY" -> {
-                updateNextReminderTime(reminder, 1, ChronoUnit.WEEKS);
-                logger.debug("Weekly reminder [{}] updated to: {}", reminder.getId(), reminder.getLocalTime().format(STANDARD_TIME));
-            }
-            default -> {
-                logger.warn("Unknown repeat type '{}' for reminder [{}], marking as completed", reminder.getRepeatType(), reminder.getId());
-                reminder.setStatus("COMPLETED");
-                reminderRepository.save(reminder);
-            }
-        }
-    }
+        // 推進前先記錄本次觸發時間，作為通知快照與冪等鍵
+        long firedAtInstant = reminder.getReminderTimeInstant();
+        reminderNotificationService.enqueue(reminder, firedAtInstant);
 
-    /**
-     * 推進重複提醒的下次觸發時間。
-     * 若因停機導致下次時間仍在過去，持續推進直到進入未來（自愈機制）。
-     */
-    private void updateNextReminderTime(Reminder reminder, long amount, ChronoUnit unit) {
-        String timezone = reminder.getTimezone() != null ? reminder.getTimezone() : timezoneProperties.getDefaultTimezone();
-        ZoneId zoneId = ZoneId.of(timezone);
-
-        ZonedDateTime nextZonedTime = reminder.getLocalTime().atZone(zoneId).plus(amount, unit);
-        ZonedDateTime now = ZonedDateTime.now(zoneId);
+        Optional<ZonedDateTime> next;
+        try {
+            next = recurrenceEngine.nextFireTime(reminder, Instant.now());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown repeat type '{}' for reminder [{}], marking as completed", reminder.getRepeatType(), reminder.getId());
+            next = Optional.empty();
+        }
 
-        while (nextZonedTime.isBefore(now)) {
-            nextZonedTime = nextZonedTime.plus(amount, unit);
+        if (next.isEmpty()) {
+            reminder.setStatus("COMPLETED");
+            reminderRepository.save(reminder);
+            logger.debug("Reminder [{}] completed", reminder.getId());
+            return;
         }
 
+        // 停機期間錯過的觸發點會直接跳過，下次時間必定在未來（自愈機制）
+        ZonedDateTime nextZonedTime = next.get();
+        if (reminder.getAnchorLocalTime() == null) {
+            // 舊資料沒有 anchor，以本次觸發的本地時間補上，之後的觸發不再沿用順延後的時刻
+            reminder.setAnchorLocalTime(Instant.ofEpochMilli(firedAtInstant).atZone(nextZonedTime.getZone()).toLocalDateTime());
+        }
         reminder.setReminderTimeInstant(nextZonedTime.toInstant().toEpochMilli());
         reminderRepository.save(reminder);
 
-        logger.info("Updated repeating reminder [{}]: next execution set to {} ({})", reminder.getId(), nextZonedTime.format(STANDARD_TIME), timezone);
+        logger.info("Updated repeating reminder [{}] ({}): next execution set to {} ({})", reminder.getId(), reminder.getRepeatType(), nextZonedTime.format(STANDARD_TIME), nextZonedTime.getZone());
     }
 }
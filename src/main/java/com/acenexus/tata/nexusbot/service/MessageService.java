@@ -2,6 +2,7 @@ package com.acenexus.tata.nexusbot.service;
 
 import com.linecorp.bot.model.message.Message;
 
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -9,6 +10,18 @@ import java.util.List;
  */
 public interface MessageService {
 
+    /**
+     * 訊息實際的發送方式
+     */
+    enum Delivery {
+        /** 以 Reply Token 回覆 */
+        REPLY,
+        /** Reply Token 已過期，改以 Push 發送 */
+        PUSH,
+        /** Reply Token 已過期且不允許 Push（停用或額度用完），未發送 */
+        DROPPED
+    }
+
     /**
      * 發送文字回覆
      *
@@ -17,6 +30,25 @@ public interface MessageService {
      */
     void sendReply(String replyToken, String messageText);
 
+    /**
+     * 在 Reply Token 期限內以 Reply 回覆，已過期則改用 Push 發送到聊天室
+     * Push 會消耗每月額度，停用或額度用完時不發送
+     *
+     * @param replyToken    回覆 Token
+     * @param replyDeadline Reply Token 期限
+     * @param roomId        聊天室 ID（Push 目標）
+     * @param messageText   消息文字
+     * @return 實際的發送方式
+     */
+    Delivery sendReplyOrPush(String replyToken, Instant replyDeadline, String roomId, String messageText);
+
+    /**
+     * 顯示載入動畫，提示使用者正在處理中（僅一對一聊天有效，設定為 0 秒時不顯示）
+     *
+     * @param userId 使用者 ID
+     */
+    void showLoadingAnimation(String userId);
+
     /**
      * 發送 Message 回覆
      *
@@ -25,6 +57,14 @@ public interface MessageService {
      */
     void sendMessage(String replyToken, Message message);
 
+    /**
+     * 以單次 Reply 發送多則 Message（LINE 上限 5 則，超過的部分捨棄）
+     *
+     * @param replyToken 回覆 Token
+     * @param messages   Message 列表
+     */
+    void sendMessages(String replyToken, List<Message> messages);
+
     /**
      * 發送多則訊息
      *
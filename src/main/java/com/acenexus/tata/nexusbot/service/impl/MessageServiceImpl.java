@@ -1,25 +1,45 @@
 package com.acenexus.tata.nexusbot.service.impl;
 
+import com.acenexus.tata.nexusbot.config.properties.LineApiProperties;
+import com.acenexus.tata.nexusbot.line.LineMessagingGateway;
+import com.acenexus.tata.nexusbot.line.LinePushQuotaService;
 import com.acenexus.tata.nexusbot.service.MessageService;
-import com.linecorp.bot.client.LineMessagingClient;
+import com.acenexus.tata.nexusbot.util.MdcTaskDecorator;
+import com.acenexus.tata.nexusbot.util.TextSplitter;
+import com.linecorp.bot.model.PushMessage;
 import com.linecorp.bot.model.ReplyMessage;
 import com.linecorp.bot.model.message.Message;
 import com.linecorp.bot.model.message.TextMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
-import java.util.ArrayList;
+import java.time.Instant;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class MessageServiceImpl implements MessageService {
     private static final Logger logger = LoggerFactory.getLogger(MessageServiceImpl.class);
-    private final LineMessagingClient lineMessagingClient;
+    private static final int MAX_MESSAGES_PER_REQUEST = 5;
+
+    private final LineMessagingGateway lineMessagingGateway;
+    private final LinePushQuotaService linePushQuotaService;
+    private final LineApiProperties lineApiProperties;
+    private final MeterRegistry meterRegistry;
 
     public void sendReply(String replyToken, String messageText) {
+        sendReply(replyToken, messageText, null);
+    }
+
+    /**
+     * @param onTokenRejected LINE 以 Reply Token 無效拒絕時執行（可為 null）
+     */
+    private void sendReply(String replyToken, String messageText, Runnable onTokenRejected) {
         try {
             if (replyToken == null || replyToken.trim().isEmpty()) {
                 logger.warn("ReplyToken is empty, cannot send reply message");
@@ -35,7 +55,7 @@ public class MessageServiceImpl implements MessageService {
             if (isMessageTooLong(messageText)) {
                 logger.warn("Message length {} exceeds limit, auto-splitting", messageText.length());
                 List<String> splitMessages = splitLongMessage(messageText);
-                sendMultipleReplies(replyToken, splitMessages);
+                sendMessages(replyToken, splitMessages.stream().map(text -> (Message) new TextMessage(text)).toList(), onTokenRejected);
                 return;
             }
 
@@ -43,8 +63,8 @@ public class MessageServiceImpl implements MessageService {
             TextMessage textMessage = new TextMessage(messageText);
             ReplyMessage replyMessage = new ReplyMessage(replyToken, List.of(textMessage));
 
-            lineMessagingClient.replyMessage(replyMessage);
-            logger.info("Successfully replied to user, message length: {} characters", messageText.length());
+            int length = messageText.length();
+            reply(replyMessage, () -> logger.info("Successfully replied to user, message length: {} characters", length), onTokenRejected);
 
         } catch (Exception e) {
             // 記錄錯誤但不拋出異常，避免影響 webhook 的 200 回應
@@ -52,19 +72,120 @@ public class MessageServiceImpl implements MessageService {
         }
     }
 
+    public Delivery sendReplyOrPush(String replyToken, Instant replyDeadline, String roomId, String messageText) {
+        Delivery delivery = resolveDelivery(replyDeadline);
+        switch (delivery) {
+            case REPLY -> sendReply(replyToken, messageText, () -> pushAfterRejectedReply(roomId, messageText));
+            case PUSH -> sendPush(roomId, messageText);
+            case DROPPED -> logger.warn("Reply token expired and push fallback unavailable, dropping message for room {}", roomId);
+        }
+        Counter.builder("line.reply.delivery")
+                .description("Replies by delivery method (reply token vs push fallback)")
+                .tag("method", delivery.name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+        return delivery;
+    }
+
+    public void showLoadingAnimation(String userId) {
+        int seconds = lineApiProperties.getLoadingAnimationSeconds();
+        if (seconds <= 0 || userId == null) {
+            return;
+        }
+        lineMessagingGateway.startLoadingAsync(userId, seconds)
+                .whenComplete(MdcTaskDecorator.wrapBiConsumer((ignored, error) -> {
+                    if (error != null) {
+                        logger.debug("Failed to start loading animation: {}", error.getMessage());
+                    }
+                }));
+    }
+
+    private Delivery resolveDelivery(Instant replyDeadline) {
+        if (Instant.now().isBefore(replyDeadline)) {
+            return Delivery.REPLY;
+        }
+        return canPush() ? Delivery.PUSH : Delivery.DROPPED;
+    }
+
+    private boolean canPush() {
+        return lineApiProperties.isReplyFallbackPushEnabled() && !linePushQuotaService.isExhausted();
+    }
+
+    /**
+     * Reply Token 在期限內仍被 LINE 拒絕（已過期或已使用）時改用 Push
+     */
+    private void pushAfterRejectedReply(String roomId, String messageText) {
+        boolean pushed = canPush();
+        Counter.builder("line.reply.token_rejected")
+                .description("Replies rejected for an invalid reply token")
+                .tag("fallback", pushed ? "push" : "dropped")
+                .register(meterRegistry)
+                .increment();
+        if (pushed) {
+            sendPush(roomId, messageText);
+        } else {
+            logger.warn("Reply token rejected and push fallback unavailable, dropping message for room {}", roomId);
+        }
+    }
+
+    /**
+     * 以 Push 發送文字（過長時拆分，每次請求最多 5 則）
+     */
+    private void sendPush(String roomId, String messageText) {
+        List<String> texts = isMessageTooLong(messageText) ? splitLongMessage(messageText) : List.of(messageText);
+        for (int from = 0; from < texts.size(); from += MAX_MESSAGES_PER_REQUEST) {
+            List<Message> messages = texts.subList(from, Math.min(from + MAX_MESSAGES_PER_REQUEST, texts.size())).stream()
+                    .map(text -> (Message) new TextMessage(text))
+                    .toList();
+            lineMessagingGateway.pushAsync(new PushMessage(roomId, messages))
+                    .whenComplete(MdcTaskDecorator.wrapBiConsumer((ignored, error) -> {
+                        if (error == null) {
+                            logger.info("Reply token expired, pushed {} messages to room {}", messages.size(), roomId);
+                        } else {
+                            logger.error("Error pushing fallback message to room {}: {}", roomId, error.getMessage(), error);
+                        }
+                    }));
+        }
+    }
+
     /**
      * 回覆多則訊息給用戶
      */
     public void sendMultipleReplies(String replyToken, List<String> messageTexts) {
+        sendMessages(replyToken, messageTexts.stream()
+                .map(text -> (Message) new TextMessage(text))
+                .toList());
+    }
+
+    /**
+     * 以單次 Reply 回覆多則訊息，超過 5 則的部分捨棄（記錄於 log 與 line.reply.dropped 指標）
+     */
+    public void sendMessages(String replyToken, List<Message> messages) {
+        sendMessages(replyToken, messages, null);
+    }
+
+    private void sendMessages(String replyToken, List<Message> messages, Runnable onTokenRejected) {
         try {
-            List<Message> textMessages = messageTexts.stream()
-                    .map(text -> (Message) new TextMessage(text))
-                    .toList();
+            if (replyToken == null || replyToken.trim().isEmpty()) {
+                logger.warn("ReplyToken is empty, cannot send {} messages", messages.size());
+                return;
+            }
 
-            ReplyMessage replyMessage = new ReplyMessage(replyToken, textMessages);
+            List<Message> batch = messages;
+            if (messages.size() > MAX_MESSAGES_PER_REQUEST) {
+                List<Message> dropped = messages.subList(MAX_MESSAGES_PER_REQUEST, messages.size());
+                logger.warn("Reply holds {} messages, only the first {} are sent, dropping {}", messages.size(), MAX_MESSAGES_PER_REQUEST,
+                        dropped.stream().map(message -> message.getClass().getSimpleName()).toList());
+                Counter.builder("line.reply.dropped")
+                        .description("Reply messages dropped because they exceed the per-reply limit")
+                        .tag("reason", "overflow")
+                        .register(meterRegistry)
+                        .increment(dropped.size());
+                batch = messages.subList(0, MAX_MESSAGES_PER_REQUEST);
+            }
 
-            lineMessagingClient.replyMessage(replyMessage);
-            logger.info("Successfully sent {} messages to user", messageTexts.size());
+            int count = batch.size();
+            reply(new ReplyMessage(replyToken, List.copyOf(batch)), () -> logger.info("Successfully sent {} messages to user", count), onTokenRejected);
 
         } catch (Exception e) {
             logger.error("Error sending multiple messages: {}", e.getMessage(), e);
@@ -81,17 +202,10 @@ public class MessageServiceImpl implements MessageService {
 
     /**
      * 將過長的訊息拆分成多則較短的訊息
+     * 依字素邊界拆分，避免 Emoji 或組合字元被切成亂碼
      */
     public List<String> splitLongMessage(String longMessage) {
-        List<String> messages = new ArrayList<>();
-        int maxLength = 4800; // 留一些緩衝空間
-
-        for (int i = 0; i < longMessage.length(); i += maxLength) {
-            int endIndex = Math.min(i + maxLength, longMessage.length());
-            messages.add(longMessage.substring(i, endIndex));
-        }
-
-        return messages;
+        return TextSplitter.split(longMessage, 4800); // 留一些緩衝空間
     }
 
     public void sendMessage(String replyToken, Message message) {
@@ -107,11 +221,44 @@ public class MessageServiceImpl implements MessageService {
             }
 
             ReplyMessage replyMessage = new ReplyMessage(replyToken, List.of(message));
-            lineMessagingClient.replyMessage(replyMessage);
-            logger.info("Successfully sent message to user");
+            reply(replyMessage, () -> logger.info("Successfully sent message to user"), null);
 
         } catch (Exception e) {
             logger.error("Error sending message, ReplyToken: {}, Error: {}", replyToken, e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 非同步送出回覆，不阻塞 webhook 執行緒；結果在回呼中記錄（保留 MDC 追蹤資訊）
+     *
+     * @param onTokenRejected LINE 以 Reply Token 無效拒絕時執行（可為 null）
+     */
+    private void reply(ReplyMessage replyMessage, Runnable onSuccess, Runnable onTokenRejected) {
+        lineMessagingGateway.replyAsync(replyMessage)
+                .whenComplete(MdcTaskDecorator.wrapBiConsumer((ignored, error) -> {
+                    if (error == null) {
+                        onSuccess.run();
+                        return;
+                    }
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    if (onTokenRejected != null && isInvalidReplyToken(cause)) {
+                        logger.warn("Reply token rejected by LINE, ReplyToken: {}", replyMessage.getReplyToken());
+                        onTokenRejected.run();
+                        return;
+                    }
+                    logger.error("Error sending reply message, ReplyToken: {}, Error: {}", replyMessage.getReplyToken(), cause.getMessage(), cause);
+                }));
+    }
+
+    /**
+     * LINE 對過期或已使用的 Reply Token 回應 400 Invalid reply token
+     */
+    private static boolean isInvalidReplyToken(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof WebClientResponseException e) {
+                return e.getStatusCode().value() == 400 && e.getResponseBodyAsString().contains("Invalid reply token");
+            }
+        }
+        return false;
+    }
+}
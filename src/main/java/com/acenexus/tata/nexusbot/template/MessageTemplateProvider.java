@@ -65,6 +65,8 @@ public interface MessageTemplateProvider {
     Message buildReminderNotification(String enhancedContent, String originalContent, String repeatType,
                                       Long reminderId, String timezoneDisplay, String reminderTimeDisplay);
 
+    Message reminderNotificationCarousel(List<Message> notifications);
+
     Message timezoneInputMenu(String currentTimezone);
 
     Message timezoneConfirmationMenu(String resolvedTimezone, String timezoneDisplay,
@@ -0,0 +1,90 @@
+package com.acenexus.tata.nexusbot.template;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.linecorp.bot.model.message.Message;
+import com.linecorp.bot.model.message.quickreply.QuickReply;
+import com.linecorp.bot.model.message.sender.Sender;
+import com.linecorp.bot.model.objectmapper.ModelObjectMapper;
+
+import java.io.IOException;
+
+/**
+ * 預先序列化的不可變訊息
+ * 固定內容的選單每次都重建整棵 Bubble / Box / Button 物件樹，LINE SDK 送出時又再序列化一次。
+ * 此類別在建立時以 LINE SDK 相同的 ObjectMapper 序列化一次，之後每次發送直接輸出快取的 JSON。
+ */
+@JsonSerialize(using = PreSerializedMessage.Serializer.class)
+public final class PreSerializedMessage implements Message {
+
+    private static final ObjectMapper OBJECT_MAPPER = ModelObjectMapper.createNewObjectMapper();
+
+    private final Message source;
+    private final String json;
+
+    private PreSerializedMessage(Message source, String json) {
+        this.source = source;
+        this.json = json;
+    }
+
+    /**
+     * 序列化訊息並包裝為可重複使用的快取訊息
+     */
+    public static PreSerializedMessage of(Message source) {
+        if (source instanceof PreSerializedMessage preSerialized) {
+            return preSerialized;
+        }
+        try {
+            return new PreSerializedMessage(source, OBJECT_MAPPER.writeValueAsString(source));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to pre-serialize LINE message", e);
+        }
+    }
+
+    /**
+     * 原始訊息物件（僅供檢視，不可修改）
+     */
+    public Message getSource() {
+        return source;
+    }
+
+    public String getJson() {
+        return json;
+    }
+
+    @Override
+    public QuickReply getQuickReply() {
+        return source.getQuickReply();
+    }
+
+    @Override
+    public Sender getSender() {
+        return source.getSender();
+    }
+
+    public static class Serializer extends StdSerializer<PreSerializedMessage> {
+
+        public Serializer() {
+            super(PreSerializedMessage.class);
+        }
+
+        @Override
+        public void serialize(PreSerializedMessage value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeRawValue(value.json);
+        }
+
+        /**
+         * Message 介面以 type 屬性標記子型別，快取的 JSON 已含 type，不再另外寫入型別資訊
+         */
+        @Override
+        public void serializeWithType(PreSerializedMessage value, JsonGenerator gen, SerializerProvider provider,
+                                      TypeSerializer typeSer) throws IOException {
+            serialize(value, gen, provider);
+        }
+    }
+}
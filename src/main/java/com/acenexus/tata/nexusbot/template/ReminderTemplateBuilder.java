@@ -2,10 +2,14 @@ package com.acenexus.tata.nexusbot.template;
 
 import com.acenexus.tata.nexusbot.config.properties.TimezoneProperties;
 import com.acenexus.tata.nexusbot.entity.Reminder;
+import com.acenexus.tata.nexusbot.reminder.recurrence.RecurrenceRules;
+import com.linecorp.bot.model.message.FlexMessage;
 import com.linecorp.bot.model.message.Message;
+import com.linecorp.bot.model.message.flex.container.Bubble;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -23,7 +27,9 @@ import static com.acenexus.tata.nexusbot.constants.Actions.REMINDER_CHANGE_TIMEZ
 import static com.acenexus.tata.nexusbot.constants.Actions.REMINDER_CONFIRM_TIMEZONE;
 import static com.acenexus.tata.nexusbot.constants.Actions.REMINDER_MENU;
 import static com.acenexus.tata.nexusbot.constants.Actions.REPEAT_DAILY;
+import static com.acenexus.tata.nexusbot.constants.Actions.REPEAT_MONTHLY;
 import static com.acenexus.tata.nexusbot.constants.Actions.REPEAT_ONCE;
+import static com.acenexus.tata.nexusbot.constants.Actions.REPEAT_WEEKDAYS;
 import static com.acenexus.tata.nexusbot.constants.Actions.REPEAT_WEEKLY;
 import static com.acenexus.tata.nexusbot.constants.Actions.TODAY_REMINDERS;
 import static com.acenexus.tata.nexusbot.constants.Actions.reminderCompleted;
@@ -36,6 +42,11 @@ import static com.acenexus.tata.nexusbot.constants.TimeFormatters.STANDARD_TIME;
 @RequiredArgsConstructor
 public class ReminderTemplateBuilder extends FlexMessageTemplateBuilder {
 
+    /**
+     * LINE Flex Carousel 最多可容納的氣泡數
+     */
+    public static final int MAX_CAROUSEL_BUBBLES = 12;
+
     private final TimezoneProperties timezoneProperties;
 
     /**
@@ -65,6 +76,8 @@ public class ReminderTemplateBuilder extends FlexMessageTemplateBuilder {
                         createPrimaryButton("單次提醒", REPEAT_ONCE),
                         createNeutralButton("每日提醒", REPEAT_DAILY),
                         createNeutralButton("每週提醒", REPEAT_WEEKLY),
+                        createNeutralButton("平日提醒（週一至週五）", REPEAT_WEEKDAYS),
+                        createNeutralButton("每月提醒", REPEAT_MONTHLY),
                         createSecondaryButton("取消設定", CANCEL_REMINDER_INPUT)
                 )
         );
@@ -155,11 +168,7 @@ public class ReminderTemplateBuilder extends FlexMessageTemplateBuilder {
         StringBuilder contentBuilder = new StringBuilder();
         for (int i = 0; i < reminders.size(); i++) {
             Reminder reminder = reminders.get(i);
-            String repeatTypeText = switch (reminder.getRepeatType()) {
-                case "DAILY" -> "每日重複";
-                case "WEEKLY" -> "每週重複";
-                default -> "僅一次";
-            };
+            String repeatTypeText = RecurrenceRules.describe(reminder.getRepeatType());
 
             String userStatus = userResponseStatuses.getOrDefault(reminder.getId(), "無回應");
             String statusDisplay = "COMPLETED".equals(userStatus) ? "已執行" : "無回應";
@@ -234,7 +243,7 @@ public class ReminderTemplateBuilder extends FlexMessageTemplateBuilder {
             case "DAILY" -> "每日提醒";
             case "WEEKLY" -> "每週提醒";
             case "ONCE" -> "一次性提醒";
-            default -> "提醒";
+            default -> RecurrenceRules.describe(repeatType);
         };
 
         String description = String.format(
@@ -247,6 +256,24 @@ public class ReminderTemplateBuilder extends FlexMessageTemplateBuilder {
         ));
     }
 
+    /**
+     * 將多則提醒通知合併為一個輪播訊息（同一聊天室同時到期的提醒）
+     * 輸入須為 {@link #buildReminderNotification} 產生的訊息，最多 {@link #MAX_CAROUSEL_BUBBLES} 則；
+     * 任一則不是 Flex Bubble 時拋出例外而非略過，避免該則提醒沒有送出卻被標記為已投遞
+     *
+     * @throws IllegalArgumentException 通知訊息無法放入輪播
+     */
+    public Message reminderNotificationCarousel(List<Message> notifications) {
+        List<Bubble> bubbles = new ArrayList<>(notifications.size());
+        for (Message notification : notifications) {
+            if (!(notification instanceof FlexMessage flexMessage && flexMessage.getContents() instanceof Bubble bubble)) {
+                throw new IllegalArgumentException("Reminder notification cannot be placed in a carousel: " + notification.getClass().getSimpleName());
+            }
+            bubbles.add(bubble);
+        }
+        return createCarousel("你有 " + bubbles.size() + " 則提醒時間到了", bubbles);
+    }
+
     /**
      * 時區輸入提示選單
      */
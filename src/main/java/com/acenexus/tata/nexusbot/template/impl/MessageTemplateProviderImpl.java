@@ -7,18 +7,24 @@ import com.acenexus.tata.nexusbot.template.EmailTemplateBuilder;
 import com.acenexus.tata.nexusbot.template.LocationTemplateBuilder;
 import com.acenexus.tata.nexusbot.template.MessageTemplateProvider;
 import com.acenexus.tata.nexusbot.template.NavigationTemplateBuilder;
+import com.acenexus.tata.nexusbot.template.PreSerializedMessage;
 import com.acenexus.tata.nexusbot.template.ReminderTemplateBuilder;
 import com.acenexus.tata.nexusbot.template.TimezoneTemplateBuilder;
 import com.linecorp.bot.model.message.Message;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * 訊息範本提供者的門面實作
  * 將請求委派給各個專門的 Builder
+ * 無參數的固定選單於啟動時建立並預先序列化（{@link PreSerializedMessage}），之後直接回傳同一實例；
+ * 參數值種類有限的選單（AI 設定、模型選擇、時區設定）依參數快取，上限 {@link #MAX_KEYED_ENTRIES} 筆。
  */
 @Service
 @RequiredArgsConstructor
@@ -31,16 +37,64 @@ public class MessageTemplateProviderImpl implements MessageTemplateProvider {
     private final LocationTemplateBuilder locationBuilder;
     private final TimezoneTemplateBuilder timezoneBuilder;
 
+    /**
+     * 每個參數化選單快取的最大筆數，超過後不再快取新參數（直接建立）
+     */
+    static final int MAX_KEYED_ENTRIES = 256;
+
+    private Message welcome;
+    private Message about;
+    private Message mainMenu;
+    private Message helpMenu;
+    private Message clearHistoryConfirmation;
+    private Message reminderMenu;
+    private Message reminderRepeatTypeMenu;
+    private Message reminderNotificationChannelMenu;
+    private Message emailInputPrompt;
+    private Message emailInvalidFormat;
+    private Message findToiletsInstruction;
+
+    private final Map<Boolean, Message> aiSettingsMenus = new ConcurrentHashMap<>();
+    private final Map<String, Message> aiModelSelectionMenus = new ConcurrentHashMap<>();
+    private final Map<String, Message> timezoneSettingsMenus = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        welcome = PreSerializedMessage.of(navigationBuilder.welcome());
+        about = PreSerializedMessage.of(navigationBuilder.about());
+        mainMenu = PreSerializedMessage.of(navigationBuilder.mainMenu());
+        helpMenu = PreSerializedMessage.of(navigationBuilder.helpMenu());
+        clearHistoryConfirmation = PreSerializedMessage.of(aiSettingsBuilder.clearHistoryConfirmation());
+        reminderMenu = PreSerializedMessage.of(reminderBuilder.reminderMenu());
+        reminderRepeatTypeMenu = PreSerializedMessage.of(reminderBuilder.reminderRepeatTypeMenu());
+        reminderNotificationChannelMenu = PreSerializedMessage.of(reminderBuilder.reminderNotificationChannelMenu());
+        emailInputPrompt = PreSerializedMessage.of(emailBuilder.emailInputPrompt());
+        emailInvalidFormat = PreSerializedMessage.of(emailBuilder.emailInvalidFormat());
+        findToiletsInstruction = PreSerializedMessage.of(locationBuilder.findToiletsInstruction());
+    }
+
+    private static <K> Message cached(Map<K, Message> cache, K key, Function<K, Message> builder) {
+        Message message = cache.get(key);
+        if (message != null) {
+            return message;
+        }
+        message = PreSerializedMessage.of(builder.apply(key));
+        if (cache.size() < MAX_KEYED_ENTRIES) {
+            cache.putIfAbsent(key, message);
+        }
+        return message;
+    }
+
     // ==================== 導航與通用範本 ====================
 
     @Override
     public Message welcome() {
-        return navigationBuilder.welcome();
+        return welcome;
     }
 
     @Override
     public Message about() {
-        return navigationBuilder.about();
+        return about;
     }
 
     @Override
@@ -55,12 +109,12 @@ public class MessageTemplateProviderImpl implements MessageTemplateProvider {
 
     @Override
     public Message mainMenu() {
-        return navigationBuilder.mainMenu();
+        return mainMenu;
     }
 
     @Override
     public Message helpMenu() {
-        return navigationBuilder.helpMenu();
+        return helpMenu;
     }
 
     @Override
@@ -95,34 +149,34 @@ public class MessageTemplateProviderImpl implements MessageTemplateProvider {
 
     @Override
     public Message aiSettingsMenu(boolean currentStatus) {
-        return aiSettingsBuilder.aiSettingsMenu(currentStatus);
+        return cached(aiSettingsMenus, currentStatus, aiSettingsBuilder::aiSettingsMenu);
     }
 
     @Override
     public Message aiModelSelectionMenu(String currentModel) {
-        return aiSettingsBuilder.aiModelSelectionMenu(currentModel);
+        return cached(aiModelSelectionMenus, currentModel, aiSettingsBuilder::aiModelSelectionMenu);
     }
 
     @Override
     public Message clearHistoryConfirmation() {
-        return aiSettingsBuilder.clearHistoryConfirmation();
+        return clearHistoryConfirmation;
     }
 
     // ==================== 提醒範本 ====================
 
     @Override
     public Message reminderMenu() {
-        return reminderBuilder.reminderMenu();
+        return reminderMenu;
     }
 
     @Override
     public Message reminderRepeatTypeMenu() {
-        return reminderBuilder.reminderRepeatTypeMenu();
+        return reminderRepeatTypeMenu;
     }
 
     @Override
     public Message reminderNotificationChannelMenu() {
-        return reminderBuilder.reminderNotificationChannelMenu();
+        return reminderNotificationChannelMenu;
     }
 
     @Override
@@ -156,6 +210,11 @@ public class MessageTemplateProviderImpl implements MessageTemplateProvider {
         return reminderBuilder.buildReminderNotification(enhancedContent, originalContent, repeatType, reminderId, timezoneDisplay, reminderTimeDisplay);
     }
 
+    @Override
+    public Message reminderNotificationCarousel(List<Message> notifications) {
+        return reminderBuilder.reminderNotificationCarousel(notifications);
+    }
+
     @Override
     public Message timezoneInputMenu(String currentTimezone) {
         return reminderBuilder.timezoneInputMenu(currentTimezone);
@@ -176,7 +235,8 @@ public class MessageTemplateProviderImpl implements MessageTemplateProvider {
 
     @Override
     public Message timezoneSettingsMenu(String currentTimezone, String timezoneDisplay) {
-        return timezoneBuilder.timezoneSettingsMenu(currentTimezone, timezoneDisplay);
+        return cached(timezoneSettingsMenus, currentTimezone + "|" + timezoneDisplay,
+                key -> timezoneBuilder.timezoneSettingsMenu(currentTimezone, timezoneDisplay));
     }
 
     @Override
@@ -213,7 +273,7 @@ public class MessageTemplateProviderImpl implements MessageTemplateProvider {
 
     @Override
     public Message emailInputPrompt() {
-        return emailBuilder.emailInputPrompt();
+        return emailInputPrompt;
     }
 
     @Override
@@ -223,7 +283,7 @@ public class MessageTemplateProviderImpl implements MessageTemplateProvider {
 
     @Override
     public Message emailInvalidFormat() {
-        return emailBuilder.emailInvalidFormat();
+        return emailInvalidFormat;
     }
 
     // ==================== 位置搜尋範本 ====================
@@ -235,6 +295,6 @@ public class MessageTemplateProviderImpl implements MessageTemplateProvider {
 
     @Override
     public Message findToiletsInstruction() {
-        return locationBuilder.findToiletsInstruction();
+        return findToiletsInstruction;
     }
 }
@@ -0,0 +1,103 @@
+package com.acenexus.tata.nexusbot.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 延遲分布直方圖（毫秒）
+ * 以對數刻度分桶（每 2 倍區間 8 桶，相對誤差約 9%），上限約 17 分鐘，超過者計入最後一桶。
+ * 桶計數可直接相加合併，適合跨時段、跨實例累計後計算百分位數。
+ * 非執行緒安全，共用時由呼叫端同步。
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 8;
+    private static final int MAX_EXPONENT = 20;
+    private static final int BUCKETS = SUB_BUCKETS * MAX_EXPONENT + 1;
+
+    /**
+     * 序列化後的長度（位元組）
+     */
+    public static final int SERIALIZED_SIZE = BUCKETS * Long.BYTES;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+
+    /**
+     * 由序列化的桶計數還原
+     */
+    public static LatencyHistogram fromBytes(byte[] bytes) {
+        if (bytes.length != SERIALIZED_SIZE) {
+            throw new IllegalArgumentException("Invalid latency histogram length: " + bytes.length);
+        }
+        LatencyHistogram histogram = new LatencyHistogram();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram.counts[i] = buffer.getLong();
+            histogram.total += histogram.counts[i];
+        }
+        return histogram;
+    }
+
+    public void record(long millis) {
+        counts[bucket(millis)]++;
+        total++;
+    }
+
+    /**
+     * 合併另一個直方圖（桶計數相加）
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    public long count() {
+        return total;
+    }
+
+    /**
+     * 百分位數（毫秒），回傳所在桶的上界
+     *
+     * @param percentile 0 到 1 之間
+     * @return 沒有樣本時回傳 -1
+     */
+    public long percentile(double percentile) {
+        if (total == 0) {
+            return -1;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(SERIALIZED_SIZE);
+        for (long count : counts) {
+            buffer.putLong(count);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * 桶 i 涵蓋 (2^((i-1)/8), 2^(i/8)] 毫秒，桶 0 為 1 毫秒以下
+     */
+    private static int bucket(long millis) {
+        if (millis <= 1) {
+            return 0;
+        }
+        int index = (int) Math.ceil(Math.log(millis) / Math.log(2) * SUB_BUCKETS);
+        return Math.min(index, BUCKETS - 1);
+    }
+
+    private static long upperBound(int bucket) {
+        return (long) Math.floor(Math.pow(2, (double) bucket / SUB_BUCKETS));
+    }
+}
@@ -3,6 +3,7 @@ package com.acenexus.tata.nexusbot.util;
 import io.micrometer.context.ContextSnapshot;
 import io.micrometer.context.ContextSnapshotFactory;
 
+import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
 /**
@@ -51,4 +52,18 @@ public class MdcTaskDecorator {
             }
         };
     }
+
+    /**
+     * 包裝 BiConsumer，自動傳遞 MDC + OTel trace context 到非同步回呼執行緒
+     * 使用範例：
+     * future.whenComplete(MdcTaskDecorator.wrapBiConsumer((result, error) -> log.info("...")));
+     */
+    public static <T, U> BiConsumer<T, U> wrapBiConsumer(BiConsumer<T, U> task) {
+        ContextSnapshot snapshot = SNAPSHOT_FACTORY.captureAll();
+        return (t, u) -> {
+            try (ContextSnapshot.Scope ignored = snapshot.setThreadLocals()) {
+                task.accept(t, u);
+            }
+        };
+    }
 }
@@ -1,5 +1,8 @@
 package com.acenexus.tata.nexusbot.util;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,14 +13,23 @@ import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 
+/**
+ * LINE Webhook 簽章驗證
+ * 驗證耗時記錄於 line.webhook.signature（outcome=valid / invalid / error）
+ */
 @Component
+@RequiredArgsConstructor
 public class SignatureValidator {
     private static final Logger logger = LoggerFactory.getLogger(SignatureValidator.class);
 
+    private final MeterRegistry meterRegistry;
+
     @Value("${line.bot.channel-secret}")
     private String channelSecret;
 
     public boolean validate(String payload, String signature) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             Mac mac = Mac.getInstance("HmacSHA256");
             SecretKeySpec secretKeySpec = new SecretKeySpec(channelSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
@@ -26,10 +38,17 @@ public class SignatureValidator {
             byte[] digest = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
             String expectedSignature = Base64.getEncoder().encodeToString(digest);
 
-            return signature.equals(expectedSignature);
+            boolean valid = signature.equals(expectedSignature);
+            outcome = valid ? "valid" : "invalid";
+            return valid;
         } catch (Exception e) {
             logger.error("Error during signature validation: {}", e.getMessage(), e);
             return false;
+        } finally {
+            sample.stop(Timer.builder("line.webhook.signature")
+                    .description("LINE webhook signature verification")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.acenexus.tata.nexusbot.util;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 長文字拆分工具
+ * 依字素（grapheme）邊界拆分，不會把 Emoji、代理對（surrogate pair）或組合字元切成兩半。
+ * 長度以 UTF-16 單位計算，與 LINE 文字訊息的長度限制一致。
+ */
+public class TextSplitter {
+
+    private static final char ZERO_WIDTH_JOINER = '\u200D';
+
+    private TextSplitter() {
+    }
+
+    /**
+     * 將文字拆分為長度不超過 maxLength 的片段
+     *
+     * @param text      原始文字
+     * @param maxLength 每段最大長度（UTF-16 單位）
+     * @return 拆分後的片段，依原順序排列
+     */
+    public static List<String> split(String text, int maxLength) {
+        if (maxLength <= 1) {
+            throw new IllegalArgumentException("maxLength must be greater than 1: " + maxLength);
+        }
+        List<String> parts = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return parts;
+        }
+
+        BreakIterator boundaries = BreakIterator.getCharacterInstance();
+        boundaries.setText(text);
+
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(start + maxLength, text.length());
+            if (end < text.length()) {
+                end = precedingBoundary(text, boundaries, start, end);
+            }
+            parts.add(text.substring(start, end));
+            start = end;
+        }
+        return parts;
+    }
+
+    /**
+     * 在 (start, end] 範圍內找最接近 end 的字素邊界
+     * 單一字素本身超過上限（極少見）時退而求其次，只保證不切斷代理對
+     */
+    private static int precedingBoundary(String text, BreakIterator boundaries, int start, int end) {
+        int candidate = end;
+        while (candidate > start && !isGraphemeBoundary(text, boundaries, candidate)) {
+            candidate = boundaries.preceding(candidate);
+        }
+        if (candidate > start) {
+            return candidate;
+        }
+        return Character.isLowSurrogate(text.charAt(end)) ? end - 1 : end;
+    }
+
+    /**
+     * JDK 17 的 BreakIterator 不認得 Emoji ZWJ 序列、膚色修飾與變體選擇符，額外排除這些位置
+     */
+    private static boolean isGraphemeBoundary(String text, BreakIterator boundaries, int index) {
+        if (!boundaries.isBoundary(index)) {
+            return false;
+        }
+        char previous = text.charAt(index - 1);
+        if (previous == ZERO_WIDTH_JOINER) {
+            return false;
+        }
+        int next = text.codePointAt(index);
+        return next != ZERO_WIDTH_JOINER
+                && !isVariationSelector(next)
+                && !isEmojiModifier(next)
+                && Character.getType(next) != Character.NON_SPACING_MARK
+                && Character.getType(next) != Character.ENCLOSING_MARK;
+    }
+
+    private static boolean isVariationSelector(int codePoint) {
+        return (codePoint >= 0xFE00 && codePoint <= 0xFE0F) || (codePoint >= 0xE0100 && codePoint <= 0xE01EF);
+    }
+
+    private static boolean isEmojiModifier(int codePoint) {
+        return codePoint >= 0x1F3FB && codePoint <= 0x1F3FF;
+    }
+}
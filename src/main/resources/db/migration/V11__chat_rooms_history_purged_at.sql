@@ -0,0 +1,7 @@
+-- ==========================================
+-- chat_rooms：新增 history_purged_at（背景刪除已完成的清除時間點）
+-- 背景排程刪完 history_cleared_at 以前的訊息後記錄於此，
+-- 之後只處理 history_purged_at 早於 history_cleared_at 的聊天室，不再反覆掃描已刪完的聊天室
+-- （版本 10 為 db/vendor/mysql 的分區 migration）
+-- ==========================================
+ALTER TABLE chat_rooms ADD COLUMN history_purged_at TIMESTAMP NULL COMMENT '已刪除到此清除時間點的訊息，NULL 表示尚未刪除';
@@ -0,0 +1,7 @@
+-- ==========================================
+-- reminders：新增 anchor_local_time（提醒最初設定的本地日期時間）
+-- 日 / 週 / 月重複規則每次都由此計算下一次觸發時間，
+-- 月底縮短（如 31 日 → 2 月 28 日）或夏令時間缺口順延的時刻不會沿用到之後的觸發
+-- 舊資料為 NULL，下一次觸發時以當次的本地時間補上
+-- ==========================================
+ALTER TABLE reminders ADD COLUMN anchor_local_time DATETIME NULL COMMENT '提醒最初設定的本地日期時間（提醒時區）';
@@ -0,0 +1,8 @@
+-- ==========================================
+-- notification_outbox：新增 delivery_batch_id（合併 Push 的投遞批次）
+-- 同一聊天室的 LINE 通知第一次合併投遞前寫入同一個批次 ID，之後重試固定以同一組通知重送，
+-- X-Line-Retry-Key 由批次 ID 衍生，不會因重試時認領到的通知組合不同而改變
+-- ==========================================
+ALTER TABLE notification_outbox ADD COLUMN delivery_batch_id VARCHAR(36) NULL COMMENT '合併 Push 投遞批次 ID，第一次合併投遞前寫入後不再變動';
+
+CREATE INDEX idx_notification_outbox_delivery_batch ON notification_outbox(delivery_batch_id);
@@ -0,0 +1,5 @@
+-- ==========================================
+-- reminders.repeat_type 擴充為 VARCHAR(100)
+-- 支援 WEEKDAYS、MONTHLY 與 RRULE 子集（例如 RRULE:FREQ=WEEKLY;BYDAY=MO,WE,FR）
+-- ==========================================
+ALTER TABLE reminders MODIFY COLUMN repeat_type VARCHAR(100) DEFAULT 'ONCE' COMMENT '重複規則：ONCE, DAILY, WEEKLY, WEEKDAYS, MONTHLY 或 RRULE';
@@ -0,0 +1,27 @@
+-- ==========================================
+-- notification_outbox：提醒通知 Transactional Outbox
+-- 與提醒重複狀態更新在同一事務內寫入，由背景 worker 批次投遞（含重試與退避）
+-- ==========================================
+CREATE TABLE notification_outbox (
+    id               BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主鍵，自動遞增',
+    idempotency_key  VARCHAR(64)  NOT NULL UNIQUE COMMENT '冪等鍵（提醒 + 觸發時間 + 管道 + 收件者），防止重複投遞',
+    reminder_id      BIGINT       NOT NULL COMMENT '提醒 ID',
+    room_id          VARCHAR(100) NOT NULL COMMENT '聊天室 ID',
+    channel          VARCHAR(20)  NOT NULL COMMENT '投遞管道：LINE, EMAIL',
+    recipient        VARCHAR(255)          COMMENT 'Email 收件者，LINE 為 NULL',
+    content          TEXT         NOT NULL COMMENT '觸發當下的提醒內容快照',
+    repeat_type      VARCHAR(100)          COMMENT '觸發當下的重複規則快照',
+    timezone         VARCHAR(50)           COMMENT '觸發當下的時區快照',
+    fired_at_instant BIGINT       NOT NULL COMMENT '本次觸發時間點（epoch millis）',
+    status           VARCHAR(20)  NOT NULL DEFAULT 'PENDING' COMMENT '狀態：PENDING, PROCESSING, SENT, FAILED',
+    attempts         INTEGER      NOT NULL DEFAULT 0 COMMENT '已嘗試投遞次數',
+    next_attempt_at  TIMESTAMP    NOT NULL COMMENT '下次可投遞時間',
+    locked_until     TIMESTAMP             NULL COMMENT 'PROCESSING 租約到期時間，逾期可被重新認領',
+    claim_token      VARCHAR(36)           COMMENT '認領批次 Token',
+    last_error       TEXT                  COMMENT '最近一次投遞錯誤',
+    sent_at          TIMESTAMP             NULL COMMENT '投遞成功時間',
+    created_at       TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '建立時間'
+);
+
+CREATE INDEX idx_notification_outbox_status_next ON notification_outbox(status, next_attempt_at);
+CREATE INDEX idx_notification_outbox_claim_token ON notification_outbox(claim_token);
@@ -0,0 +1,9 @@
+-- ==========================================
+-- line_push_quota：LINE Push 訊息額度本地計數（每月一筆）
+-- 各實例定期將記憶體中的增量累加寫回，並以 LINE 回報的用量校正
+-- ==========================================
+CREATE TABLE line_push_quota (
+    month_key  VARCHAR(7) NOT NULL PRIMARY KEY COMMENT '計數月份（yyyy-MM）',
+    used_count BIGINT     NOT NULL DEFAULT 0 COMMENT '本月已使用的 Push 額度（以收件人數計）',
+    updated_at TIMESTAMP  NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '最後更新時間'
+);
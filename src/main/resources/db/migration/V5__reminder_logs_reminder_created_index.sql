@@ -0,0 +1,5 @@
+-- ==========================================
+-- reminder_logs：(reminder_id, created_at) 複合索引
+-- 提醒列表一次查詢多個提醒的最新日誌（每個 reminder_id 取最大 created_at）
+-- ==========================================
+CREATE INDEX idx_reminder_logs_reminder_created ON reminder_logs(reminder_id, created_at);
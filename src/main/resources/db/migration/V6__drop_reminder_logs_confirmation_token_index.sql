@@ -0,0 +1,7 @@
+-- ==========================================
+-- reminder_logs：移除 confirmation_token 上重複的一般索引
+-- Email 確認連結改為自帶日誌 ID 與到期時間的 HMAC 簽章 Token，新日誌不再寫入 confirmation_token。
+-- 已寄出的舊版 UUID 連結仍需以此欄位查詢（唯一約束的索引已足夠），欄位保留到
+-- email.confirmation-ttl-days 過後再以新的 migration 移除
+-- ==========================================
+DROP INDEX idx_reminder_logs_confirmation_token ON reminder_logs;
@@ -0,0 +1,22 @@
+-- ==========================================
+-- system_stats：/stats 使用的累計統計（計數器與每日活躍聊天室 HyperLogLog）
+-- 各實例寫入訊息時只更新記憶體，定期將增量累加寫回；/stats 不再對 chat_messages 做彙總查詢
+-- ==========================================
+CREATE TABLE system_stats (
+    stat_key   VARCHAR(64)     NOT NULL PRIMARY KEY COMMENT '統計項目（例如 messages.total、active_rooms:2025-06-16）',
+    stat_value BIGINT          NOT NULL DEFAULT 0 COMMENT '累計數值',
+    sketch     VARBINARY(4096)          NULL COMMENT '每日活躍聊天室的 HyperLogLog 暫存器',
+    updated_at TIMESTAMP       NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '最後更新時間'
+);
+
+-- 以既有訊息初始化累計數值（含已清除的對話記錄，之後的計數同樣不因清除而減少）
+INSERT INTO system_stats (stat_key, stat_value)
+SELECT 'messages.total', COUNT(*) FROM chat_messages;
+
+INSERT INTO system_stats (stat_key, stat_value)
+SELECT 'messages.user', COUNT(*) FROM chat_messages WHERE message_type = 'USER';
+
+INSERT INTO system_stats (stat_key, stat_value)
+SELECT 'messages.ai', COUNT(*) FROM chat_messages WHERE message_type = 'AI';
+
+-- AI Token 與延遲的累計由 ai_usage_daily（V8）提供，不在此建立計數器
@@ -0,0 +1,34 @@
+-- ==========================================
+-- ai_usage_daily：每日每模型的 AI 呼叫用量與延遲彙總
+-- 由應用程式的 AI 指標定期累加寫回，成本與延遲報表不再掃描 chat_messages
+-- ==========================================
+CREATE TABLE ai_usage_daily (
+    usage_date        DATE            NOT NULL COMMENT '統計日期',
+    model             VARCHAR(50)     NOT NULL COMMENT 'AI 模型 ID',
+    provider          VARCHAR(20)     NOT NULL COMMENT 'AI 廠商',
+    calls             BIGINT          NOT NULL DEFAULT 0 COMMENT '呼叫次數（含失敗）',
+    errors            BIGINT          NOT NULL DEFAULT 0 COMMENT '失敗次數',
+    tokens            BIGINT          NOT NULL DEFAULT 0 COMMENT 'Token 用量',
+    latency_total_ms  BIGINT          NOT NULL DEFAULT 0 COMMENT '延遲總和（毫秒），用於計算平均',
+    latency_p50_ms    INTEGER                  NULL COMMENT '延遲 p50（毫秒）',
+    latency_p95_ms    INTEGER                  NULL COMMENT '延遲 p95（毫秒）',
+    latency_p99_ms    INTEGER                  NULL COMMENT '延遲 p99（毫秒）',
+    latency_histogram VARBINARY(2048)          NULL COMMENT '延遲直方圖桶計數，跨實例合併後計算百分位數',
+    updated_at        TIMESTAMP       NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '最後更新時間',
+    PRIMARY KEY (usage_date, model)
+);
+
+-- 以既有 AI 訊息初始化每日呼叫數、Token 與延遲總和（百分位數無法由舊資料還原，保留 NULL）
+INSERT INTO ai_usage_daily (usage_date, model, provider, calls, tokens, latency_total_ms)
+SELECT CAST(created_at AS DATE),
+       ai_model,
+       CASE WHEN ai_model LIKE 'gemini%' THEN 'GEMINI_PROXY' ELSE 'GROQ' END,
+       COUNT(*),
+       COALESCE(SUM(tokens_used), 0),
+       COALESCE(SUM(processing_time_ms), 0)
+FROM chat_messages
+WHERE message_type = 'AI' AND ai_model IS NOT NULL AND ai_model <> 'fallback'
+GROUP BY CAST(created_at AS DATE), ai_model;
+
+ALTER TABLE chat_messages DROP COLUMN tokens_used;
+ALTER TABLE chat_messages DROP COLUMN processing_time_ms;
@@ -0,0 +1,6 @@
+-- ==========================================
+-- chat_rooms：新增 history_cleared_at（對話記錄清除時間點）
+-- 清除對話記錄只更新聊天室的時間點，讀取歷史時只取此時間之後的訊息，
+-- 較早的訊息由背景排程分批實體刪除，不再以單一交易軟刪除整個聊天室的訊息
+-- ==========================================
+ALTER TABLE chat_rooms ADD COLUMN history_cleared_at TIMESTAMP NULL COMMENT '對話記錄清除時間，NULL 表示未曾清除';
@@ -0,0 +1,40 @@
+package com.acenexus.tata.nexusbot.location.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 測試 Geohash 編碼與網格範圍解碼
+ */
+class GeohashTest {
+
+    @Test
+    void shouldEncodeKnownLocation() {
+        // Given & When & Then
+        assertThat(Geohash.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+        assertThat(Geohash.encode(25.0478, 121.5170, 6)).isEqualTo("wsqqmp");
+    }
+
+    @Test
+    void shouldDecodeCellContainingOriginalPoint() {
+        // Given
+        String hash = Geohash.encode(25.0478, 121.5170, 6);
+
+        // When
+        Geohash.Cell cell = Geohash.decode(hash);
+
+        // Then
+        assertThat(cell.minLat()).isLessThanOrEqualTo(25.0478);
+        assertThat(cell.maxLat()).isGreaterThan(25.0478);
+        assertThat(cell.minLon()).isLessThanOrEqualTo(121.5170);
+        assertThat(cell.maxLon()).isGreaterThan(121.5170);
+        assertThat(Geohash.encode(cell.centerLat(), cell.centerLon(), 6)).isEqualTo(hash);
+    }
+
+    @Test
+    void shouldShareCellForNearbyPoints() {
+        // Given & When & Then: 同一網格內的兩點有相同 Geohash
+        assertThat(Geohash.encode(25.0470, 121.5150, 6)).isEqualTo(Geohash.encode(25.0480, 121.5170, 6));
+    }
+}
@@ -0,0 +1,82 @@
+package com.acenexus.tata.nexusbot.location.cache;
+
+import com.acenexus.tata.nexusbot.config.properties.OsmCacheProperties;
+import com.acenexus.tata.nexusbot.location.OsmElement;
+import com.acenexus.tata.nexusbot.location.client.OverpassResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 測試 Overpass 網格快取的命中與不快取條件
+ */
+class OverpassCellCacheTest {
+
+    private static final double LAT = 25.0478;
+    private static final double LON = 121.5170;
+
+    private OverpassCellCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new OverpassCellCache(new OsmCacheProperties(), new SimpleMeterRegistry());
+        cache.init();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void shouldCacheCompleteResult() {
+        // Given
+        cache.get(LAT, LON, 300, loader(false));
+
+        // When
+        List<OsmElement> elements = cache.get(LAT, LON, 300, loader(false));
+
+        // Then
+        assertThat(elements).hasSize(1);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void shouldNotCacheTruncatedResult() {
+        // Given: 第一次回應達元素數上限被截斷
+        List<OsmElement> truncated = cache.get(LAT, LON, 300, loader(true));
+
+        // When
+        cache.get(LAT, LON, 300, loader(false));
+
+        // Then: 截斷結果仍回傳給呼叫端，但下一次重新查詢
+        assertThat(truncated).hasSize(1);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void shouldServeSmallerRadiusFromLargerBucket() {
+        // Given: 同網格已快取 1200 公尺級距
+        cache.get(LAT, LON, 1200, loader(false));
+
+        // When
+        List<OsmElement> elements = cache.get(LAT, LON, 300, loader(false));
+
+        // Then: 較小半徑不另外查詢
+        assertThat(elements).hasSize(1);
+        assertThat(loads).hasValue(1);
+    }
+
+    private OverpassCellCache.Loader loader(boolean truncated) {
+        return (latitude, longitude, radius) -> {
+            loads.incrementAndGet();
+            OsmElement element = new OsmElement();
+            element.setId(1L);
+            element.setLat(latitude);
+            element.setLon(longitude);
+            return new OverpassResult(List.of(element), truncated);
+        };
+    }
+}
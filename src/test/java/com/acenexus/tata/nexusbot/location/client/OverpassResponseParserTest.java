@@ -0,0 +1,65 @@
+package com.acenexus.tata.nexusbot.location.client;
+
+import com.acenexus.tata.nexusbot.location.OsmElement;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * 測試 Overpass JSON 串流解析
+ */
+class OverpassResponseParserTest {
+
+    private static final String RESPONSE = """
+            {
+              "version": 0.6,
+              "osm3s": {"timestamp_osm_base": "2025-01-01T00:00:00Z"},
+              "elements": [
+                {"type": "node", "id": 1, "lat": 25.0, "lon": 121.5, "tags": {"amenity": "toilets", "name": "A"}},
+                {"type": "way", "id": 2, "nodes": [10, 11],
+                 "geometry": [{"lat": 25.0, "lon": 121.0}, {"lat": 25.2, "lon": 121.2}],
+                 "tags": {"amenity": "toilets"}},
+                {"type": "way", "id": 3, "center": {"lat": 24.5, "lon": 120.5}, "tags": {"building": "toilets"}},
+                {"type": "relation", "id": 4, "members": [], "tags": {"amenity": "toilets"}}
+              ]
+            }
+            """;
+
+    @Test
+    void shouldParseNodesAndCollapseWayGeometryToCentroid() throws IOException {
+        // Given & When
+        OverpassResult result = OverpassResponseParser.parse(stream(RESPONSE), 100);
+        List<OsmElement> elements = result.elements();
+
+        // Then: 沒有座標的 relation 被略過
+        assertThat(result.truncated()).isFalse();
+        assertThat(elements).extracting(OsmElement::getId).containsExactly(1L, 2L, 3L);
+        assertThat(elements.get(0).getName()).isEqualTo("A");
+        assertThat(elements.get(1).getLat()).isCloseTo(25.1, offset(1e-9));
+        assertThat(elements.get(1).getLon()).isCloseTo(121.1, offset(1e-9));
+        assertThat(elements.get(1).getGeometry()).isNull();
+        assertThat(elements.get(2).getLat()).isEqualTo(24.5);
+        assertThat(elements.get(2).getTag("building")).isEqualTo("toilets");
+    }
+
+    @Test
+    void shouldStopAtMaxElements() throws IOException {
+        // Given & When
+        OverpassResult result = OverpassResponseParser.parse(stream(RESPONSE), 2);
+
+        // Then: 回報結果被截斷
+        assertThat(result.elements()).extracting(OsmElement::getId).containsExactly(1L, 2L);
+        assertThat(result.truncated()).isTrue();
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
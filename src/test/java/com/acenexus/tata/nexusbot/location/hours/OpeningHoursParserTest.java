@@ -0,0 +1,86 @@
+package com.acenexus.tata.nexusbot.location.hours;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 測試 opening_hours 解析與營業狀態判斷
+ */
+class OpeningHoursParserTest {
+
+    // 2025-06-16 為週一
+    private static final LocalDateTime MONDAY_MORNING = LocalDateTime.of(2025, 6, 16, 9, 0);
+
+    @Test
+    void shouldEvaluateWeekdayAndTimeRules() {
+        // Given
+        OpeningHours hours = OpeningHoursParser.parse("Mo-Fr 08:00-12:00,13:00-20:00; Sa,Su 10:00-18:00");
+
+        // When & Then
+        assertThat(hours.isOpenAt(MONDAY_MORNING)).isTrue();
+        assertThat(hours.isOpenAt(MONDAY_MORNING.withHour(12).withMinute(30))).isFalse();
+        assertThat(hours.isOpenAt(MONDAY_MORNING.withHour(7).withMinute(59))).isFalse();
+        assertThat(hours.isOpenAt(MONDAY_MORNING.plusDays(5))).isFalse();
+        assertThat(hours.isOpenAt(MONDAY_MORNING.plusDays(5).withHour(10))).isTrue();
+    }
+
+    @Test
+    void shouldApplyOverridesAdditionalRulesAndMonths() {
+        // Given & When & Then: 後面的規則覆蓋整天
+        assertThat(OpeningHoursParser.parse("Mo-Su 08:00-18:00; Mo off").isOpenAt(MONDAY_MORNING)).isFalse();
+        // 以逗號接續的附加規則只扣除指定時段
+        OpeningHours lunchBreak = OpeningHoursParser.parse("Mo-Fr 08:00-18:00, Mo 12:00-13:00 off");
+        assertThat(lunchBreak.isOpenAt(MONDAY_MORNING)).isTrue();
+        assertThat(lunchBreak.isOpenAt(MONDAY_MORNING.withHour(12))).isFalse();
+        // 月份範圍可跨年
+        OpeningHours seasonal = OpeningHoursParser.parse("Nov-Feb 10:00-16:00; Mar-Oct 08:00-20:00");
+        assertThat(seasonal.isOpenAt(MONDAY_MORNING)).isTrue();
+        assertThat(seasonal.isOpenAt(LocalDateTime.of(2025, 12, 1, 9, 0))).isFalse();
+    }
+
+    @Test
+    void shouldApplyFallbackRulesOnlyWhereNoEarlierRuleMatched() {
+        // Given
+        OpeningHours weekdays = OpeningHoursParser.parse("Mo-Fr 09:00-17:00 || off");
+        OpeningHours weekendMornings = OpeningHoursParser.parse("Mo-Fr 09:00-17:00 || 10:00-12:00");
+
+        // When & Then: || off 只關閉前面規則沒有涵蓋的日期
+        assertThat(weekdays.isOpenAt(MONDAY_MORNING)).isTrue();
+        assertThat(weekdays.isOpenAt(MONDAY_MORNING.withHour(18))).isFalse();
+        assertThat(weekdays.isOpenAt(MONDAY_MORNING.plusDays(5).withHour(10))).isFalse();
+        // 備援時段只補在前面規則沒有涵蓋的日期
+        assertThat(weekendMornings.isOpenAt(MONDAY_MORNING.withHour(16))).isTrue();
+        assertThat(weekendMornings.isOpenAt(MONDAY_MORNING.plusDays(5).withHour(10))).isTrue();
+        assertThat(weekendMornings.isOpenAt(MONDAY_MORNING.plusDays(5).withHour(13))).isFalse();
+    }
+
+    @Test
+    void shouldHandleSpansPastMidnight() {
+        // Given
+        OpeningHours hours = OpeningHoursParser.parse("Su 22:00-02:00");
+
+        // When & Then: 週日晚上的時段延續到週一凌晨
+        assertThat(hours.isOpenAt(MONDAY_MORNING.withHour(1))).isTrue();
+        assertThat(hours.isOpenAt(MONDAY_MORNING.withHour(2))).isFalse();
+    }
+
+    @Test
+    void shouldRejectUnsupportedSyntax() {
+        // Given & When & Then
+        assertThatThrownBy(() -> OpeningHoursParser.parse("sunrise-sunset")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OpeningHoursParser.parse("Dec 25 off")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OpeningHoursParser.parse("Mo[1] 08:00-10:00")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(OpeningHoursParser.compile("PH off")).isEmpty();
+    }
+
+    @Test
+    void shouldCacheCompiledResultByRawString() {
+        // Given & When & Then
+        assertThat(OpeningHoursParser.compile("Mo-Fr 07:00-19:00").get())
+                .isSameAs(OpeningHoursParser.compile("Mo-Fr 07:00-19:00").get());
+    }
+}
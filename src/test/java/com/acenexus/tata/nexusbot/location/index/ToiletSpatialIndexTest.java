@@ -0,0 +1,79 @@
+package com.acenexus.tata.nexusbot.location.index;
+
+import com.acenexus.tata.nexusbot.location.OsmElement;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 測試離線廁所空間索引的半徑查詢與涵蓋範圍判斷
+ */
+class ToiletSpatialIndexTest {
+
+    @Test
+    void shouldReturnOnlyElementsWithinRadius() {
+        // Given: 台北車站附近兩點（約 150 公尺、約 900 公尺）與一個遠處的點
+        ToiletSpatialIndex index = ToiletSpatialIndex.builder(0.01)
+                .add(element(1L, 25.0478, 121.5185))
+                .add(element(2L, 25.0540, 121.5230))
+                .add(element(3L, 25.0330, 121.5654))
+                .build();
+
+        // When
+        List<OsmElement> near = index.query(25.0465, 121.5180, 300);
+        List<OsmElement> wider = index.query(25.0465, 121.5180, 1200);
+
+        // Then
+        assertThat(near).extracting(OsmElement::getId).containsExactly(1L);
+        assertThat(wider).extracting(OsmElement::getId).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void shouldFindElementsAcrossCellBoundaries() {
+        // Given: 兩點分屬相鄰網格（邊界在 25.00 / 121.50）
+        ToiletSpatialIndex index = ToiletSpatialIndex.builder(0.01)
+                .add(element(1L, 24.9995, 121.4995))
+                .add(element(2L, 25.0005, 121.5005))
+                .build();
+
+        // When & Then
+        assertThat(index.query(25.0, 121.5, 200)).hasSize(2);
+    }
+
+    @Test
+    void shouldReportCoverageFromExplicitBounds() {
+        // Given
+        ToiletSpatialIndex index = ToiletSpatialIndex.builder(0.01)
+                .bounds(24.9, 121.4, 25.2, 121.7)
+                .add(element(1L, 25.0478, 121.5185))
+                .build();
+
+        // When & Then
+        assertThat(index.covers(25.05, 121.55, 1000)).isTrue();
+        assertThat(index.covers(24.905, 121.55, 1000)).isFalse();
+        assertThat(index.covers(22.6, 120.3, 1000)).isFalse();
+    }
+
+    @Test
+    void shouldNotCoverAnythingWhenEmpty() {
+        // Given
+        ToiletSpatialIndex index = ToiletSpatialIndex.builder(0.01)
+                .add(new OsmElement()) // 缺少座標的元素會被忽略
+                .build();
+
+        // When & Then
+        assertThat(index.size()).isZero();
+        assertThat(index.covers(25.05, 121.55, 1000)).isFalse();
+    }
+
+    private static OsmElement element(Long id, double lat, double lon) {
+        OsmElement element = new OsmElement();
+        element.setId(id);
+        element.setType("node");
+        element.setLat(lat);
+        element.setLon(lon);
+        return element;
+    }
+}
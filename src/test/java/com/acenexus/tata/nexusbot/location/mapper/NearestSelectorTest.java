@@ -0,0 +1,66 @@
+package com.acenexus.tata.nexusbot.location.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 測試最近 K 筆選取與暴力排序結果一致
+ */
+class NearestSelectorTest {
+
+    private static final double USER_LAT = 25.0478;
+    private static final double USER_LON = 121.5170;
+
+    @Test
+    void shouldMatchBruteForceNearestWithinRadius() {
+        // Given
+        Random random = new Random(42);
+        int count = 5000;
+        double[] lats = new double[count];
+        double[] lons = new double[count];
+        for (int i = 0; i < count; i++) {
+            lats[i] = USER_LAT - 0.02 + random.nextDouble() * 0.04;
+            lons[i] = USER_LON - 0.02 + random.nextDouble() * 0.04;
+        }
+
+        // When
+        int[] selected = NearestSelector.select(lats, lons, count, USER_LAT, USER_LON, 1200, 10);
+
+        // Then
+        int[] expected = IntStream.range(0, count)
+                .boxed()
+                .filter(i -> distance(lats[i], lons[i]) <= 1200)
+                .sorted(Comparator.comparingDouble(i -> distance(lats[i], lons[i])))
+                .limit(10)
+                .mapToInt(Integer::intValue)
+                .toArray();
+        assertThat(selected).containsExactly(expected);
+    }
+
+    @Test
+    void shouldReturnFewerThanKWhenRadiusIsSparse() {
+        // Given: 只有一點在 300 公尺內
+        double[] lats = {USER_LAT + 0.001, USER_LAT + 0.01, USER_LAT - 0.02};
+        double[] lons = {USER_LON, USER_LON, USER_LON};
+
+        // When
+        int[] selected = NearestSelector.select(lats, lons, lats.length, USER_LAT, USER_LON, 300, 10);
+
+        // Then
+        assertThat(selected).containsExactly(0);
+    }
+
+    private static double distance(double lat, double lon) {
+        double latDistance = Math.toRadians(lat - USER_LAT);
+        double lonDistance = Math.toRadians(lon - USER_LON);
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(USER_LAT)) * Math.cos(Math.toRadians(lat))
+                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        return 6371000 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
@@ -0,0 +1,78 @@
+package com.acenexus.tata.nexusbot.reminder;
+
+import com.acenexus.tata.nexusbot.config.properties.EmailProperties;
+import com.acenexus.tata.nexusbot.config.properties.LineBotProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 測試 Email 確認連結 Token 的簽發與驗證
+ */
+class ConfirmationTokenServiceTest {
+
+    private EmailProperties emailProperties;
+    private ConfirmationTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        emailProperties = new EmailProperties();
+        emailProperties.setConfirmationSecret("test-confirmation-secret");
+        service = new ConfirmationTokenService(emailProperties, new LineBotProperties());
+        service.init();
+    }
+
+    @Test
+    void shouldRoundTripLogId() {
+        // Given
+        String token = service.issue(12345L);
+
+        // When & Then
+        assertThat(service.verify(token)).hasValue(12345L);
+    }
+
+    @Test
+    void shouldRejectTamperedToken() {
+        // Given: 竄改 payload 中的日誌 ID
+        byte[] bytes = Base64.getUrlDecoder().decode(service.issue(12345L));
+        bytes[7] ^= 1;
+        String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        // When & Then
+        assertThat(service.verify(tampered)).isEmpty();
+    }
+
+    @Test
+    void shouldRejectTokenSignedWithAnotherSecret() {
+        // Given
+        EmailProperties otherProperties = new EmailProperties();
+        otherProperties.setConfirmationSecret("another-secret");
+        ConfirmationTokenService other = new ConfirmationTokenService(otherProperties, new LineBotProperties());
+        other.init();
+
+        // When & Then
+        assertThat(service.verify(other.issue(12345L))).isEmpty();
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        // Given: 有效天數為負值，簽發即過期
+        emailProperties.setConfirmationTtlDays(-1);
+        String token = service.issue(12345L);
+
+        // When & Then
+        assertThat(service.verify(token)).isEmpty();
+    }
+
+    @Test
+    void shouldRejectMalformedTokens() {
+        // Given & When & Then
+        assertThat(service.verify(null)).isEmpty();
+        assertThat(service.verify("")).isEmpty();
+        assertThat(service.verify("a1b2c3d4-e5f6-7890-abcd-ef1234567890")).isEmpty();
+        assertThat(service.verify("not base64 !!")).isEmpty();
+    }
+}
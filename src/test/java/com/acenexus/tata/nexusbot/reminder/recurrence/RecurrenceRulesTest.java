@@ -0,0 +1,160 @@
+package com.acenexus.tata.nexusbot.reminder.recurrence;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 測試重複規則解析與下一次觸發時間計算
+ */
+class RecurrenceRulesTest {
+
+    private static final ZoneId TAIPEI = ZoneId.of("Asia/Taipei");
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    @Test
+    void shouldParseKeywordsAndRRules() {
+        // Given & When & Then
+        assertThat(RecurrenceRules.parse("ONCE").isRepeating()).isFalse();
+        assertThat(RecurrenceRules.parse("daily")).isEqualTo(new RecurrenceRule.Daily(1));
+        assertThat(RecurrenceRules.parse("RRULE:FREQ=HOURLY;INTERVAL=4")).isInstanceOf(RecurrenceRule.FixedInterval.class);
+        assertThat(RecurrenceRules.parse("RRULE:FREQ=MONTHLY;BYMONTHDAY=15")).isEqualTo(new RecurrenceRule.Monthly(1, 15));
+        assertThat(((RecurrenceRule.Weekly) RecurrenceRules.parse("RRULE:FREQ=WEEKLY;BYDAY=MO,FR")).days())
+                .containsExactly(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+    }
+
+    @Test
+    void shouldRejectInvalidRules() {
+        // Given & When & Then
+        assertThatThrownBy(() -> RecurrenceRules.parse("YEARLY")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceRules.parse("RRULE:FREQ=DAILY;INTERVAL=0")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceRules.parse("RRULE:FREQ=WEEKLY;BYDAY=XX")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(RecurrenceRules.describe("YEARLY")).isEqualTo("僅一次");
+    }
+
+    @Test
+    void shouldSkipMissedDailyOccurrencesWithoutLooping() {
+        // Given: 每日 08:00 提醒，停機一年後才恢復
+        ZonedDateTime previous = LocalDateTime.of(2024, 1, 1, 8, 0).atZone(TAIPEI);
+        Instant now = LocalDateTime.of(2025, 1, 1, 9, 0).atZone(TAIPEI).toInstant();
+
+        // When
+        ZonedDateTime next = RecurrenceRules.parse("DAILY").next(previous, now).orElseThrow();
+
+        // Then: 直接跳到下一個未來的 08:00
+        assertThat(next.toLocalDateTime()).isEqualTo(LocalDateTime.of(2025, 1, 2, 8, 0));
+    }
+
+    @Test
+    void shouldKeepWallClockTimeAcrossDaylightSavingTransition() {
+        // Given: 紐約 2025-03-09 為夏令時間開始日
+        ZonedDateTime previous = LocalDateTime.of(2025, 3, 8, 9, 0).atZone(NEW_YORK);
+        Instant now = previous.toInstant().plusSeconds(1);
+
+        // When
+        ZonedDateTime next = RecurrenceRules.parse("DAILY").next(previous, now).orElseThrow();
+
+        // Then: 仍為當地 09:00，但僅相隔 23 小時
+        assertThat(next.toLocalDateTime()).isEqualTo(LocalDateTime.of(2025, 3, 9, 9, 0));
+        assertThat(next.toEpochSecond() - previous.toEpochSecond()).isEqualTo(23 * 3600);
+    }
+
+    @Test
+    void shouldAdvanceWeekdaysRuleOverWeekend() {
+        // Given: 2025-01-03 為週五
+        ZonedDateTime previous = LocalDateTime.of(2025, 1, 3, 7, 30).atZone(TAIPEI);
+        Instant now = previous.toInstant().plusSeconds(1);
+
+        // When
+        ZonedDateTime next = RecurrenceRules.parse("WEEKDAYS").next(previous, now).orElseThrow();
+
+        // Then: 跳過週末到下週一
+        assertThat(next.toLocalDateTime()).isEqualTo(LocalDateTime.of(2025, 1, 6, 7, 30));
+    }
+
+    @Test
+    void shouldRespectWeeklyInterval() {
+        // Given: 每兩週的週一、週三，上一次為 2025-01-08（週三）
+        ZonedDateTime previous = LocalDateTime.of(2025, 1, 8, 10, 0).atZone(TAIPEI);
+        Instant now = previous.toInstant().plusSeconds(1);
+
+        // When
+        ZonedDateTime next = RecurrenceRules.parse("RRULE:FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE").next(previous, now).orElseThrow();
+
+        // Then: 跳過下一週，落在 2025-01-20（週一）
+        assertThat(next.toLocalDateTime()).isEqualTo(LocalDateTime.of(2025, 1, 20, 10, 0));
+    }
+
+    @Test
+    void shouldClampMonthlyRuleToEndOfMonth() {
+        // Given: 每月 31 日
+        ZonedDateTime previous = LocalDateTime.of(2025, 1, 31, 20, 0).atZone(TAIPEI);
+        Instant now = previous.toInstant().plusSeconds(1);
+        RecurrenceRule rule = RecurrenceRules.parse("RRULE:FREQ=MONTHLY;BYMONTHDAY=31");
+
+        // When
+        ZonedDateTime february = rule.next(previous, now).orElseThrow();
+        ZonedDateTime march = rule.next(february, february.toInstant().plusSeconds(1)).orElseThrow();
+
+        // Then: 二月取最後一天，三月回到 31 日
+        assertThat(february.toLocalDateTime()).isEqualTo(LocalDateTime.of(2025, 2, 28, 20, 0));
+        assertThat(march.toLocalDateTime()).isEqualTo(LocalDateTime.of(2025, 3, 31, 20, 0));
+    }
+
+    @Test
+    void shouldReturnToAnchorDayAfterMonthEndClamp() {
+        // Given: 1 月 31 日建立的每月提醒（未指定日期，沿用建立日）
+        LocalDateTime anchor = LocalDateTime.of(2025, 1, 31, 20, 0);
+        ZonedDateTime previous = anchor.atZone(TAIPEI);
+        RecurrenceRule rule = RecurrenceRules.parse("MONTHLY");
+
+        // When: 每次都以上一次觸發時間推進
+        ZonedDateTime february = rule.next(previous, anchor, previous.toInstant().plusSeconds(1)).orElseThrow();
+        ZonedDateTime march = rule.next(february, anchor, february.toInstant().plusSeconds(1)).orElseThrow();
+
+        // Then: 二月取最後一天，三月回到 31 日而非沿用 28 日
+        assertThat(february.toLocalDateTime()).isEqualTo(LocalDateTime.of(2025, 2, 28, 20, 0));
+        assertThat(march.toLocalDateTime()).isEqualTo(LocalDateTime.of(2025, 3, 31, 20, 0));
+    }
+
+    @Test
+    void shouldReturnToAnchorTimeAfterDaylightSavingGap() {
+        // Given: 紐約每日 02:30 提醒，2025-03-09 02:30 不存在（夏令時間開始）
+        LocalDateTime anchor = LocalDateTime.of(2025, 3, 8, 2, 30);
+        ZonedDateTime previous = anchor.atZone(NEW_YORK);
+        RecurrenceRule daily = RecurrenceRules.parse("DAILY");
+        RecurrenceRule weekly = RecurrenceRules.parse("RRULE:FREQ=WEEKLY;BYDAY=SA,SU,MO");
+
+        // When
+        ZonedDateTime gapDay = daily.next(previous, anchor, previous.toInstant().plusSeconds(1)).orElseThrow();
+        ZonedDateTime dayAfter = daily.next(gapDay, anchor, gapDay.toInstant().plusSeconds(1)).orElseThrow();
+        ZonedDateTime weeklyGap = weekly.next(previous, anchor, previous.toInstant().plusSeconds(1)).orElseThrow();
+        ZonedDateTime weeklyAfter = weekly.next(weeklyGap, anchor, weeklyGap.toInstant().plusSeconds(1)).orElseThrow();
+
+        // Then: 只有缺口當天順延到 03:30，隔天回到 02:30
+        assertThat(gapDay.toLocalDateTime()).isEqualTo(LocalDateTime.of(2025, 3, 9, 3, 30));
+        assertThat(dayAfter.toLocalDateTime()).isEqualTo(LocalDateTime.of(2025, 3, 10, 2, 30));
+        assertThat(weeklyGap.toLocalDateTime()).isEqualTo(LocalDateTime.of(2025, 3, 9, 3, 30));
+        assertThat(weeklyAfter.toLocalDateTime()).isEqualTo(LocalDateTime.of(2025, 3, 10, 2, 30));
+    }
+
+    @Test
+    void shouldAdvanceFixedIntervalByAbsoluteTime() {
+        // Given: 每 4 小時，停機 10 小時
+        ZonedDateTime previous = LocalDateTime.of(2025, 1, 1, 0, 0).atZone(TAIPEI);
+        Instant now = previous.toInstant().plusSeconds(10 * 3600);
+
+        // When
+        ZonedDateTime next = RecurrenceRules.parse("RRULE:FREQ=HOURLY;INTERVAL=4").next(previous, now).orElseThrow();
+
+        // Then
+        assertThat(next.toLocalDateTime()).isEqualTo(LocalDateTime.of(2025, 1, 1, 12, 0));
+    }
+}
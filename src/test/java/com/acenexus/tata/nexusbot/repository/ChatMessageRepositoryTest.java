@@ -0,0 +1,64 @@
+package com.acenexus.tata.nexusbot.repository;
+
+import com.acenexus.tata.nexusbot.entity.ChatMessage;
+import com.acenexus.tata.nexusbot.entity.ChatRoom;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 測試清除對話記錄後的歷史查詢（以聊天室清除時間點過濾，不需逐筆軟刪除）
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class ChatMessageRepositoryTest {
+
+    private static final String ROOM_ID = "U-history-test";
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void shouldOnlyReturnMessagesAfterHistoryCleared() {
+        // Given: 兩筆一小時前的訊息，清除時間為 30 分鐘前，之後再有一筆新訊息
+        LocalDateTime now = LocalDateTime.now();
+        chatRoomRepository.save(ChatRoom.builder()
+                .roomId(ROOM_ID)
+                .roomType(ChatRoom.RoomType.USER)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        ChatMessage old1 = chatMessageRepository.save(ChatMessage.createUserMessage(ROOM_ID, ChatRoom.RoomType.USER, ROOM_ID, "old question"));
+        ChatMessage old2 = chatMessageRepository.save(ChatMessage.createAIMessage(ROOM_ID, ChatRoom.RoomType.USER, "old answer", "llama-3.1-8b-instant"));
+        chatMessageRepository.save(ChatMessage.createUserMessage(ROOM_ID, ChatRoom.RoomType.USER, ROOM_ID, "new question"));
+        entityManager.flush();
+        entityManager.createNativeQuery("UPDATE chat_messages SET created_at = ? WHERE id IN (?, ?)")
+                .setParameter(1, now.minusHours(1))
+                .setParameter(2, old1.getId())
+                .setParameter(3, old2.getId())
+                .executeUpdate();
+
+        // When
+        int updated = chatRoomRepository.markHistoryCleared(ROOM_ID, now.minusMinutes(30));
+        entityManager.clear();
+        List<ChatMessage> history = chatMessageRepository.findRecentMessagesDesc(ROOM_ID, 15);
+
+        // Then: 只更新聊天室一筆，舊訊息仍在資料表中但不出現在歷史中
+        assertThat(updated).isEqualTo(1);
+        assertThat(chatMessageRepository.count()).isEqualTo(3);
+        assertThat(history).extracting(ChatMessage::getContent).containsExactly("new question");
+    }
+}
@@ -0,0 +1,152 @@
+package com.acenexus.tata.nexusbot.repository;
+
+import com.acenexus.tata.nexusbot.chatroom.ChatRoomAccessor;
+import com.acenexus.tata.nexusbot.config.properties.EmailProperties;
+import com.acenexus.tata.nexusbot.config.properties.TimezoneProperties;
+import com.acenexus.tata.nexusbot.email.EmailInputStateService;
+import com.acenexus.tata.nexusbot.entity.Reminder;
+import com.acenexus.tata.nexusbot.entity.ReminderLog;
+import com.acenexus.tata.nexusbot.event.ReplyAccumulator;
+import com.acenexus.tata.nexusbot.facade.impl.ReminderFacadeImpl;
+import com.acenexus.tata.nexusbot.reminder.ConfirmationTokenService;
+import com.acenexus.tata.nexusbot.reminder.ReminderLogService;
+import com.acenexus.tata.nexusbot.reminder.ReminderLogWriter;
+import com.acenexus.tata.nexusbot.reminder.ReminderService;
+import com.acenexus.tata.nexusbot.reminder.ReminderStateManager;
+import com.acenexus.tata.nexusbot.template.MessageTemplateProvider;
+import com.acenexus.tata.nexusbot.timezone.TimezoneInputStateService;
+import com.acenexus.tata.nexusbot.util.AnalyzerUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 測試提醒日誌批量查詢（防止提醒列表退回 N+1 查詢）
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class ReminderLogRepositoryTest {
+
+    @Autowired
+    private ReminderLogRepository reminderLogRepository;
+
+    @Autowired
+    private ReminderRepository reminderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void shouldFindLatestLogsForManyRemindersInSingleQuery() {
+        // Given: 50 個提醒，每個提醒各有 3 筆日誌，最新一筆為 FAILED
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        List<Long> reminderIds = LongStream.rangeClosed(1, 50).boxed().toList();
+        for (Long reminderId : reminderIds) {
+            reminderLogRepository.save(log(reminderId, "SENT", base));
+            reminderLogRepository.save(log(reminderId, "SENT", base.plusMinutes(1)));
+            reminderLogRepository.save(log(reminderId, "FAILED", base.plusMinutes(2)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        // When
+        List<ReminderLog> latest = reminderLogRepository.findLatestByReminderIds(reminderIds);
+
+        // Then: 只執行一次查詢，且每個提醒只取回最新一筆
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(latest).hasSize(50);
+        assertThat(latest).allSatisfy(log -> {
+            assertThat(log.getStatus()).isEqualTo("FAILED");
+            assertThat(log.getCreatedAt()).isEqualTo(base.plusMinutes(2));
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldListActiveRemindersWithSingleLogQuery() {
+        // Given: 50 個提醒，每個提醒各有 3 筆日誌；第 1 個提醒走 EMAIL 通道
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        List<Reminder> reminders = LongStream.rangeClosed(1, 50)
+                .mapToObj(id -> Reminder.builder().id(id).roomId("room-1").content("提醒 " + id)
+                        .notificationChannel(id == 1 ? "EMAIL" : "LINE").build())
+                .toList();
+        for (Reminder reminder : reminders) {
+            reminderLogRepository.save(log(reminder.getId(), "SENT", base));
+            reminderLogRepository.save(log(reminder.getId(), "SENT", base.plusMinutes(1)));
+            reminderLogRepository.save(log(reminder.getId(), "FAILED", base.plusMinutes(2)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        ReminderService reminderService = mock(ReminderService.class);
+        when(reminderService.getActiveReminders("room-1")).thenReturn(reminders);
+        MessageTemplateProvider messageTemplateProvider = mock(MessageTemplateProvider.class);
+        ReminderLogService reminderLogService = new ReminderLogService(reminderLogRepository, reminderRepository,
+                mock(ReminderLogWriter.class), mock(ConfirmationTokenService.class), new TimezoneProperties(), new EmailProperties());
+        ReminderFacadeImpl reminderFacade = new ReminderFacadeImpl(reminderService, mock(ReminderStateManager.class),
+                reminderLogService, messageTemplateProvider, mock(ChatRoomAccessor.class), mock(EmailInputStateService.class),
+                mock(TimezoneInputStateService.class), mock(AnalyzerUtil.class), mock(ReplyAccumulator.class));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        // When
+        reminderFacade.listActive("room-1");
+
+        // Then: 提醒數量不影響查詢次數，且每個提醒都有狀態
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        ArgumentCaptor<Map<Long, String>> statuses = ArgumentCaptor.forClass(Map.class);
+        verify(messageTemplateProvider).reminderList(eq(reminders), statuses.capture());
+        assertThat(statuses.getValue()).hasSize(50)
+                .containsEntry(1L, "待確認")
+                .containsEntry(50L, "無回應");
+    }
+
+    @Test
+    void shouldOmitRemindersWithoutLogs() {
+        // Given
+        reminderLogRepository.save(log(1L, "SENT", LocalDateTime.of(2025, 1, 1, 9, 0)));
+
+        // When
+        List<ReminderLog> latest = reminderLogRepository.findLatestByReminderIds(List.of(1L, 2L));
+
+        // Then
+        assertThat(latest).extracting(ReminderLog::getReminderId).containsExactly(1L);
+    }
+
+    private static ReminderLog log(Long reminderId, String status, LocalDateTime createdAt) {
+        ReminderLog log = new ReminderLog();
+        log.setReminderId(reminderId);
+        log.setRoomId("room-" + reminderId);
+        log.setStatus(status);
+        log.setDeliveryMethod("LINE");
+        log.setSentTime(createdAt);
+        log.setCreatedAt(createdAt);
+        return log;
+    }
+}
@@ -0,0 +1,136 @@
+package com.acenexus.tata.nexusbot.scheduler;
+
+import com.acenexus.tata.nexusbot.ai.AIService;
+import com.acenexus.tata.nexusbot.config.properties.GroqProperties;
+import com.acenexus.tata.nexusbot.config.properties.NotificationOutboxProperties;
+import com.acenexus.tata.nexusbot.email.EmailManager;
+import com.acenexus.tata.nexusbot.entity.NotificationOutbox;
+import com.acenexus.tata.nexusbot.exception.ErrorCode;
+import com.acenexus.tata.nexusbot.exception.NexusException;
+import com.acenexus.tata.nexusbot.line.LineMessagingGateway;
+import com.acenexus.tata.nexusbot.line.LinePushQuotaService;
+import com.acenexus.tata.nexusbot.notification.EmailNotificationService;
+import com.acenexus.tata.nexusbot.notification.LineNotificationService;
+import com.acenexus.tata.nexusbot.notification.NotificationOutboxService;
+import com.acenexus.tata.nexusbot.notification.impl.ReminderNotificationServiceImpl;
+import com.acenexus.tata.nexusbot.reminder.ReminderLogWriter;
+import com.acenexus.tata.nexusbot.template.MessageTemplateProvider;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.TextMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 測試合併 Push 部分失敗後重試：沿用第一次的分組與 Retry Key，不與新到期的通知重新分組
+ */
+class NotificationOutboxWorkerTest {
+
+    private final List<String> pushes = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicBoolean failRoomOnce = new AtomicBoolean(true);
+
+    private NotificationOutboxService outboxService;
+    private NotificationOutboxWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        LineMessagingGateway gateway = mock(LineMessagingGateway.class);
+        doAnswer(invocation -> {
+            PushMessage push = invocation.getArgument(0);
+            String key = invocation.getArgument(1);
+            pushes.add(push.getTo() + "|" + key);
+            if ("room-1".equals(push.getTo()) && failRoomOnce.getAndSet(false)) {
+                throw new NexusException(ErrorCode.LINE_MESSAGE_SEND_FAILED, "timeout");
+            }
+            return null;
+        }).when(gateway).push(any(PushMessage.class), anyString());
+
+        MessageTemplateProvider templates = mock(MessageTemplateProvider.class);
+        when(templates.buildReminderNotification(any(), any(), any(), any(), any(), any())).thenReturn(new TextMessage("reminder"));
+        when(templates.reminderNotificationCarousel(anyList())).thenReturn(new TextMessage("carousel"));
+
+        outboxService = mock(NotificationOutboxService.class);
+        doAnswer(invocation -> {
+            List<NotificationOutbox> entries = invocation.getArgument(0);
+            String batchId = UUID.randomUUID().toString();
+            entries.forEach(entry -> entry.setDeliveryBatchId(batchId));
+            return batchId;
+        }).when(outboxService).assignDeliveryBatch(anyList());
+
+        LineNotificationService lineNotificationService = new LineNotificationService(gateway, templates, mock(ReminderLogWriter.class));
+        ReminderNotificationServiceImpl reminderNotificationService = new ReminderNotificationServiceImpl(lineNotificationService,
+                mock(EmailNotificationService.class), mock(EmailManager.class), outboxService, mock(LinePushQuotaService.class));
+
+        worker = new NotificationOutboxWorker(outboxService, reminderNotificationService, new NotificationOutboxProperties(),
+                mock(AIService.class), new GroqProperties());
+        worker.init();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        worker.shutdown();
+    }
+
+    @Test
+    void shouldRetryFailedAggregatedPushWithSameGroupAndRetryKey() {
+        // Given: room-1 的 A、B 合併 Push 失敗，room-2 的 D 成功；重試時 room-1 又多了新到期的 C，且認領順序不同
+        NotificationOutbox a = entry(1L, "room-1");
+        NotificationOutbox b = entry(2L, "room-1");
+        NotificationOutbox c = entry(3L, "room-1");
+        NotificationOutbox d = entry(4L, "room-2");
+        when(outboxService.claimBatch()).thenReturn(List.of(a, b, d)).thenReturn(List.of(c, b, a));
+
+        // When
+        worker.drain();
+        String batchId = a.getDeliveryBatchId();
+        List<String> firstAttempt = List.copyOf(pushes);
+        pushes.clear();
+        worker.drain();
+
+        // Then: 第一次失敗的 A、B 以同一個批次 ID 重送，C 另外單獨投遞，不會併入 A、B 的批次
+        assertThat(batchId).isNotNull().isEqualTo(b.getDeliveryBatchId());
+        assertThat(c.getDeliveryBatchId()).isNull();
+        assertThat(firstAttempt).containsExactlyInAnyOrder("room-1|" + batchId, "room-2|" + d.getIdempotencyKey());
+        assertThat(pushes).containsExactlyInAnyOrder("room-1|" + batchId, "room-1|" + c.getIdempotencyKey());
+
+        verify(outboxService, times(1)).assignDeliveryBatch(anyList());
+        verify(outboxService).markFailed(a, "LINE aggregated delivery returned failure");
+        verify(outboxService).markFailed(b, "LINE aggregated delivery returned failure");
+        verify(outboxService, never()).markFailed(d, "LINE aggregated delivery returned failure");
+        verify(outboxService).markSent(a);
+        verify(outboxService).markSent(b);
+        verify(outboxService).markSent(c);
+        verify(outboxService).markSent(d);
+    }
+
+    private static NotificationOutbox entry(Long id, String roomId) {
+        return NotificationOutbox.builder()
+                .id(id)
+                .idempotencyKey("key-" + id)
+                .reminderId(id)
+                .roomId(roomId)
+                .channel("LINE")
+                .content("吃藥")
+                .repeatType("ONCE")
+                .timezone("Asia/Taipei")
+                .firedAtInstant(1_700_000_000_000L)
+                .build();
+    }
+}
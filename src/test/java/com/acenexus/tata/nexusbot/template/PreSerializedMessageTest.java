@@ -0,0 +1,51 @@
+package com.acenexus.tata.nexusbot.template;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.linecorp.bot.model.ReplyMessage;
+import com.linecorp.bot.model.message.FlexMessage;
+import com.linecorp.bot.model.message.Message;
+import com.linecorp.bot.model.message.TextMessage;
+import com.linecorp.bot.model.message.flex.component.Box;
+import com.linecorp.bot.model.message.flex.component.Text;
+import com.linecorp.bot.model.message.flex.container.Bubble;
+import com.linecorp.bot.model.message.flex.unit.FlexLayout;
+import com.linecorp.bot.model.objectmapper.ModelObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 測試預先序列化訊息與 LINE SDK 直接序列化的結果一致
+ */
+class PreSerializedMessageTest {
+
+    private final ObjectMapper objectMapper = ModelObjectMapper.createNewObjectMapper();
+
+    @Test
+    void shouldSerializeIdenticallyToSourceMessage() throws Exception {
+        // Given
+        Bubble bubble = Bubble.builder()
+                .body(Box.builder().layout(FlexLayout.VERTICAL).contents(List.of(Text.builder().text("主選單").build())).build())
+                .build();
+        List<Message> messages = List.of(new TextMessage("你好"), new FlexMessage("主選單", bubble));
+        List<Message> cached = messages.stream().map(message -> (Message) PreSerializedMessage.of(message)).toList();
+
+        // When
+        String expected = objectMapper.writeValueAsString(new ReplyMessage("token", messages));
+        String actual = objectMapper.writeValueAsString(new ReplyMessage("token", cached));
+
+        // Then
+        assertThat(objectMapper.readTree(actual)).isEqualTo(objectMapper.readTree(expected));
+    }
+
+    @Test
+    void shouldNotWrapTwice() {
+        // Given
+        PreSerializedMessage message = PreSerializedMessage.of(new TextMessage("你好"));
+
+        // When & Then
+        assertThat(PreSerializedMessage.of(message)).isSameAs(message);
+    }
+}
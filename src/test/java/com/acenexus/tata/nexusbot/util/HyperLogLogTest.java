@@ -0,0 +1,49 @@
+package com.acenexus.tata.nexusbot.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * 測試 HyperLogLog 基數估計、合併與序列化
+ */
+class HyperLogLogTest {
+
+    @Test
+    void shouldEstimateDistinctCountWithinErrorBound() {
+        // Given
+        HyperLogLog sketch = new HyperLogLog(12);
+
+        // When: 每個元素重複加入兩次
+        for (int i = 0; i < 10_000; i++) {
+            sketch.add("room-" + i);
+            sketch.add("room-" + i);
+        }
+
+        // Then
+        assertThat((double) sketch.estimate()).isCloseTo(10_000, offset(500.0));
+    }
+
+    @Test
+    void shouldMergeIdempotentlyAndRoundTripBytes() {
+        // Given: 兩個估計器各有一半重疊
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        for (int i = 0; i < 3_000; i++) {
+            first.add("room-" + i);
+            second.add("room-" + (i + 1_500));
+        }
+
+        // When
+        first.merge(second);
+        long merged = first.estimate();
+        first.merge(second);
+        HyperLogLog restored = HyperLogLog.fromBytes(first.toBytes());
+
+        // Then
+        assertThat((double) merged).isCloseTo(4_500, offset(225.0));
+        assertThat(first.estimate()).isEqualTo(merged);
+        assertThat(restored.estimate()).isEqualTo(merged);
+    }
+}
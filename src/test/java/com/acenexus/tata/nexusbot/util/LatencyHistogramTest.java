@@ -0,0 +1,52 @@
+package com.acenexus.tata.nexusbot.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * 測試延遲直方圖的百分位數、合併與序列化
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void shouldEstimatePercentilesWithinBucketError() {
+        // Given: 1 ~ 1000 毫秒各一筆
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 1000; ms++) {
+            histogram.record(ms);
+        }
+
+        // When & Then: 相對誤差不超過一個桶（約 9%）
+        assertThat(histogram.count()).isEqualTo(1000);
+        assertThat(histogram.percentile(0.5)).isCloseTo(500L, within(45L));
+        assertThat(histogram.percentile(0.95)).isCloseTo(950L, within(86L));
+        assertThat(histogram.percentile(0.99)).isCloseTo(990L, within(90L));
+        assertThat(new LatencyHistogram().percentile(0.5)).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldMergeByAddingBucketsAndRoundTripBytes() {
+        // Given
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            fast.record(100);
+        }
+        for (int i = 0; i < 10; i++) {
+            slow.record(5000);
+        }
+
+        // When
+        fast.merge(slow);
+        LatencyHistogram restored = LatencyHistogram.fromBytes(fast.toBytes());
+
+        // Then
+        assertThat(restored.count()).isEqualTo(100);
+        assertThat(restored.percentile(0.5)).isCloseTo(100L, within(10L));
+        assertThat(restored.percentile(0.95)).isCloseTo(5000L, within(450L));
+        assertThatThrownBy(() -> LatencyHistogram.fromBytes(new byte[16])).isInstanceOf(IllegalArgumentException.class);
+    }
+}
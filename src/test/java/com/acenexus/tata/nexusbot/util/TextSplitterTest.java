@@ -0,0 +1,72 @@
+package com.acenexus.tata.nexusbot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 測試長文字依字素邊界拆分
+ */
+class TextSplitterTest {
+
+    private static final String FAMILY = "\uD83D\uDC68\u200D\uD83D\uDC69\u200D\uD83D\uDC67"; // 👨‍👩‍👧，8 個 UTF-16 單位
+    private static final String THUMBS_UP_MEDIUM = "\uD83D\uDC4D\uD83C\uDFFD"; // 👍🏽，4 個 UTF-16 單位
+
+    @Test
+    void shouldKeepShortTextAsSinglePart() {
+        // Given & When & Then
+        assertThat(TextSplitter.split("你好", 10)).containsExactly("你好");
+        assertThat(TextSplitter.split("", 10)).isEmpty();
+        assertThat(TextSplitter.split(null, 10)).isEmpty();
+    }
+
+    @Test
+    void shouldNotSplitEmojiZwjSequence() {
+        // Given: 上限落在家庭 Emoji 的中間
+        String text = "aaaaaaa" + FAMILY + "b";
+
+        // When
+        List<String> parts = TextSplitter.split(text, 10);
+
+        // Then
+        assertThat(parts).containsExactly("aaaaaaa", FAMILY + "b");
+    }
+
+    @Test
+    void shouldNotSplitSkinToneModifierOrCombiningMark() {
+        // Given & When & Then
+        assertThat(TextSplitter.split(THUMBS_UP_MEDIUM + THUMBS_UP_MEDIUM, 6))
+                .containsExactly(THUMBS_UP_MEDIUM, THUMBS_UP_MEDIUM);
+        String accented = "e\u0301"; // e + 組合重音符
+        assertThat(TextSplitter.split(accented.repeat(3), 3))
+                .containsExactly(accented, accented, accented);
+    }
+
+    @Test
+    void shouldRespectMaxLengthAndPreserveContent() {
+        // Given
+        String text = ("測試" + THUMBS_UP_MEDIUM + "abc\n").repeat(500);
+
+        // When
+        List<String> parts = TextSplitter.split(text, 97);
+
+        // Then
+        assertThat(parts).allSatisfy(part -> assertThat(part.length()).isLessThanOrEqualTo(97));
+        assertThat(String.join("", parts)).isEqualTo(text);
+    }
+
+    @Test
+    void shouldNeverSplitSurrogatePairEvenWhenClusterExceedsLimit() {
+        // Given: 單一字素超過上限時仍不可切斷代理對
+        List<String> parts = TextSplitter.split(FAMILY, 3);
+
+        // When & Then
+        assertThat(String.join("", parts)).isEqualTo(FAMILY);
+        assertThat(parts).allSatisfy(part -> {
+            assertThat(Character.isLowSurrogate(part.charAt(0))).isFalse();
+            assertThat(Character.isHighSurrogate(part.charAt(part.length() - 1))).isFalse();
+        });
+    }
+}